@@ -0,0 +1,142 @@
+package com.itau.pix.benchmark;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixRequisicaoDto;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.enums.TipoCorrentista;
+import com.itau.pix.repository.PixLeituraLocal;
+import com.itau.pix.repository.PixRepository;
+import com.itau.pix.service.DiretorioChaves;
+import com.itau.pix.service.FiltroChavesExistentes;
+import com.itau.pix.service.PixService;
+import com.itau.pix.validator.PixValidadorStrategy;
+import com.itau.pix.validator.ValidadorCNPJ;
+import com.itau.pix.validator.ValidadorCPF;
+import com.itau.pix.validator.ValidadorCelular;
+import com.itau.pix.validator.ValidadorChaveAleatoria;
+import com.itau.pix.validator.ValidadorEmail;
+import com.itau.pix.validator.ValidadorPixFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+final class Massas {
+
+    private static final TipoChave[] TIPOS = TipoChave.values();
+
+    private Massas() {
+    }
+
+    static PixRequisicaoDto requisicao(TipoChave tipoChave, String valorChave) {
+        PixRequisicaoDto dto = new PixRequisicaoDto();
+        dto.setTipoChave(tipoChave);
+        dto.setValorChave(valorChave);
+        dto.setTipoConta("corrente");
+        dto.setNumeroAgencia("1234");
+        dto.setNumeroConta("12345678");
+        dto.setNomeCorrentista("João");
+        dto.setSobrenomeCorrentista("Silva");
+        dto.setTipoCorrentista(TipoCorrentista.FISICA);
+        return dto;
+    }
+
+    static PixModelo chave(int i) {
+        PixModelo pixKey = new PixModelo();
+        pixKey.setId(UUID.randomUUID().toString());
+        pixKey.setTipoChave(TIPOS[i % TIPOS.length]);
+        pixKey.setValorChave("chave" + i + "@teste.com");
+        pixKey.setTipoConta("corrente");
+        pixKey.setNumeroAgencia("1234");
+        pixKey.setNumeroConta(conta(i / 5));
+        pixKey.setNomeCorrentista("Carlos");
+        pixKey.setSobrenomeCorrentista("Pereira");
+        pixKey.setDataHoraInclusao(LocalDateTime.now());
+        pixKey.setInativa(false);
+        pixKey.setTipoCorrentista(TipoCorrentista.FISICA);
+        return pixKey;
+    }
+
+    static List<PixModelo> chaves(int quantidade) {
+        List<PixModelo> chaves = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            chaves.add(chave(i));
+        }
+        return chaves;
+    }
+
+    static String conta(int i) {
+        String numero = Integer.toString(i);
+        return "0".repeat(8 - numero.length()) + numero;
+    }
+
+    /**
+     * CPF válido e distinto para cada {@code i} até 899.999.999.
+     */
+    static String cpf(int i) {
+        StringBuilder cpf = new StringBuilder(Integer.toString(100_000_000 + i));
+        for (int pesoInicial = 10; pesoInicial <= 11; pesoInicial++) {
+            int soma = 0;
+            for (int j = 0; j < cpf.length(); j++) {
+                soma += (cpf.charAt(j) - '0') * (pesoInicial - j);
+            }
+            int resto = 11 - soma % 11;
+            cpf.append(resto >= 10 ? 0 : resto);
+        }
+        return cpf.toString();
+    }
+
+    /**
+     * CNPJ válido da matriz (0001) cuja raiz é {@link #conta(int)}.
+     */
+    static String cnpj(int i) {
+        StringBuilder cnpj = new StringBuilder(conta(i)).append("0001");
+        for (int digito = 0; digito < 2; digito++) {
+            int soma = 0;
+            for (int j = 0; j < cnpj.length(); j++) {
+                soma += (cnpj.charAt(j) - '0') * (2 + (cnpj.length() - 1 - j) % 8);
+            }
+            int resto = soma % 11;
+            cnpj.append(resto < 2 ? 0 : 11 - resto);
+        }
+        return cnpj.toString();
+    }
+
+    static String celular(int i) {
+        return "+55119" + conta(i);
+    }
+
+    static PixValidadorStrategy validador() {
+        ValidadorPixFactory factory = new ValidadorPixFactory(List.of(
+                new ValidadorCelular(),
+                new ValidadorEmail(),
+                new ValidadorCPF(),
+                new ValidadorCNPJ(),
+                new ValidadorChaveAleatoria()));
+        return new PixValidadorStrategy(factory, Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    static PixService servico(PixRepository repository) {
+        PixService service = new PixService();
+        injetar(service, "repository", repository);
+        injetar(service, "validador", validador());
+        injetar(service, "cacheResolucao", Caffeine.newBuilder().maximumSize(100_000).build());
+        injetar(service, "filtroChaves", new FiltroChavesExistentes(repository, new SimpleMeterRegistry(), false, 1, 0.01));
+        injetar(service, "diretorio", new DiretorioChaves(repository, new SimpleMeterRegistry(), false, "pix_keys.snapshot"));
+        injetar(service, "leituraLocal", new PixLeituraLocal(null, new SimpleMeterRegistry(), false, false, Duration.ofSeconds(5), "pix_keys.ndjson"));
+        return service;
+    }
+
+    private static void injetar(Object alvo, String campo, Object valor) {
+        Field field = ReflectionUtils.findField(alvo.getClass(), campo);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, alvo, valor);
+    }
+}
@@ -0,0 +1,73 @@
+package com.itau.pix.benchmark;
+
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixRequisicaoDto;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.repository.PixRepository;
+import com.itau.pix.service.PixService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PixServiceBenchmark {
+
+    private static final int CHAVES_CADASTRADAS = 1000;
+    // Cada cadastro fica no repositório; reinicia a massa periodicamente para
+    // o tamanho dos índices, e com ele o custo por operação, não crescer.
+    private static final int CADASTROS_POR_MASSA = 1000;
+    private static final String PREFIXO_ALEATORIA = "0".repeat(36);
+
+    private PixRepository repository;
+    private PixService service;
+    private int sequencia;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        repository = RepositorioEmMemoria.criar();
+        service = Massas.servico(repository);
+        recarregarMassa();
+    }
+
+    private void recarregarMassa() {
+        repository.deleteAll();
+        Massas.chaves(CHAVES_CADASTRADAS).forEach(repository::save);
+        sequencia = CHAVES_CADASTRADAS;
+    }
+
+    @Benchmark
+    public PixModelo cadastrar() {
+        if (sequencia == CHAVES_CADASTRADAS + CADASTROS_POR_MASSA) {
+            recarregarMassa();
+        }
+        int i = sequencia++;
+        String numero = Integer.toString(i);
+        PixRequisicaoDto requisicao = Massas.requisicao(
+                TipoChave.ALEATORIA, PREFIXO_ALEATORIA.substring(numero.length()) + numero);
+        requisicao.setNumeroConta(Massas.conta(i));
+        return service.cadastrar(requisicao);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<PixModelo>> buscarPorConta() {
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setNumeroAgencia("1234");
+        filtro.setNumeroConta(Massas.conta(42));
+        return service.buscar(filtro, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<PixModelo>> buscarPorTipoChave() {
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setTipoChave(TipoChave.EMAIL);
+        return service.buscar(filtro, null, null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.itau.pix.benchmark;
+
+import com.itau.pix.model.dto.PixRequisicaoDto;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.validator.PixValidadorStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PixValidadorStrategyBenchmark {
+
+    private PixValidadorStrategy validador;
+    private PixRequisicaoDto requisicao;
+
+    @Setup
+    public void setup() {
+        validador = Massas.validador();
+        requisicao = Massas.requisicao(TipoChave.CPF, "97670138068");
+    }
+
+    @Benchmark
+    public void validadorRequisicao() {
+        validador.validadorRequisicao(requisicao);
+    }
+}
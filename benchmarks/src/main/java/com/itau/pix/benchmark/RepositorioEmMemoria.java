@@ -0,0 +1,66 @@
+package com.itau.pix.benchmark;
+
+import com.itau.pix.repository.PixRepository;
+import com.itau.pix.repository.PixRepositoryMemoria;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+
+/**
+ * {@link PixRepositoryMemoria} para os benchmarks, o mesmo motor do perfil
+ * {@code memoria}. Com {@code latencia}, cada chamada espera esse tempo antes
+ * de ser atendida, simulando a ida e volta ao MongoDB.
+ */
+final class RepositorioEmMemoria implements InvocationHandler {
+
+    private final PixRepository repositorio = new PixRepositoryMemoria();
+    private final Duration latencia;
+
+    private RepositorioEmMemoria(Duration latencia) {
+        this.latencia = latencia;
+    }
+
+    static PixRepository criar() {
+        return new PixRepositoryMemoria();
+    }
+
+    static PixRepository criar(Duration latencia) {
+        if (latencia.isZero()) {
+            return criar();
+        }
+        return (PixRepository) Proxy.newProxyInstance(
+                PixRepository.class.getClassLoader(),
+                new Class<?>[]{PixRepository.class},
+                new RepositorioEmMemoria(latencia));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> "RepositorioEmMemoria";
+            };
+        }
+
+        esperar();
+        try {
+            return method.invoke(repositorio, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void esperar() {
+        try {
+            Thread.sleep(latencia.toMillis(), latencia.toNanosPart() % 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
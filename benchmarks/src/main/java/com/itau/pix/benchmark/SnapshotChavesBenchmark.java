@@ -0,0 +1,66 @@
+package com.itau.pix.benchmark;
+
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.service.SnapshotChaves;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas a um snapshot de um milhão de chaves. Com {@code -prof gc},
+ * {@code localizar} deve medir zero bytes alocados por operação.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotChavesBenchmark {
+
+    private static final int CHAVES = 1_000_000;
+    private static final int CONSULTAS = 1024;
+
+    private Path diretorio;
+    private SnapshotChaves snapshot;
+    private String[] presentes;
+    private String[] ausentes;
+    private int sequencia;
+
+    @Setup
+    public void setup() throws IOException {
+        diretorio = Files.createTempDirectory("snapshot-benchmark");
+        snapshot = SnapshotChaves.gravar(Massas.chaves(CHAVES).stream(), diretorio.resolve("pix_keys.snapshot"));
+
+        presentes = new String[CONSULTAS];
+        ausentes = new String[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            presentes[i] = Massas.chave(i * (CHAVES / CONSULTAS)).getValorChave();
+            ausentes[i] = "ausente" + i + "@teste.com";
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(diretorio.resolve("pix_keys.snapshot"));
+        Files.deleteIfExists(diretorio);
+    }
+
+    @Benchmark
+    public int localizar() {
+        return snapshot.localizar(presentes[sequencia++ & (CONSULTAS - 1)]);
+    }
+
+    @Benchmark
+    public int localizarAusente() {
+        return snapshot.localizar(ausentes[sequencia++ & (CONSULTAS - 1)]);
+    }
+
+    @Benchmark
+    public PixModelo resolver() {
+        return snapshot.chave(snapshot.localizar(presentes[sequencia++ & (CONSULTAS - 1)]));
+    }
+}
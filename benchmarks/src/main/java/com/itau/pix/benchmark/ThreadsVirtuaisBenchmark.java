@@ -0,0 +1,72 @@
+package com.itau.pix.benchmark;
+
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.repository.PixRepository;
+import com.itau.pix.service.PixService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rajadas de requisições simultâneas a {@link PixService#buscar} com um
+ * repositório que espera {@code latenciaMs} por chamada, como o MongoDB.
+ * Compara o pool de threads de plataforma do Tomcat (200, o padrão de
+ * server.tomcat.threads.max) com uma thread virtual por requisição, como
+ * no perfil {@code virtual}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadsVirtuaisBenchmark {
+
+    private static final int REQUISICOES_SIMULTANEAS = 2000;
+    private static final int THREADS_TOMCAT = 200;
+
+    @Param({"plataforma", "virtual"})
+    private String threads;
+
+    @Param({"2", "10"})
+    private int latenciaMs;
+
+    private ExecutorService executor;
+    private PixService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        PixRepository repository = RepositorioEmMemoria.criar(Duration.ofMillis(latenciaMs));
+        Massas.chaves(1000).forEach(repository::save);
+        service = Massas.servico(repository);
+        executor = threads.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(THREADS_TOMCAT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUISICOES_SIMULTANEAS)
+    public void buscarPorConta() throws Exception {
+        List<Future<?>> requisicoes = new ArrayList<>(REQUISICOES_SIMULTANEAS);
+        for (int i = 0; i < REQUISICOES_SIMULTANEAS; i++) {
+            PixFiltroDto filtro = new PixFiltroDto();
+            filtro.setNumeroAgencia("1234");
+            filtro.setNumeroConta(Massas.conta(i % 200));
+            requisicoes.add(executor.submit(() -> service.buscar(filtro, null, null)));
+        }
+        for (Future<?> requisicao : requisicoes) {
+            requisicao.get();
+        }
+    }
+}
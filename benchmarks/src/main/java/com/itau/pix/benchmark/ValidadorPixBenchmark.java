@@ -0,0 +1,67 @@
+package com.itau.pix.benchmark;
+
+import com.itau.pix.model.dto.PixRequisicaoDto;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.validator.ValidadorCNPJ;
+import com.itau.pix.validator.ValidadorCPF;
+import com.itau.pix.validator.ValidadorCelular;
+import com.itau.pix.validator.ValidadorChaveAleatoria;
+import com.itau.pix.validator.ValidadorEmail;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidadorPixBenchmark {
+
+    private final ValidadorCPF validadorCpf = new ValidadorCPF();
+    private final ValidadorCNPJ validadorCnpj = new ValidadorCNPJ();
+    private final ValidadorEmail validadorEmail = new ValidadorEmail();
+    private final ValidadorCelular validadorCelular = new ValidadorCelular();
+    private final ValidadorChaveAleatoria validadorAleatoria = new ValidadorChaveAleatoria();
+
+    private PixRequisicaoDto cpf;
+    private PixRequisicaoDto cnpj;
+    private PixRequisicaoDto email;
+    private PixRequisicaoDto celular;
+    private PixRequisicaoDto aleatoria;
+
+    @Setup
+    public void setup() {
+        cpf = Massas.requisicao(TipoChave.CPF, "97670138068");
+        cnpj = Massas.requisicao(TipoChave.CNPJ, "45076971000153");
+        email = Massas.requisicao(TipoChave.EMAIL, "nome.sobrenome@empresa.com.br");
+        celular = Massas.requisicao(TipoChave.CELULAR, "+5511912345678");
+        aleatoria = Massas.requisicao(TipoChave.ALEATORIA, "417122439961664439189826754968636099");
+    }
+
+    @Benchmark
+    public void cpf() {
+        validadorCpf.validate(cpf);
+    }
+
+    @Benchmark
+    public void cnpj() {
+        validadorCnpj.validate(cnpj);
+    }
+
+    @Benchmark
+    public void email() {
+        validadorEmail.validate(email);
+    }
+
+    @Benchmark
+    public void celular() {
+        validadorCelular.validate(celular);
+    }
+
+    @Benchmark
+    public void aleatoria() {
+        validadorAleatoria.validate(aleatoria);
+    }
+}
@@ -0,0 +1,107 @@
+package com.itau.pix.benchmark;
+
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixRequisicaoDto;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.repository.PixRepository;
+import com.itau.pix.service.PixService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Confere que o caminho de validação, serviço, cache e repositório não prende
+ * (pin) a thread portadora de uma thread virtual: executa cadastro com cada
+ * {@link TipoChave}, alteração, busca e desativação em threads virtuais, com o
+ * repositório em memória bloqueando a cada chamada, e falha se o JFR registrar
+ * algum evento {@code jdk.VirtualThreadPinned}.
+ *
+ * <p>O driver do MongoDB não participa; para ele, rode a aplicação no perfil
+ * {@code virtual} com {@code -Djdk.tracePinnedThreads=short}.</p>
+ *
+ * <p>Uso: {@code java -cp benchmarks/target/benchmarks.jar com.itau.pix.benchmark.VerificacaoPinning}</p>
+ */
+public final class VerificacaoPinning {
+
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final int EXECUCOES = 500;
+    private static final String PREFIXO_ALEATORIA = "0".repeat(36);
+
+    private VerificacaoPinning() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        PixRepository repository = RepositorioEmMemoria.criar(Duration.ofMillis(1));
+        PixService service = Massas.servico(repository);
+
+        List<RecordedEvent> fixacoes = new CopyOnWriteArrayList<>();
+        try (RecordingStream eventos = new RecordingStream()) {
+            eventos.enable(EVENTO).withThreshold(Duration.ZERO).withStackTrace();
+            eventos.onEvent(EVENTO, fixacoes::add);
+            eventos.startAsync();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> execucoes = new ArrayList<>(EXECUCOES);
+                for (int i = 0; i < EXECUCOES; i++) {
+                    int execucao = i;
+                    execucoes.add(executor.submit(() -> exercitar(service, execucao)));
+                }
+                for (Future<?> execucao : execucoes) {
+                    execucao.get();
+                }
+            }
+            // Entrega os eventos ainda em buffer antes de conferir.
+            eventos.stop();
+        }
+
+        if (!fixacoes.isEmpty()) {
+            fixacoes.forEach(System.err::println);
+            System.err.printf("%d eventos %s.%n", fixacoes.size(), EVENTO);
+            System.exit(1);
+        }
+        System.out.printf("Nenhum %s em %d execuções.%n", EVENTO, EXECUCOES);
+    }
+
+    private static void exercitar(PixService service, int execucao) {
+        String conta = Massas.conta(execucao);
+        String numero = Integer.toString(execucao);
+        List<PixRequisicaoDto> requisicoes = List.of(
+                Massas.requisicao(TipoChave.CPF, Massas.cpf(execucao)),
+                Massas.requisicao(TipoChave.CNPJ, Massas.cnpj(execucao)),
+                Massas.requisicao(TipoChave.EMAIL, "pinning" + execucao + "@empresa.com.br"),
+                Massas.requisicao(TipoChave.CELULAR, Massas.celular(execucao)),
+                Massas.requisicao(TipoChave.ALEATORIA, PREFIXO_ALEATORIA.substring(numero.length()) + numero));
+
+        PixModelo ultima = null;
+        for (PixRequisicaoDto requisicao : requisicoes) {
+            requisicao.setNumeroConta(conta);
+            ultima = service.cadastrar(requisicao);
+        }
+
+        PixAlterarRequisicaoDto alteracao = new PixAlterarRequisicaoDto();
+        alteracao.setTipoChave(ultima.getTipoChave());
+        alteracao.setTipoConta("corrente");
+        alteracao.setNumeroAgencia("1234");
+        alteracao.setNumeroConta(conta);
+        alteracao.setNomeCorrentista("Maria");
+        alteracao.setSobrenomeCorrentista("Souza");
+        service.alterar(UUID.fromString(ultima.getId()), alteracao);
+
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setNumeroAgencia("1234");
+        filtro.setNumeroConta(conta);
+        service.buscar(filtro, null, null);
+
+        service.desativar(UUID.fromString(ultima.getId()));
+    }
+}
@@ -0,0 +1,304 @@
+package com.itau.pix.config;
+
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixProjecaoDto;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.enums.TipoCorrentista;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonBinarySubType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.mapping.model.FieldNamingStrategy;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.projection.EntityProjection;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.lang.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Formato compacto de pix_keys, ativado por {@code pix.armazenamento.compacto}:
+ * ids UUID como binário BSON subtipo 4 (16 bytes em vez de 36 caracteres, no
+ * documento e em todo índice que termina em _id), nomes de campo curtos e os
+ * tipos de chave e de correntista como códigos inteiros.
+ *
+ * <p>A leitura aceita os dois formatos, com o flag ligado ou desligado:
+ * nomes de campo longos ou curtos, tipos por nome ou por código e ids em
+ * texto ou binário. As consultas usam só os nomes do formato configurado,
+ * por isso a troca de formato de uma coleção é feita fora da aplicação, por
+ * {@link #migrar} no perfil {@code migracao-compacta}. Ids que não são UUID
+ * canônicos continuam texto e seguem encontrados normalmente.</p>
+ */
+@Slf4j
+final class ArmazenamentoCompacto {
+
+    static final Map<String, String> NOMES_CAMPOS = Map.ofEntries(
+            Map.entry("tipoChave", "tk"),
+            Map.entry("valorChave", "vk"),
+            Map.entry("tipoConta", "tc"),
+            Map.entry("numeroAgencia", "ag"),
+            Map.entry("numeroConta", "cc"),
+            Map.entry("nomeCorrentista", "nm"),
+            Map.entry("sobrenomeCorrentista", "sn"),
+            Map.entry("dataHoraInclusao", "ic"),
+            Map.entry("dataHoraInativacao", "ia"),
+            Map.entry("inativa", "in"),
+            Map.entry("loteDesativacao", "ld"),
+            Map.entry("tipoCorrentista", "tp"),
+            Map.entry("versao", "vs"));
+
+    static final Map<String, String> NOMES_ANTERIORES = NOMES_CAMPOS.entrySet().stream()
+            .collect(Collectors.toUnmodifiableMap(Map.Entry::getValue, Map.Entry::getKey));
+
+    private static final Set<Class<?>> TIPOS_COMPACTOS = Set.of(PixModelo.class, PixProjecaoDto.class);
+    private static final int LOTE_MIGRACAO = 1000;
+
+    private ArmazenamentoCompacto() {
+    }
+
+    static List<Converter<?, ?>> conversores() {
+        return List.of(new TipoChaveParaCodigo(), new TipoCorrentistaParaCodigo());
+    }
+
+    /**
+     * Registrados nos dois formatos, para ler documentos gravados no outro.
+     */
+    static List<Converter<?, ?>> conversoresLeitura() {
+        return List.of(new CodigoParaTipoChave(), new CodigoParaTipoCorrentista(), new BinarioParaTexto());
+    }
+
+    /**
+     * Nomes curtos apenas para a chave PIX e sua projeção; os contadores por
+     * conta mantêm os nomes das propriedades.
+     */
+    static final class NomesCampos implements FieldNamingStrategy {
+        @Override
+        public String getFieldName(PersistentProperty<?> property) {
+            if (!TIPOS_COMPACTOS.contains(property.getOwner().getType())) {
+                return property.getName();
+            }
+            return NOMES_CAMPOS.getOrDefault(property.getName(), property.getName());
+        }
+    }
+
+    /**
+     * Traz os nomes de campo de pix_keys para o formato configurado antes de
+     * ler o documento. No formato compacto, converte ids UUID, em texto ou
+     * {@link UUID}, para binário na escrita e nas consultas por _id,
+     * independente da representação de UUID do driver.
+     */
+    static final class Conversor extends MappingMongoConverter {
+
+        private final boolean compacto;
+
+        Conversor(DbRefResolver dbRefResolver, MongoMappingContext mappingContext, boolean compacto) {
+            super(dbRefResolver, mappingContext);
+            this.compacto = compacto;
+        }
+
+        @Override
+        protected <S> S read(TypeInformation<S> type, Bson bson) {
+            return super.read(type, noFormatoAtual(type.getType(), bson));
+        }
+
+        @Override
+        public <R> R project(EntityProjection<R, ?> projection, Bson bson) {
+            return super.project(projection, noFormatoAtual(projection.getActualDomainType().getType(), bson));
+        }
+
+        private Bson noFormatoAtual(Class<?> tipo, Bson bson) {
+            if (!TIPOS_COMPACTOS.contains(tipo) || !(bson instanceof Document documento)) {
+                return bson;
+            }
+            return renomear(documento, compacto ? NOMES_CAMPOS : NOMES_ANTERIORES);
+        }
+
+        @Override
+        public Object convertId(@Nullable Object id, Class<?> targetType) {
+            if (!compacto) {
+                return super.convertId(id, targetType);
+            }
+            if (id instanceof UUID uuid) {
+                return binario(uuid);
+            }
+            if (id instanceof String texto) {
+                UUID uuid = uuidCanonico(texto);
+                if (uuid != null) {
+                    return binario(uuid);
+                }
+            }
+            return super.convertId(id, targetType);
+        }
+    }
+
+    /**
+     * Reescreve no formato compacto os documentos da coleção ainda no formato
+     * anterior, em lotes. Só roda no job offline, com a aplicação parada. Antes remove os índices sobre os nomes antigos: os
+     * únicos recusariam os documentos novos, que não têm esses campos. Cada
+     * documento é gravado com upsert pelo id novo antes de o antigo ser
+     * removido, então uma migração interrompida é retomada sem perda.
+     */
+    static long migrar(MongoCollection<Document> colecao) {
+        for (Document indice : colecao.listIndexes()) {
+            Document campos = indice.get("key", Document.class);
+            if (campos.keySet().stream().anyMatch(NOMES_CAMPOS::containsKey)) {
+                colecao.dropIndex(indice.getString("name"));
+            }
+        }
+
+        long migrados = 0;
+        while (true) {
+            List<Document> anteriores = colecao.find(Filters.exists("valorChave")).limit(LOTE_MIGRACAO).into(new ArrayList<>());
+            if (anteriores.isEmpty()) {
+                break;
+            }
+
+            List<WriteModel<Document>> escritas = new ArrayList<>();
+            for (Document anterior : anteriores) {
+                Document compacto = compactar(anterior);
+                escritas.add(new ReplaceOneModel<>(Filters.eq("_id", compacto.get("_id")), compacto,
+                        new ReplaceOptions().upsert(true)));
+                if (!compacto.get("_id").equals(anterior.get("_id"))) {
+                    escritas.add(new DeleteOneModel<>(Filters.eq("_id", anterior.get("_id"))));
+                }
+            }
+            colecao.bulkWrite(escritas);
+            migrados += anteriores.size();
+        }
+
+        if (migrados > 0) {
+            log.info("{} documentos de {} migrados para o armazenamento compacto.", migrados,
+                    colecao.getNamespace().getCollectionName());
+        }
+        return migrados;
+    }
+
+    /**
+     * Devolve o próprio documento quando nenhum campo está em {@code nomes}.
+     */
+    static Document renomear(Document documento, Map<String, String> nomes) {
+        boolean renomeia = false;
+        for (String campo : documento.keySet()) {
+            if (nomes.containsKey(campo)) {
+                renomeia = true;
+                break;
+            }
+        }
+        if (!renomeia) {
+            return documento;
+        }
+        Document renomeado = new Document();
+        documento.forEach((campo, valor) -> renomeado.put(nomes.getOrDefault(campo, campo), valor));
+        return renomeado;
+    }
+
+    static Document compactar(Document anterior) {
+        Document compacto = new Document();
+        anterior.forEach((campo, valor) -> compacto.put(NOMES_CAMPOS.getOrDefault(campo, campo), valorCompacto(campo, valor)));
+        return compacto;
+    }
+
+    private static Object valorCompacto(String campo, Object valor) {
+        if (campo.equals("_id") && valor instanceof String texto) {
+            UUID uuid = uuidCanonico(texto);
+            return uuid != null ? binario(uuid) : valor;
+        }
+        if (campo.equals("tipoChave") && valor instanceof String nome) {
+            return TipoChave.valueOf(nome).getCodigo();
+        }
+        if (campo.equals("tipoCorrentista") && valor instanceof String nome) {
+            return TipoCorrentista.valueOf(nome).getCodigo();
+        }
+        return valor;
+    }
+
+    /**
+     * Só o formato canônico vira binário, para o id lido de volta ser o mesmo texto.
+     */
+    @Nullable
+    static UUID uuidCanonico(String texto) {
+        if (texto.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(texto);
+            return uuid.toString().equals(texto) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static Binary binario(UUID uuid) {
+        return new Binary(BsonBinarySubType.UUID_STANDARD, ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array());
+    }
+
+    @WritingConverter
+    static final class TipoChaveParaCodigo implements Converter<TipoChave, Integer> {
+        @Override
+        public Integer convert(TipoChave source) {
+            return source.getCodigo();
+        }
+    }
+
+    @ReadingConverter
+    static final class CodigoParaTipoChave implements Converter<Integer, TipoChave> {
+        @Override
+        public TipoChave convert(Integer source) {
+            return TipoChave.doCodigo(source);
+        }
+    }
+
+    @WritingConverter
+    static final class TipoCorrentistaParaCodigo implements Converter<TipoCorrentista, Integer> {
+        @Override
+        public Integer convert(TipoCorrentista source) {
+            return source.getCodigo();
+        }
+    }
+
+    @ReadingConverter
+    static final class CodigoParaTipoCorrentista implements Converter<Integer, TipoCorrentista> {
+        @Override
+        public TipoCorrentista convert(Integer source) {
+            return TipoCorrentista.doCodigo(source);
+        }
+    }
+
+    /**
+     * Id binário lido com o driver na representação de UUID legada, que só
+     * decodifica o subtipo 3.
+     */
+    @ReadingConverter
+    static final class BinarioParaTexto implements Converter<Binary, String> {
+        @Override
+        public String convert(Binary source) {
+            if (source.getType() != BsonBinarySubType.UUID_STANDARD.getValue() || source.length() != 16) {
+                throw new IllegalArgumentException("Binário de subtipo " + source.getType() + " não é um id de chave.");
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(source.getData());
+            return new UUID(bytes.getLong(), bytes.getLong()).toString();
+        }
+    }
+}
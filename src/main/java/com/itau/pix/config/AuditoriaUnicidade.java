@@ -0,0 +1,92 @@
+package com.itau.pix.config;
+
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.enums.TipoCorrentista;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Levanta, em uma única agregação ($facet), as chaves que impediriam a
+ * criação dos índices únicos de pix_keys: valores de chave repetidos e o
+ * mesmo tipo de chave repetido em uma conta de pessoa física.
+ *
+ * <p>O ensureIndex falharia na primeira duplicidade e só a citaria; aqui
+ * todas aparecem (até {@link #EXEMPLOS} grupos por regra) antes de a
+ * aplicação subir.</p>
+ */
+@Slf4j
+final class AuditoriaUnicidade {
+
+    static final String VALOR_CHAVE = "valorChave";
+    static final String TIPO_CHAVE_CONTA = "tipoChaveConta";
+    static final int EXEMPLOS = 20;
+
+    private AuditoriaUnicidade() {
+    }
+
+    /**
+     * Falha com a lista das duplicidades, se houver. Percorre a coleção
+     * inteira: chame só enquanto os índices únicos ainda não existem.
+     */
+    static void verificar(MongoTemplate mongoTemplate) {
+        Object fisica = mongoTemplate.getConverter().convertToMongoType(TipoCorrentista.FISICA);
+        List<Document> pipeline = pipeline(MongoConfig.campo(mongoTemplate, "valorChave"),
+                MongoConfig.campo(mongoTemplate, "tipoChave"), MongoConfig.campo(mongoTemplate, "numeroConta"),
+                MongoConfig.campo(mongoTemplate, "tipoCorrentista"), fisica);
+        Document resultado = mongoTemplate.getCollection(PixModelo.COLECAO)
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .first();
+        if (resultado == null) {
+            return;
+        }
+
+        List<String> duplicidades = new ArrayList<>();
+        for (Document grupo : resultado.getList(VALOR_CHAVE, Document.class)) {
+            duplicidades.add("valorChave " + grupo.get("_id") + ": " + grupo.get("total") + " chaves");
+        }
+        for (Document grupo : resultado.getList(TIPO_CHAVE_CONTA, Document.class)) {
+            Document chave = grupo.get("_id", Document.class);
+            duplicidades.add("tipoChave " + chave.get("tipoChave") + " na conta " + chave.get("numeroConta")
+                    + ": " + grupo.get("total") + " chaves");
+        }
+        if (duplicidades.isEmpty()) {
+            return;
+        }
+
+        duplicidades.forEach(duplicidade -> log.error("Duplicidade em {}: {}", PixModelo.COLECAO, duplicidade));
+        throw new IllegalStateException(PixModelo.COLECAO + " tem chaves que violam os índices únicos "
+                + MongoConfig.INDICE_VALOR_CHAVE + " e " + MongoConfig.INDICE_TIPO_CHAVE_CONTA
+                + " (até " + EXEMPLOS + " por regra): " + String.join("; ", duplicidades)
+                + ". Desative ou remova as excedentes antes de subir a aplicação.");
+    }
+
+    /**
+     * Uma faceta por índice único, cada uma agrupando pelas suas chaves e
+     * mantendo só os grupos com mais de um documento.
+     */
+    static List<Document> pipeline(String valorChave, String tipoChave, String numeroConta,
+                                   String tipoCorrentista, Object fisica) {
+        return List.of(new Document("$facet", new Document()
+                .append(VALOR_CHAVE, List.of(
+                        new Document("$group", new Document("_id", "$" + valorChave)
+                                .append("total", new Document("$sum", 1))),
+                        repetidos(),
+                        new Document("$limit", EXEMPLOS)))
+                .append(TIPO_CHAVE_CONTA, List.of(
+                        new Document("$match", new Document(tipoCorrentista, fisica)),
+                        new Document("$group", new Document("_id", new Document("tipoChave", "$" + tipoChave)
+                                .append("numeroConta", "$" + numeroConta))
+                                .append("total", new Document("$sum", 1))),
+                        repetidos(),
+                        new Document("$limit", EXEMPLOS)))));
+    }
+
+    private static Document repetidos() {
+        return new Document("$match", new Document("total", new Document("$gt", 1)));
+    }
+}
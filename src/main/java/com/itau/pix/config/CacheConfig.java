@@ -0,0 +1,38 @@
+package com.itau.pix.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itau.pix.model.PixModelo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    public static final String CACHE_RESOLUCAO = "pix.resolucao";
+
+    /**
+     * Chaves ativas por valorChave para GET /chave/valor/{valorChave}. Limitado
+     * por quantidade (LRU aproximado do Caffeine) e invalidado por alterar e
+     * desativar na própria instância. Alterações feitas por outras instâncias
+     * só saem pela expiração, por isso ela é curta: o cache absorve os picos
+     * sobre as mesmas chaves, não serve a leitura de longo prazo.
+     */
+    @Bean
+    public Cache<String, PixModelo> cacheResolucao(
+            MeterRegistry registry,
+            @Value("${pix.cache.resolucao.tamanho-maximo:100000}") long tamanhoMaximo,
+            @Value("${pix.cache.resolucao.expiracao:5s}") Duration expiracao) {
+        Cache<String, PixModelo> cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(registry, cache, CACHE_RESOLUCAO);
+    }
+}
@@ -0,0 +1,21 @@
+package com.itau.pix.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricasConfig {
+
+    public static final String METRICA_SERVICO = "pix.servico";
+
+    /**
+     * Habilita o {@code @Timed} nos métodos públicos de PixService
+     * ({@code pix.servico}, com as tags class, method e exception).
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
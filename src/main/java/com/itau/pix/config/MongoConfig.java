@@ -1,24 +1,381 @@
 package com.itau.pix.config;
 
+import com.itau.pix.model.ContadorConta;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.enums.TipoCorrentista;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.model.FieldNamingStrategy;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Configuration
+@Profile("!memoria")
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
+    public static final String INDICE_VALOR_CHAVE = "uk_valor_chave";
+    public static final String INDICE_TIPO_CHAVE_CONTA = "uk_tipo_chave_conta";
+    public static final String INDICE_AGENCIA_CONTA = "idx_agencia_conta";
+    public static final String INDICE_TIPO_CHAVE_PAGINA = "idx_tipo_chave_pagina";
+    public static final String INDICE_NOME_CORRENTISTA_PAGINA = "idx_nome_correntista_pagina";
+    public static final String INDICE_INCLUSAO_PAGINA = "idx_inclusao_pagina";
+    public static final String INDICE_AGENCIA_PAGINA = "idx_agencia_pagina";
+    public static final String INDICE_INATIVACAO = "idx_inativacao";
+    public static final String INDICE_ARQUIVO_VALOR_CHAVE = "idx_arquivo_valor_chave";
+    public static final String INDICE_ARQUIVO_AGENCIA_PAGINA = "idx_arquivo_agencia_pagina";
+    public static final String INDICE_ARQUIVO_INCLUSAO_PAGINA = "idx_arquivo_inclusao_pagina";
+    public static final String INDICE_ARQUIVO_INATIVACAO = "idx_arquivo_inativacao";
+
+    /**
+     * Uma entrada por migração de dados concluída, com o id da migração como _id.
+     */
+    public static final String COLECAO_MIGRACOES = "pix_migracoes";
+    static final String MIGRACAO_TIPO_CORRENTISTA = "tipo-correntista";
+    static final String MIGRACAO_VERSAO = "versao";
+    static final String MIGRACAO_ARMAZENAMENTO_COMPACTO = "armazenamento-compacto";
+    static final String PERFIL_MIGRACAO_COMPACTA = "migracao-compacta";
+    private static final int LOTE_MIGRACAO = 1000;
+
     @Override
     protected String getDatabaseName() {
         return "pixdb";
     }
 
+    /**
+     * Grava pix_keys no formato de {@link ArmazenamentoCompacto}; documentos
+     * no formato anterior são migrados pelo job do perfil
+     * {@value #PERFIL_MIGRACAO_COMPACTA}.
+     */
+    @Value("${pix.armazenamento.compacto:false}")
+    private boolean armazenamentoCompacto;
+
+    @Value("${pix.armazenamento.migrar:false}")
+    private boolean migrarArmazenamento;
+
     @Override
     public MongoCustomConversions customConversions() {
-        return new MongoCustomConversions(Arrays.asList(
+        List<Object> conversores = new ArrayList<>(Arrays.asList(
                 new UUIDToStringConverter(),
                 new StringToUUIDConverter()
         ));
+        conversores.addAll(ArmazenamentoCompacto.conversoresLeitura());
+        if (armazenamentoCompacto) {
+            conversores.addAll(ArmazenamentoCompacto.conversores());
+        }
+        return new MongoCustomConversions(conversores);
+    }
+
+    @Override
+    protected FieldNamingStrategy fieldNamingStrategy() {
+        return armazenamentoCompacto ? new ArmazenamentoCompacto.NomesCampos() : super.fieldNamingStrategy();
+    }
+
+    @Bean
+    @Override
+    public MappingMongoConverter mappingMongoConverter(MongoDatabaseFactory databaseFactory,
+                                                       MongoCustomConversions customConversions,
+                                                       MongoMappingContext mappingContext) {
+        MappingMongoConverter converter = new ArmazenamentoCompacto.Conversor(new DefaultDbRefResolver(databaseFactory),
+                mappingContext, armazenamentoCompacto);
+        converter.setCustomConversions(customConversions);
+        converter.setCodecRegistryProvider(databaseFactory);
+        return converter;
+    }
+
+    /**
+     * Garante os índices de pix_keys antes de a aplicação receber requisições:
+     * a unicidade de valorChave e de tipoChave+numeroConta (pessoa física)
+     * passa a ser imposta pelo banco no insert. O armazenamento compacto só
+     * sobe depois do job {@value #PERFIL_MIGRACAO_COMPACTA}, que migra o
+     * formato anterior com a aplicação parada. Em seguida, uma única vez, versao e tipoCorrentista são preenchidos nas
+     * chaves anteriores a eles. Enquanto os índices únicos não existem,
+     * {@link AuditoriaUnicidade} impede a subida se houver chaves que os violariam.
+     */
+    @Bean
+    public SmartInitializingSingleton criarIndicesPix(MongoTemplate mongoTemplate) {
+        return () -> {
+            if (armazenamentoCompacto) {
+                prepararArmazenamentoCompacto(mongoTemplate);
+            }
+            IndexOperations indices = mongoTemplate.indexOps(PixModelo.class);
+            executarUmaVez(mongoTemplate, MIGRACAO_VERSAO, () -> preencherVersoes(mongoTemplate));
+            executarUmaVez(mongoTemplate, MIGRACAO_TIPO_CORRENTISTA, () -> preencherTiposCorrentista(mongoTemplate, indices));
+            Set<String> existentes = indices.getIndexInfo().stream().map(IndexInfo::getName).collect(Collectors.toSet());
+            if (!existentes.containsAll(List.of(INDICE_VALOR_CHAVE, INDICE_TIPO_CHAVE_CONTA))) {
+                AuditoriaUnicidade.verificar(mongoTemplate);
+            }
+            indicesPix().forEach(indices::ensureIndex);
+            IndexOperations indicesArquivo = mongoTemplate.indexOps(PixModelo.COLECAO_INATIVAS, PixModelo.class);
+            indicesArquivo().forEach(indicesArquivo::ensureIndex);
+        };
+    }
+
+    /**
+     * No job de migração, reescreve as duas coleções e registra a migração. Nas
+     * demais subidas, recusa o formato compacto enquanto a migração não consta
+     * em {@value #COLECAO_MIGRACOES}: os índices únicos sobre os nomes antigos
+     * recusariam os inserts e as consultas não achariam as chaves antigas. Um
+     * banco ainda vazio não tem o que migrar.
+     */
+    private void prepararArmazenamentoCompacto(MongoTemplate mongoTemplate) {
+        if (migrarArmazenamento) {
+            ArmazenamentoCompacto.migrar(mongoTemplate.getCollection(PixModelo.COLECAO));
+            ArmazenamentoCompacto.migrar(mongoTemplate.getCollection(PixModelo.COLECAO_INATIVAS));
+            registrarMigracao(mongoTemplate, MIGRACAO_ARMAZENAMENTO_COMPACTO);
+            return;
+        }
+        if (migracaoConcluida(mongoTemplate, MIGRACAO_ARMAZENAMENTO_COMPACTO)) {
+            return;
+        }
+        if (mongoTemplate.getCollection(PixModelo.COLECAO).estimatedDocumentCount() > 0
+                || mongoTemplate.getCollection(PixModelo.COLECAO_INATIVAS).estimatedDocumentCount() > 0) {
+            throw new IllegalStateException("pix.armazenamento.compacto=true exige a migração de " + PixModelo.COLECAO
+                    + " e " + PixModelo.COLECAO_INATIVAS + ". Com as instâncias paradas, rode a aplicação com "
+                    + "--spring.profiles.active=" + PERFIL_MIGRACAO_COMPACTA + " antes de subi-las de novo.");
+        }
+        registrarMigracao(mongoTemplate, MIGRACAO_ARMAZENAMENTO_COMPACTO);
+    }
+
+    /**
+     * Encerra o job de migração depois que {@link #criarIndicesPix} migrou as
+     * coleções e recriou os índices.
+     */
+    @Bean
+    @Profile(PERFIL_MIGRACAO_COMPACTA)
+    public ApplicationRunner encerrarMigracaoCompacta(ConfigurableApplicationContext contexto) {
+        return argumentos -> {
+            log.info("Migração para o armazenamento compacto concluída.");
+            System.exit(SpringApplication.exit(contexto));
+        };
+    }
+
+    /**
+     * Chaves gravadas antes de tipoCorrentista ficariam fora do índice parcial
+     * {@value #INDICE_TIPO_CHAVE_CONTA}. Contas com alguma chave CNPJ passam a
+     * pessoa jurídica e as demais a pessoa física, a regra mais restritiva.
+     * Um índice criado antes do preenchimento é removido para ser recriado
+     * depois da auditoria, já cobrindo essas chaves.
+     */
+    private static void preencherTiposCorrentista(MongoTemplate mongoTemplate, IndexOperations indices) {
+        if (indices.getIndexInfo().stream().anyMatch(indice -> indice.getName().equals(INDICE_TIPO_CHAVE_CONTA))) {
+            indices.dropIndex(INDICE_TIPO_CHAVE_CONTA);
+        }
+
+        String tipoCorrentista = campo(mongoTemplate, "tipoCorrentista");
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document(tipoCorrentista, new Document("$exists", false))
+                        .append(campo(mongoTemplate, "tipoChave"), mongoTemplate.getConverter().convertToMongoType(TipoChave.CNPJ))),
+                new Document("$group", new Document("_id", new Document("numeroAgencia", "$" + campo(mongoTemplate, "numeroAgencia"))
+                        .append("numeroConta", "$" + campo(mongoTemplate, "numeroConta")))));
+
+        long contasJuridicas = 0;
+        BulkOperations juridicas = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PixModelo.class);
+        for (Document conta : mongoTemplate.getCollection(PixModelo.COLECAO).aggregate(pipeline).allowDiskUse(true)) {
+            Document id = conta.get("_id", Document.class);
+            juridicas.updateMulti(Query.query(Criteria.where("tipoCorrentista").exists(false)
+                            .and("numeroAgencia").is(id.get("numeroAgencia"))
+                            .and("numeroConta").is(id.get("numeroConta"))),
+                    new Update().set("tipoCorrentista", TipoCorrentista.JURIDICA));
+            if (++contasJuridicas % LOTE_MIGRACAO == 0) {
+                juridicas.execute();
+                juridicas = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PixModelo.class);
+            }
+        }
+        if (contasJuridicas % LOTE_MIGRACAO != 0) {
+            juridicas.execute();
+        }
+
+        long fisicas = mongoTemplate.updateMulti(Query.query(Criteria.where("tipoCorrentista").exists(false)),
+                new Update().set("tipoCorrentista", TipoCorrentista.FISICA), PixModelo.class).getModifiedCount();
+        if (contasJuridicas > 0 || fisicas > 0) {
+            log.info("tipoCorrentista preenchido: {} contas de pessoa jurídica, {} chaves de pessoa física.",
+                    contasJuridicas, fisicas);
+        }
+    }
+
+    /**
+     * Chaves gravadas antes do controle de versão recebem {@code versao = 0}:
+     * sem ela, o save do Spring Data trataria a chave lida como nova. Toda
+     * gravação posterior já traz a versão, então basta uma vez.
+     */
+    private static void preencherVersoes(MongoTemplate mongoTemplate) {
+        long preenchidas = mongoTemplate.updateMulti(Query.query(Criteria.where("versao").exists(false)),
+                new Update().set("versao", 0L), PixModelo.class).getModifiedCount();
+        if (preenchidas > 0) {
+            log.info("versao preenchida em {} chaves.", preenchidas);
+        }
+    }
+
+    /**
+     * Roda {@code migracao} se ela ainda não consta em {@value #COLECAO_MIGRACOES}
+     * e a registra ao final. Interrompida, roda de novo na subida seguinte,
+     * por isso cada migração precisa poder ser repetida.
+     */
+    static void executarUmaVez(MongoTemplate mongoTemplate, String id, Runnable migracao) {
+        if (migracaoConcluida(mongoTemplate, id)) {
+            return;
+        }
+        migracao.run();
+        registrarMigracao(mongoTemplate, id);
+    }
+
+    private static boolean migracaoConcluida(MongoTemplate mongoTemplate, String id) {
+        return mongoTemplate.getCollection(COLECAO_MIGRACOES).countDocuments(Filters.eq("_id", id)) > 0;
+    }
+
+    private static void registrarMigracao(MongoTemplate mongoTemplate, String id) {
+        mongoTemplate.getCollection(COLECAO_MIGRACOES).replaceOne(Filters.eq("_id", id),
+                new Document("_id", id).append("concluidaEm", new Date()), new ReplaceOptions().upsert(true));
+    }
+
+    /**
+     * Preenche pix_account_counters a partir das chaves ativas quando a
+     * coleção ainda não existe, para que o limite por conta valha também
+     * para as chaves cadastradas antes dos contadores. Contadores já
+     * existentes são mantidos.
+     */
+    @Bean
+    public SmartInitializingSingleton preencherContadoresConta(MongoTemplate mongoTemplate) {
+        return () -> {
+            if (mongoTemplate.estimatedCount(ContadorConta.class) > 0) {
+                return;
+            }
+            String numeroAgencia = "$" + campo(mongoTemplate, "numeroAgencia");
+            String numeroConta = "$" + campo(mongoTemplate, "numeroConta");
+            List<Document> pipeline = List.of(
+                    new Document("$match", new Document(campo(mongoTemplate, "inativa"), false)),
+                    new Document("$group", new Document("_id",
+                            new Document("$concat", List.of(numeroAgencia, ContadorConta.SEPARADOR, numeroConta)))
+                            .append("numeroAgencia", new Document("$first", numeroAgencia))
+                            .append("numeroConta", new Document("$first", numeroConta))
+                            .append("quantidade", new Document("$sum", 1L))),
+                    new Document("$merge", new Document("into", ContadorConta.COLECAO)
+                            .append("whenMatched", "keepExisting")
+                            .append("whenNotMatched", "insert")));
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(PixModelo.class))
+                    .aggregate(pipeline)
+                    .toCollection();
+        };
+    }
+
+
+    /**
+     * Nome gravado de uma propriedade de {@link PixModelo}, para os pipelines
+     * montados à mão, que não passam pelo mapeamento.
+     */
+    static String campo(MongoTemplate mongoTemplate, String propriedade) {
+        return mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(PixModelo.class)
+                .getRequiredPersistentProperty(propriedade)
+                .getFieldName();
+    }
+
+    static List<Index> indicesPix() {
+        return List.of(
+                new Index()
+                        .on("valorChave", Sort.Direction.ASC)
+                        .unique()
+                        .named(INDICE_VALOR_CHAVE),
+                new Index()
+                        .on("tipoChave", Sort.Direction.ASC)
+                        .on("numeroConta", Sort.Direction.ASC)
+                        .unique()
+                        .partial(PartialIndexFilter.of(Criteria.where("tipoCorrentista").is(TipoCorrentista.FISICA)))
+                        .named(INDICE_TIPO_CHAVE_CONTA),
+                new Index()
+                        .on("numeroAgencia", Sort.Direction.ASC)
+                        .on("numeroConta", Sort.Direction.ASC)
+                        .named(INDICE_AGENCIA_CONTA),
+                // Filtros de /buscar seguidos das chaves de ordenação da paginação por cursor.
+                new Index()
+                        .on("tipoChave", Sort.Direction.ASC)
+                        .on("inativa", Sort.Direction.ASC)
+                        .on("dataHoraInclusao", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named(INDICE_TIPO_CHAVE_PAGINA),
+                new Index()
+                        .on("nomeCorrentista", Sort.Direction.ASC)
+                        .on("inativa", Sort.Direction.ASC)
+                        .on("dataHoraInclusao", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named(INDICE_NOME_CORRENTISTA_PAGINA),
+                new Index()
+                        .on("numeroAgencia", Sort.Direction.ASC)
+                        .on("inativa", Sort.Direction.ASC)
+                        .on("dataHoraInclusao", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named(INDICE_AGENCIA_PAGINA),
+                new Index()
+                        .on("inativa", Sort.Direction.ASC)
+                        .on("dataHoraInclusao", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named(INDICE_INCLUSAO_PAGINA),
+                // Período de inativação: só existe em chaves inativas.
+                new Index()
+                        .on("dataHoraInativacao", Sort.Direction.ASC)
+                        .on("dataHoraInclusao", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .partial(PartialIndexFilter.of(Criteria.where("inativa").is(true)))
+                        .named(INDICE_INATIVACAO)
+        );
+    }
+
+    /**
+     * O arquivo só recebe chaves inativas: sem unicidade (um valor liberado
+     * pode ser cadastrado e arquivado de novo) e sem o campo inativa nos índices.
+     */
+    static List<Index> indicesArquivo() {
+        return List.of(
+                new Index()
+                        .on("valorChave", Sort.Direction.ASC)
+                        .named(INDICE_ARQUIVO_VALOR_CHAVE),
+                new Index()
+                        .on("numeroAgencia", Sort.Direction.ASC)
+                        .on("dataHoraInclusao", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named(INDICE_ARQUIVO_AGENCIA_PAGINA),
+                new Index()
+                        .on("dataHoraInclusao", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named(INDICE_ARQUIVO_INCLUSAO_PAGINA),
+                new Index()
+                        .on("dataHoraInativacao", Sort.Direction.ASC)
+                        .on("dataHoraInclusao", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named(INDICE_ARQUIVO_INATIVACAO)
+        );
     }
 }
@@ -0,0 +1,20 @@
+package com.itau.pix.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("reativo")
+public class ReativoConfig {
+
+    /**
+     * Com Tomcat e Reactor Netty no classpath, o Spring Boot escolheria o Tomcat
+     * também para o WebFlux; o perfil reativo roda sobre o event loop do Netty.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
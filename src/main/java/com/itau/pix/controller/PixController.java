@@ -4,25 +4,45 @@ import com.itau.pix.model.PixModelo;
 import com.itau.pix.model.enums.TipoChave;
 import com.itau.pix.model.dto.PixRequisicaoDto;
 import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativacaoLoteDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixResultadoLoteDto;
 import com.itau.pix.service.PixService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.*;
 
 
 @RestController
+@Profile("!reativo")
 @RequestMapping("/api/v1/pix")
 public class PixController {
 
     @Autowired
     private PixService pixService;
 
+    /**
+     * Prazo da exportação NDJSON, que pode levar minutos; as demais requisições
+     * assíncronas mantêm o prazo padrão.
+     */
+    @Value("${pix.exportacao.timeout:PT30M}")
+    private Duration timeoutExportacao;
+
     @PostMapping("/cadastrar")
     public ResponseEntity<Map<String, String>> cadastrarChavePix(@Valid @RequestBody PixRequisicaoDto requisicao) {
         PixModelo createdKey = pixService.cadastrar(requisicao);
@@ -31,6 +51,11 @@ public class PixController {
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
 
+    @PostMapping("/cadastrar/lote")
+    public ResponseEntity<List<PixResultadoLoteDto>> cadastrarChavesPixLote(@RequestBody List<PixRequisicaoDto> requisicoes) {
+        return ResponseEntity.status(HttpStatus.OK).body(pixService.cadastrarLote(requisicoes));
+    }
+
     @PutMapping("/chave/{id}")
     public ResponseEntity<PixModelo> alterarChavePix(
             @PathVariable UUID id,
@@ -39,21 +64,85 @@ public class PixController {
         return ResponseEntity.status(HttpStatus.OK).body(alterarChave);
     }
 
+    @GetMapping("/chave/valor/{valorChave}")
+    public ResponseEntity<PixModelo> resolverChavePix(@PathVariable String valorChave) {
+        return ResponseEntity.status(HttpStatus.OK).body(pixService.resolver(valorChave));
+    }
+
     @GetMapping("/buscar")
-    public ResponseEntity<List<PixModelo>> consultarChavePix(
+    public ResponseEntity<? extends List<?>> consultarChavePix(
             @RequestParam(required = false) UUID id,
             @RequestParam(required = false) TipoChave tipoChave,
             @RequestParam(required = false) String numeroAgencia,
             @RequestParam(required = false) String numeroConta,
             @RequestParam(required = false) String nomeCorrentista,
-            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDateTime dataHoraInclusao,
-            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDateTime dataHoraInativacao
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInclusaoInicio,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInclusaoFim,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInativacaoInicio,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInativacaoFim,
+            @RequestParam(defaultValue = "false") boolean arquivadas,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Set<String> fields
     ) {
-        return pixService.buscar(id, tipoChave, numeroAgencia, numeroConta, nomeCorrentista, dataHoraInclusao, dataHoraInativacao);
+        PixFiltroDto filtro = filtro(id, tipoChave, numeroAgencia, numeroConta, nomeCorrentista,
+                dataInclusaoInicio, dataInclusaoFim, dataInativacaoInicio, dataInativacaoFim, arquivadas);
+        if (fields != null && !fields.isEmpty()) {
+            return pixService.buscarCampos(filtro, fields, limite, cursor);
+        }
+        return pixService.buscar(filtro, limite, cursor);
+    }
+
+    @GetMapping(value = "/buscar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarChavesPix(
+            @RequestParam(required = false) UUID id,
+            @RequestParam(required = false) TipoChave tipoChave,
+            @RequestParam(required = false) String numeroAgencia,
+            @RequestParam(required = false) String numeroConta,
+            @RequestParam(required = false) String nomeCorrentista,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInclusaoInicio,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInclusaoFim,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInativacaoInicio,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInativacaoFim,
+            @RequestParam(defaultValue = "false") boolean arquivadas,
+            HttpServletRequest requisicao
+    ) {
+        PixFiltroDto filtro = filtro(id, tipoChave, numeroAgencia, numeroConta, nomeCorrentista,
+                dataInclusaoInicio, dataInclusaoFim, dataInativacaoInicio, dataInativacaoFim, arquivadas);
+        // O StreamingResponseBody roda com o prazo da requisição assíncrona já criada para este handler.
+        AsyncWebRequest assincrona = WebAsyncUtils.getAsyncManager(requisicao).getAsyncWebRequest();
+        if (assincrona != null) {
+            assincrona.setTimeout(timeoutExportacao.toMillis());
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(pixService.exportar(filtro));
+    }
+
+    private static PixFiltroDto filtro(UUID id, TipoChave tipoChave, String numeroAgencia, String numeroConta,
+                                       String nomeCorrentista, LocalDate dataInclusaoInicio, LocalDate dataInclusaoFim,
+                                       LocalDate dataInativacaoInicio, LocalDate dataInativacaoFim, boolean arquivadas) {
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setId(id);
+        filtro.setTipoChave(tipoChave);
+        filtro.setNumeroAgencia(numeroAgencia);
+        filtro.setNumeroConta(numeroConta);
+        filtro.setNomeCorrentista(nomeCorrentista);
+        filtro.setDataInclusaoInicio(dataInclusaoInicio);
+        filtro.setDataInclusaoFim(dataInclusaoFim);
+        filtro.setDataInativacaoInicio(dataInativacaoInicio);
+        filtro.setDataInativacaoFim(dataInativacaoFim);
+        filtro.setArquivadas(arquivadas);
+        return filtro;
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<PixModelo> desativarChavePix(@PathVariable UUID id) {
         return pixService.desativar(id);
     }
+
+    @PostMapping("/desativar/lote")
+    public ResponseEntity<PixDesativacaoLoteDto> desativarChavesPixLote(@RequestBody PixDesativarLoteDto selecao) {
+        return ResponseEntity.status(HttpStatus.OK).body(pixService.desativarLote(selecao));
+    }
 }
@@ -0,0 +1,136 @@
+package com.itau.pix.controller;
+
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.dto.PixRequisicaoDto;
+import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativacaoLoteDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixResultadoLoteDto;
+import com.itau.pix.service.PixServiceReativo;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Mesmas rotas de {@link PixController} sobre WebFlux, ativas no perfil
+ * {@code reativo} no lugar da versão Spring MVC.
+ */
+@RestController
+@Profile("reativo")
+@RequestMapping("/api/v1/pix")
+public class PixControllerReativo {
+
+    @Autowired
+    private PixServiceReativo pixService;
+
+    @PostMapping("/cadastrar")
+    public Mono<ResponseEntity<Map<String, String>>> cadastrarChavePix(@Valid @RequestBody PixRequisicaoDto requisicao) {
+        return pixService.cadastrar(requisicao)
+                .map(createdKey -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("id", createdKey.getId());
+                    return ResponseEntity.status(HttpStatus.OK).body(response);
+                });
+    }
+
+    @PostMapping("/cadastrar/lote")
+    public Mono<ResponseEntity<List<PixResultadoLoteDto>>> cadastrarChavesPixLote(@RequestBody List<PixRequisicaoDto> requisicoes) {
+        return pixService.cadastrarLote(requisicoes)
+                .map(resultados -> ResponseEntity.status(HttpStatus.OK).body(resultados));
+    }
+
+    @PutMapping("/chave/{id}")
+    public Mono<ResponseEntity<PixModelo>> alterarChavePix(
+            @PathVariable UUID id,
+            @Valid @RequestBody PixAlterarRequisicaoDto requisicaoAlterar) {
+        return pixService.alterar(id, requisicaoAlterar)
+                .map(alterarChave -> ResponseEntity.status(HttpStatus.OK).body(alterarChave));
+    }
+
+    @GetMapping("/chave/valor/{valorChave}")
+    public Mono<ResponseEntity<PixModelo>> resolverChavePix(@PathVariable String valorChave) {
+        return pixService.resolver(valorChave)
+                .map(chave -> ResponseEntity.status(HttpStatus.OK).body(chave));
+    }
+
+    @GetMapping("/buscar")
+    public Mono<ResponseEntity<? extends List<?>>> consultarChavePix(
+            @RequestParam(required = false) UUID id,
+            @RequestParam(required = false) TipoChave tipoChave,
+            @RequestParam(required = false) String numeroAgencia,
+            @RequestParam(required = false) String numeroConta,
+            @RequestParam(required = false) String nomeCorrentista,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInclusaoInicio,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInclusaoFim,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInativacaoInicio,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInativacaoFim,
+            @RequestParam(defaultValue = "false") boolean arquivadas,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Set<String> fields
+    ) {
+        PixFiltroDto filtro = filtro(id, tipoChave, numeroAgencia, numeroConta, nomeCorrentista,
+                dataInclusaoInicio, dataInclusaoFim, dataInativacaoInicio, dataInativacaoFim, arquivadas);
+        if (fields != null && !fields.isEmpty()) {
+            return pixService.buscarCampos(filtro, fields, limite, cursor).map(resposta -> resposta);
+        }
+        return pixService.buscar(filtro, limite, cursor).map(resposta -> resposta);
+    }
+
+    @GetMapping(value = "/buscar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PixModelo> exportarChavesPix(
+            @RequestParam(required = false) UUID id,
+            @RequestParam(required = false) TipoChave tipoChave,
+            @RequestParam(required = false) String numeroAgencia,
+            @RequestParam(required = false) String numeroConta,
+            @RequestParam(required = false) String nomeCorrentista,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInclusaoInicio,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInclusaoFim,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInativacaoInicio,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate dataInativacaoFim,
+            @RequestParam(defaultValue = "false") boolean arquivadas
+    ) {
+        return pixService.exportar(filtro(id, tipoChave, numeroAgencia, numeroConta, nomeCorrentista,
+                dataInclusaoInicio, dataInclusaoFim, dataInativacaoInicio, dataInativacaoFim, arquivadas));
+    }
+
+    private static PixFiltroDto filtro(UUID id, TipoChave tipoChave, String numeroAgencia, String numeroConta,
+                                       String nomeCorrentista, LocalDate dataInclusaoInicio, LocalDate dataInclusaoFim,
+                                       LocalDate dataInativacaoInicio, LocalDate dataInativacaoFim, boolean arquivadas) {
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setId(id);
+        filtro.setTipoChave(tipoChave);
+        filtro.setNumeroAgencia(numeroAgencia);
+        filtro.setNumeroConta(numeroConta);
+        filtro.setNomeCorrentista(nomeCorrentista);
+        filtro.setDataInclusaoInicio(dataInclusaoInicio);
+        filtro.setDataInclusaoFim(dataInclusaoFim);
+        filtro.setDataInativacaoInicio(dataInativacaoInicio);
+        filtro.setDataInativacaoFim(dataInativacaoFim);
+        filtro.setArquivadas(arquivadas);
+        return filtro;
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<PixModelo>> desativarChavePix(@PathVariable UUID id) {
+        return pixService.desativar(id).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/desativar/lote")
+    public Mono<ResponseEntity<PixDesativacaoLoteDto>> desativarChavesPixLote(@RequestBody PixDesativarLoteDto selecao) {
+        return pixService.desativarLote(selecao)
+                .map(resultado -> ResponseEntity.status(HttpStatus.OK).body(resultado));
+    }
+}
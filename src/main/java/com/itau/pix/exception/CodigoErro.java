@@ -0,0 +1,54 @@
+package com.itau.pix.exception;
+
+import lombok.Getter;
+
+/**
+ * Código estável de cada erro de negócio, devolvido no cabeçalho
+ * {@value GerenciadorException#CABECALHO_CODIGO_ERRO}. Os códigos com mensagem
+ * fixa têm a resposta montada uma única vez pelo GerenciadorExceptionHandler;
+ * os de mensagem variável ({@code mensagem} nula) recebem o texto de quem lança.
+ */
+@Getter
+public enum CodigoErro {
+    CPF_INVALIDO("Valor de CPF inválido."),
+    CNPJ_INVALIDO("Valor de CNPJ inválido."),
+    EMAIL_INVALIDO("Valor de e-mail inválido."),
+    CELULAR_PAIS_INVALIDO("O código do país deve ser +55 para números do Brasil."),
+    CELULAR_INVALIDO("Número de celular inválido. O formato correto é +55DD9XXXXXXXX."),
+    CHAVE_ALEATORIA_INVALIDA("Valor de chave aleatória inválido."),
+    CAMPOS_OBRIGATORIOS("Todos os campos obrigatórios devem ser informados."),
+    ID_INALTERAVEL("O ID da chave não pode ser alterado."),
+    TIPO_CHAVE_INALTERAVEL("O tipo da chave não pode ser alterado."),
+    VALOR_CHAVE_INALTERAVEL("O valor da chave não pode ser alterado."),
+    CHAVE_INATIVA("Não é permitido alterar uma chave inativa."),
+    CHAVE_JA_DESATIVADA("A chave já está desativada."),
+    VERSAO_DESATUALIZADA("A chave foi alterada por outra requisição. Consulte a versão atual e tente novamente."),
+    CHAVE_DUPLICADA_ID("Já existe uma chave cadastrada com esse ID."),
+    CHAVE_DUPLICADA_VALOR("Já existe uma chave cadastrada com esse valor."),
+    CHAVE_DUPLICADA_TIPO_CONTA("Já existe uma chave desse tipo cadastrada para essa conta."),
+    LIMITE_CHAVES_FISICA("Limite de 5 chaves atingido para conta de pessoa física."),
+    LIMITE_CHAVES_JURIDICA("Limite de 20 chaves atingido para conta de pessoa jurídica."),
+    ID_NAO_ENCONTRADO("ID não encontrado."),
+    CHAVE_NAO_ENCONTRADA("Chave não encontrada."),
+    BUSCA_SEM_RESULTADO("Nenhuma chave encontrada com os critérios fornecidos."),
+    CURSOR_INVALIDO("Cursor de paginação inválido."),
+    FILTRO_ID_EXCLUSIVO("Se informar o ID, nenhum outro filtro pode ser usado."),
+    PERIODO_INVALIDO("A data inicial do período não pode ser posterior à data final."),
+    EXPORTACAO_SEM_FILTRO("Informe ao menos um filtro para exportar as chaves."),
+    SELECAO_DESATIVACAO_INVALIDA("Informe os ids ou a agência e conta das chaves a desativar, não ambos."),
+    AGENCIA_INVALIDA("Número da agência inválido. Deve ter exatamente 4 dígitos."),
+    CONTA_INVALIDA("Número da conta inválido. Deve ter exatamente 8 dígitos."),
+    TIPO_CONTA_INVALIDO("Tipo de conta inválido. Deve ser 'corrente' ou 'poupança'."),
+    NOME_CORRENTISTA_INVALIDO("Nome do correntista inválido. Não pode ser em branco e deve ter no máximo 30 caracteres."),
+    SOBRENOME_CORRENTISTA_INVALIDO("Sobrenome do correntista inválido. Deve ter no máximo 45 caracteres."),
+    TAMANHO_LOTE_INVALIDO(null),
+    TAMANHO_PAGINA_INVALIDO(null),
+    CAMPO_PROJECAO_INVALIDO(null),
+    CAMPO_INVALIDO(null);
+
+    private final String mensagem;
+
+    CodigoErro(String mensagem) {
+        this.mensagem = mensagem;
+    }
+}
@@ -0,0 +1,9 @@
+package com.itau.pix.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ConflitoException extends NegocioException {
+    public ConflitoException(CodigoErro codigo) {
+        super(HttpStatus.CONFLICT, codigo);
+    }
+}
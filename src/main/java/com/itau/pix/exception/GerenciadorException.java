@@ -1,38 +1,125 @@
 package com.itau.pix.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @RestControllerAdvice
 public class GerenciadorException extends RuntimeException {
+
+    public static final String METRICA_ERROS = "pix.erros";
+    public static final String CABECALHO_CODIGO_ERRO = "X-Codigo-Erro";
+
+    private static final MediaType TEXTO_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    /**
+     * Converte as exceções em status e mensagem e conta cada uma em
+     * {@code pix.erros}, por tipo de exceção e status. Atende tanto o Spring MVC
+     * quanto o WebFlux (perfil reativo).
+     * <p>
+     * Erros de negócio com código de mensagem fixa reutilizam a resposta já
+     * serializada do código; o corpo continua sendo só a mensagem, em UTF-8.
+     */
     @RestControllerAdvice
-    public class GerenciadorExceptionHandler {
+    public static class GerenciadorExceptionHandler {
+
+        private final MeterRegistry registry;
+        private final Map<CodigoErro, ResponseEntity<byte[]>> respostas = new ConcurrentHashMap<>();
+
+        @Autowired
+        public GerenciadorExceptionHandler(ObjectProvider<MeterRegistry> registry) {
+            // Testes de fatia (WebMvcTest) sobem sem a autoconfiguração de métricas.
+            this.registry = registry.getIfAvailable(SimpleMeterRegistry::new);
+        }
+
         @ExceptionHandler(ValidacaoException.class)
-        public ResponseEntity<String> handleValidacao(ValidacaoException ex) {
-            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ex.getMessage());
+        public ResponseEntity<byte[]> handleValidacao(ValidacaoException ex) {
+            return resposta(ex, HttpStatus.UNPROCESSABLE_ENTITY);
         }
 
         @ExceptionHandler(NaoEncontradoException.class)
-        public ResponseEntity<String> handleNaoEncontrado(NaoEncontradoException ex) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        public ResponseEntity<byte[]> handleNaoEncontrado(NaoEncontradoException ex) {
+            return resposta(ex, HttpStatus.NOT_FOUND);
         }
 
         @ExceptionHandler(NaoAutorizadoException.class)
-        public ResponseEntity<String> handleNaoAutorizado(NaoAutorizadoException ex) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ex.getMessage());
+        public ResponseEntity<byte[]> handleNaoAutorizado(NaoAutorizadoException ex) {
+            return resposta(ex, HttpStatus.FORBIDDEN);
+        }
+
+        @ExceptionHandler(ConflitoException.class)
+        public ResponseEntity<byte[]> handleConflito(ConflitoException ex) {
+            return resposta(ex, HttpStatus.CONFLICT);
         }
 
         @ExceptionHandler(RequisicaoInvalidaException.class)
-        public ResponseEntity<String> handleRequisicaoInvalida(RequisicaoInvalidaException ex) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+        public ResponseEntity<byte[]> handleRequisicaoInvalida(RequisicaoInvalidaException ex) {
+            return resposta(ex, HttpStatus.BAD_REQUEST);
         }
 
         @ExceptionHandler(Exception.class)
-        public ResponseEntity<String> handleGeral(Exception ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno no servidor.");
+        public ResponseEntity<byte[]> handleGeral(Exception ex) {
+            // @Valid no corpo: MethodArgumentNotValidException (MVC) ou WebExchangeBindException (WebFlux).
+            if (ex instanceof BindingResult campos && campos.hasFieldErrors()) {
+                return resposta(ex, HttpStatus.BAD_REQUEST, campos.getFieldErrors().get(0).getDefaultMessage());
+            }
+            if (ex instanceof TypeMismatchException || ex instanceof HttpMessageNotReadableException) {
+                return resposta(ex, HttpStatus.BAD_REQUEST, "Requisição inválida.");
+            }
+            // Demais exceções do Spring com status próprio (rota inexistente, método não suportado etc.).
+            if (ex instanceof ErrorResponse erro) {
+                return resposta(ex, erro.getStatusCode(), erro.getBody().getDetail());
+            }
+            return resposta(ex, HttpStatus.INTERNAL_SERVER_ERROR, "Erro interno no servidor.");
+        }
+
+        private ResponseEntity<byte[]> resposta(NegocioException ex, HttpStatus status) {
+            contar(ex, status);
+            CodigoErro codigo = ex.getCodigo();
+            if (codigo == null || codigo.getMensagem() == null) {
+                return montar(status, codigo, ex.getReason());
+            }
+            // Cada código é lançado sempre pela mesma exceção, então o status também é fixo.
+            return respostas.computeIfAbsent(codigo, c -> montar(status, c, c.getMensagem()));
+        }
+
+        private ResponseEntity<byte[]> resposta(Exception ex, HttpStatusCode status, String mensagem) {
+            contar(ex, status);
+            return montar(status, null, mensagem);
+        }
+
+        private void contar(Exception ex, HttpStatusCode status) {
+            Counter.builder(METRICA_ERROS)
+                    .description("Exceções convertidas em resposta de erro")
+                    .tag("excecao", ex.getClass().getSimpleName())
+                    .tag("status", Integer.toString(status.value()))
+                    .register(registry)
+                    .increment();
+        }
+
+        // Content-Type explícito: o corpo já está em bytes e não passa pela negociação de conteúdo.
+        private static ResponseEntity<byte[]> montar(HttpStatusCode status, CodigoErro codigo, String mensagem) {
+            ResponseEntity.BodyBuilder resposta = ResponseEntity.status(status).contentType(TEXTO_UTF8);
+            if (codigo != null) {
+                resposta.header(CABECALHO_CODIGO_ERRO, codigo.name());
+            }
+            return resposta.body(mensagem == null ? new byte[0] : mensagem.getBytes(StandardCharsets.UTF_8));
         }
     }
 }
-
@@ -1,10 +1,13 @@
 package com.itau.pix.exception;
 
 import org.springframework.http.HttpStatus;
-import org.springframework.web.server.ResponseStatusException;
 
-public class NaoAutorizadoException extends ResponseStatusException {
+public class NaoAutorizadoException extends NegocioException {
+    public NaoAutorizadoException(CodigoErro codigo) {
+        super(HttpStatus.FORBIDDEN, codigo);
+    }
+
     public NaoAutorizadoException(String motivo) {
-        super(HttpStatus.UNAUTHORIZED, motivo);
+        super(HttpStatus.FORBIDDEN, null, motivo);
     }
 }
@@ -1,15 +1,17 @@
 package com.itau.pix.exception;
 
-import org.springframework.web.server.ResponseStatusException;
-
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
-public class NaoEncontradoException extends ResponseStatusException {
+public class NaoEncontradoException extends NegocioException {
+    public NaoEncontradoException(CodigoErro codigo) {
+        super(NOT_FOUND, codigo);
+    }
+
     public NaoEncontradoException(String reason) {
-        super(NOT_FOUND, reason + " não encontrado!");
+        super(NOT_FOUND, null, reason + " não encontrado!");
     }
 
     public NaoEncontradoException() {
-        super(NOT_FOUND);
+        super(NOT_FOUND, null, null);
     }
 }
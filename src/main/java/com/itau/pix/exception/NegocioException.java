@@ -0,0 +1,30 @@
+package com.itau.pix.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Base das exceções de regra de negócio. São lançadas em caminhos comuns
+ * (duplicidade, busca vazia, limite atingido) e tratadas sempre pelo
+ * GerenciadorExceptionHandler, então não capturam a pilha de chamadas.
+ */
+@Getter
+public abstract class NegocioException extends ResponseStatusException {
+
+    private final CodigoErro codigo;
+
+    protected NegocioException(HttpStatus status, CodigoErro codigo) {
+        this(status, codigo, codigo.getMensagem());
+    }
+
+    protected NegocioException(HttpStatus status, CodigoErro codigo, String motivo) {
+        super(status, motivo);
+        this.codigo = codigo;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
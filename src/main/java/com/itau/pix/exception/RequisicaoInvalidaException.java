@@ -1,10 +1,17 @@
 package com.itau.pix.exception;
 
 import org.springframework.http.HttpStatus;
-import org.springframework.web.server.ResponseStatusException;
 
-public class RequisicaoInvalidaException extends ResponseStatusException {
+public class RequisicaoInvalidaException extends NegocioException {
+    public RequisicaoInvalidaException(CodigoErro codigo) {
+        super(HttpStatus.BAD_REQUEST, codigo);
+    }
+
+    public RequisicaoInvalidaException(CodigoErro codigo, String motivo) {
+        super(HttpStatus.BAD_REQUEST, codigo, motivo);
+    }
+
     public RequisicaoInvalidaException(String motivo) {
-        super(HttpStatus.BAD_REQUEST, motivo);
+        super(HttpStatus.BAD_REQUEST, null, motivo);
     }
 }
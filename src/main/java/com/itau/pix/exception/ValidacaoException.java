@@ -2,15 +2,17 @@ package com.itau.pix.exception;
 
 import lombok.Getter;
 import org.springframework.http.HttpStatus;
-import org.springframework.web.server.ResponseStatusException;
 
 @Getter
-public class ValidacaoException extends ResponseStatusException {
+public class ValidacaoException extends NegocioException {
 
     private String detalhes;
 
+    public ValidacaoException(CodigoErro codigo) {
+        super(HttpStatus.UNPROCESSABLE_ENTITY, codigo);
+    }
+
     public ValidacaoException(String detalhes) {
-        super(HttpStatus.UNPROCESSABLE_ENTITY, detalhes);
+        super(HttpStatus.UNPROCESSABLE_ENTITY, null, detalhes);
     }
 }
-
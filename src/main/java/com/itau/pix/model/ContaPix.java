@@ -0,0 +1,7 @@
+package com.itau.pix.model;
+
+/**
+ * Agência e conta às quais as chaves PIX estão vinculadas.
+ */
+public record ContaPix(String numeroAgencia, String numeroConta) {
+}
@@ -0,0 +1,29 @@
+package com.itau.pix.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Quantidade de chaves ativas de uma agência e conta, mantida com $inc
+ * condicional no cadastro e decrementada na desativação.
+ */
+@Getter
+@Setter
+@Document(collection = ContadorConta.COLECAO)
+public class ContadorConta {
+
+    public static final String COLECAO = "pix_account_counters";
+    public static final String SEPARADOR = "/";
+
+    @Id
+    private String id;
+    private String numeroAgencia;
+    private String numeroConta;
+    private long quantidade;
+
+    public static String idDe(ContaPix conta) {
+        return conta.numeroAgencia() + SEPARADOR + conta.numeroConta();
+    }
+}
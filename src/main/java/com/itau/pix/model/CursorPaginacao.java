@@ -0,0 +1,49 @@
+package com.itau.pix.model;
+
+import com.itau.pix.exception.CodigoErro;
+import com.itau.pix.exception.RequisicaoInvalidaException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição da última chave entregue em uma página de /buscar, ordenada por
+ * dataHoraInclusao e id. Trafega como token opaco em Base64 URL-safe.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPaginacao {
+
+    private static final char SEPARADOR = '|';
+
+    private final LocalDateTime dataHoraInclusao;
+    private final String id;
+
+    public static CursorPaginacao depoisDe(PixModelo chave) {
+        return new CursorPaginacao(chave.getDataHoraInclusao(), chave.getId());
+    }
+
+    public String codificar() {
+        String valor = dataHoraInclusao.toString() + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorPaginacao decodificar(String token) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException(token);
+            }
+            return new CursorPaginacao(
+                    LocalDateTime.parse(valor.substring(0, separador)),
+                    valor.substring(separador + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RequisicaoInvalidaException(CodigoErro.CURSOR_INVALIDO);
+        }
+    }
+}
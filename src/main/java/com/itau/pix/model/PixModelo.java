@@ -7,15 +7,22 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Getter
 @Setter
-@Document(collection = "pix_keys")
+@Document(collection = PixModelo.COLECAO)
 public class PixModelo {
 
+    public static final String COLECAO = "pix_keys";
+    /**
+     * Arquivo das chaves inativas há mais de {@code pix.arquivamento.retencao}.
+     */
+    public static final String COLECAO_INATIVAS = "pix_keys_inativas";
+
     @Id
     private String id;
     @Enumerated(EnumType.STRING)
@@ -30,6 +37,40 @@ public class PixModelo {
     private LocalDateTime dataHoraInativacao;
     @JsonIgnore
     private boolean inativa;
+    /**
+     * Gravado pela desativação em lote junto com a inativação, para a chamada
+     * reler só as chaves que ela mesma desativou.
+     */
+    @JsonIgnore
+    private String loteDesativacao;
     @Enumerated(EnumType.STRING)
     private TipoCorrentista tipoCorrentista;
+    /**
+     * Incrementada a cada alteração; o cliente pode enviá-la no PUT para só
+     * alterar a versão que leu.
+     */
+    @Version
+    private Long versao;
+
+    /**
+     * Cópia rasa: todos os campos são imutáveis.
+     */
+    public PixModelo copia() {
+        PixModelo copia = new PixModelo();
+        copia.setId(id);
+        copia.setTipoChave(tipoChave);
+        copia.setValorChave(valorChave);
+        copia.setTipoConta(tipoConta);
+        copia.setNumeroAgencia(numeroAgencia);
+        copia.setNumeroConta(numeroConta);
+        copia.setNomeCorrentista(nomeCorrentista);
+        copia.setSobrenomeCorrentista(sobrenomeCorrentista);
+        copia.setDataHoraInclusao(dataHoraInclusao);
+        copia.setDataHoraInativacao(dataHoraInativacao);
+        copia.setInativa(inativa);
+        copia.setLoteDesativacao(loteDesativacao);
+        copia.setTipoCorrentista(tipoCorrentista);
+        copia.setVersao(versao);
+        return copia;
+    }
 }
@@ -43,4 +43,9 @@ public class PixAlterarRequisicaoDto {
     @NotNull(message = "Tipo de correntista é obrigatório.")
     @Enumerated(EnumType.STRING)
     private TipoCorrentista tipoCorrentista;
+
+    /**
+     * Versão lida pelo cliente; se informada, a alteração só é aplicada sobre ela.
+     */
+    private Long versao;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.itau.pix.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class PixDesativacaoLoteDto {
+    private long desativadas;
+    private LocalDateTime dataHoraInativacao;
+    private List<String> ids;
+}
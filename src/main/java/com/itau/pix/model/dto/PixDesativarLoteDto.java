@@ -0,0 +1,19 @@
+package com.itau.pix.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Seleção das chaves a desativar em lote: uma lista de ids ou todas as
+ * chaves ativas de uma agência e conta.
+ */
+@Getter
+@Setter
+public class PixDesativarLoteDto {
+    private List<UUID> ids;
+    private String numeroAgencia;
+    private String numeroConta;
+}
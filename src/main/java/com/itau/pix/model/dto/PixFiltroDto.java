@@ -0,0 +1,47 @@
+package com.itau.pix.model.dto;
+
+import com.itau.pix.model.enums.TipoChave;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Filtros de /buscar. As datas delimitam períodos em dias inteiros, com início
+ * e fim inclusivos; qualquer um dos extremos pode ficar em aberto.
+ */
+@Getter
+@Setter
+public class PixFiltroDto {
+    private UUID id;
+    private TipoChave tipoChave;
+    private String numeroAgencia;
+    private String numeroConta;
+    private String nomeCorrentista;
+    private LocalDate dataInclusaoInicio;
+    private LocalDate dataInclusaoFim;
+    private LocalDate dataInativacaoInicio;
+    private LocalDate dataInativacaoFim;
+    /**
+     * Consulta o arquivo de chaves inativas ({@code pix_keys_inativas}) em vez
+     * das chaves correntes.
+     */
+    private boolean arquivadas;
+
+    public boolean isVazio() {
+        return id == null && tipoChave == null && numeroAgencia == null && numeroConta == null &&
+                nomeCorrentista == null && !isPorInclusao() && !isPorInativacao();
+    }
+
+    public boolean isPorInclusao() {
+        return dataInclusaoInicio != null || dataInclusaoFim != null;
+    }
+
+    /**
+     * Filtrar pela data de inativação significa buscar chaves inativas.
+     */
+    public boolean isPorInativacao() {
+        return dataInativacaoInicio != null || dataInativacaoFim != null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.itau.pix.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.enums.TipoCorrentista;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Chave PIX com apenas os campos pedidos em {@code fields=} de /buscar.
+ * Campos não projetados ficam nulos e não são serializados.
+ */
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PixProjecaoDto {
+
+    public static final Set<String> CAMPOS = Set.of(
+            "id", "tipoChave", "valorChave", "tipoConta", "numeroAgencia", "numeroConta",
+            "nomeCorrentista", "sobrenomeCorrentista", "dataHoraInclusao", "dataHoraInativacao", "tipoCorrentista");
+
+    private String id;
+    private TipoChave tipoChave;
+    private String valorChave;
+    private String tipoConta;
+    private String numeroAgencia;
+    private String numeroConta;
+    private String nomeCorrentista;
+    private String sobrenomeCorrentista;
+    private LocalDateTime dataHoraInclusao;
+    private LocalDateTime dataHoraInativacao;
+    private TipoCorrentista tipoCorrentista;
+
+    /**
+     * id e dataHoraInclusao são sempre lidos para montar o cursor da página;
+     * descarta-os da resposta quando não foram pedidos.
+     */
+    public void descartarChavesPaginacao(Set<String> campos) {
+        if (!campos.contains("id")) {
+            id = null;
+        }
+        if (!campos.contains("dataHoraInclusao")) {
+            dataHoraInclusao = null;
+        }
+    }
+}
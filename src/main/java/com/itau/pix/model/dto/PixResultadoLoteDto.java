@@ -0,0 +1,43 @@
+package com.itau.pix.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.itau.pix.exception.CodigoErro;
+import com.itau.pix.exception.NegocioException;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Resultado de um item de /cadastrar/lote, na mesma posição da requisição.
+ * Traz o id gerado em caso de sucesso ou o status, o código e a mensagem do erro.
+ */
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PixResultadoLoteDto {
+
+    private int indice;
+    private int status;
+    private String id;
+    private CodigoErro codigo;
+    private String mensagem;
+
+    public static PixResultadoLoteDto sucesso(int indice, String id) {
+        PixResultadoLoteDto resultado = new PixResultadoLoteDto();
+        resultado.setIndice(indice);
+        resultado.setStatus(200);
+        resultado.setId(id);
+        return resultado;
+    }
+
+    public static PixResultadoLoteDto falha(int indice, ResponseStatusException erro) {
+        PixResultadoLoteDto resultado = new PixResultadoLoteDto();
+        resultado.setIndice(indice);
+        resultado.setStatus(erro.getStatusCode().value());
+        if (erro instanceof NegocioException negocio) {
+            resultado.setCodigo(negocio.getCodigo());
+        }
+        resultado.setMensagem(erro.getReason());
+        return resultado;
+    }
+}
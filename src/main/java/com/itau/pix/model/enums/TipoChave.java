@@ -1,9 +1,31 @@
 package com.itau.pix.model.enums;
 
 public enum TipoChave {
-    CELULAR,
-    EMAIL,
-    CPF,
-    CNPJ,
-    ALEATORIA
+    CELULAR(1),
+    EMAIL(2),
+    CPF(3),
+    CNPJ(4),
+    ALEATORIA(5);
+
+    /**
+     * Gravado no lugar do nome no armazenamento compacto; não reaproveite códigos.
+     */
+    private final int codigo;
+
+    TipoChave(int codigo) {
+        this.codigo = codigo;
+    }
+
+    public int getCodigo() {
+        return codigo;
+    }
+
+    public static TipoChave doCodigo(int codigo) {
+        for (TipoChave tipo : values()) {
+            if (tipo.codigo == codigo) {
+                return tipo;
+            }
+        }
+        throw new IllegalArgumentException("Código de tipo de chave desconhecido: " + codigo);
+    }
 }
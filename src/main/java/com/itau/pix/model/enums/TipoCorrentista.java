@@ -1,6 +1,28 @@
 package com.itau.pix.model.enums;
 
 public enum TipoCorrentista {
-    FISICA,
-    JURIDICA
+    FISICA(1),
+    JURIDICA(2);
+
+    /**
+     * Gravado no lugar do nome no armazenamento compacto; não reaproveite códigos.
+     */
+    private final int codigo;
+
+    TipoCorrentista(int codigo) {
+        this.codigo = codigo;
+    }
+
+    public int getCodigo() {
+        return codigo;
+    }
+
+    public static TipoCorrentista doCodigo(int codigo) {
+        for (TipoCorrentista tipo : values()) {
+            if (tipo.codigo == codigo) {
+                return tipo;
+            }
+        }
+        throw new IllegalArgumentException("Código de tipo de correntista desconhecido: " + codigo);
+    }
 }
@@ -0,0 +1,312 @@
+package com.itau.pix.repository;
+
+import com.itau.pix.model.ContaPix;
+import com.itau.pix.model.ContadorConta;
+import com.itau.pix.model.CursorPaginacao;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Monta a consulta de /buscar a partir de qualquer combinação de filtros.
+ * Chaves inativas são descartadas pelo próprio MongoDB, exceto quando o
+ * filtro é o período de inativação ou a consulta é no arquivo.
+ */
+public final class PixConsultaBuilder {
+
+    public static final Sort ORDENACAO_PAGINA = Sort.by(Sort.Order.asc("dataHoraInclusao"), Sort.Order.asc("id"));
+
+    static final int LOTE_CURSOR_EXPORTACAO = 1000;
+
+    private PixConsultaBuilder() {
+    }
+
+    public static Criteria criterios(PixFiltroDto filtro) {
+        Criteria criteria = Criteria.where("inativa").is(filtro.isArquivadas() || filtro.isPorInativacao());
+
+        if (filtro.getId() != null) {
+            criteria.and("id").is(filtro.getId().toString());
+        }
+        if (filtro.getTipoChave() != null) {
+            criteria.and("tipoChave").is(filtro.getTipoChave());
+        }
+        if (filtro.getNumeroAgencia() != null) {
+            criteria.and("numeroAgencia").is(filtro.getNumeroAgencia());
+        }
+        if (filtro.getNumeroConta() != null) {
+            criteria.and("numeroConta").is(filtro.getNumeroConta());
+        }
+        if (filtro.getNomeCorrentista() != null) {
+            criteria.and("nomeCorrentista").is(filtro.getNomeCorrentista());
+        }
+        if (filtro.isPorInclusao()) {
+            periodo(criteria.and("dataHoraInclusao"), filtro.getDataInclusaoInicio(), filtro.getDataInclusaoFim());
+        }
+        if (filtro.isPorInativacao()) {
+            periodo(criteria.and("dataHoraInativacao"), filtro.getDataInativacaoInicio(), filtro.getDataInativacaoFim());
+        }
+
+        return criteria;
+    }
+
+    /**
+     * Intervalo semiaberto [início do primeiro dia, início do dia seguinte ao
+     * último), para que o MongoDB percorra só esse trecho do índice.
+     */
+    private static void periodo(Criteria campo, LocalDate inicio, LocalDate fim) {
+        if (inicio != null) {
+            campo.gte(inicio.atStartOfDay());
+        }
+        if (fim != null) {
+            campo.lt(fim.plusDays(1).atStartOfDay());
+        }
+    }
+
+    public static String colecao(PixFiltroDto filtro) {
+        return filtro.isArquivadas() ? PixModelo.COLECAO_INATIVAS : PixModelo.COLECAO;
+    }
+
+    public static Query consulta(PixFiltroDto filtro) {
+        return Query.query(criterios(filtro));
+    }
+
+    /**
+     * Paginação por cursor (keyset): ordena por dataHoraInclusao e id e retoma
+     * estritamente depois da última chave entregue, sem skip.
+     */
+    public static Query consultaPaginada(PixFiltroDto filtro, CursorPaginacao cursor, int limite) {
+        Criteria criteria = criterios(filtro);
+
+        if (cursor != null) {
+            criteria.orOperator(
+                    Criteria.where("dataHoraInclusao").gt(cursor.getDataHoraInclusao()),
+                    Criteria.where("dataHoraInclusao").is(cursor.getDataHoraInclusao()).and("id").gt(cursor.getId())
+            );
+        }
+
+        return Query.query(criteria)
+                .with(ORDENACAO_PAGINA)
+                .limit(limite);
+    }
+
+    /**
+     * Mesma página de {@link #consultaPaginada}, trazendo do MongoDB só os campos
+     * pedidos e as chaves de ordenação necessárias ao próximo cursor.
+     */
+    public static Query consultaPaginadaProjetada(PixFiltroDto filtro, Set<String> campos, CursorPaginacao cursor, int limite) {
+        Query query = consultaPaginada(filtro, cursor, limite);
+
+        Field projecao = query.fields().include("id", "dataHoraInclusao");
+        campos.forEach(projecao::include);
+
+        return query;
+    }
+
+    /**
+     * Alteração sem troca de conta: só casa com a chave ativa que ainda tem o
+     * tipo, o valor, a agência, a conta e a versão informados na requisição.
+     * Se não casar, o serviço relê a chave para apontar o motivo.
+     */
+    public static Query consultaAlteracao(UUID id, PixAlterarRequisicaoDto requisicao) {
+        Criteria criteria = Criteria.where("id").is(id.toString()).and("inativa").is(false);
+
+        if (requisicao.getTipoChave() != null) {
+            criteria.and("tipoChave").is(requisicao.getTipoChave());
+        }
+        if (requisicao.getValorChave() != null) {
+            criteria.and("valorChave").is(requisicao.getValorChave());
+        }
+        if (requisicao.getNumeroAgencia() != null) {
+            criteria.and("numeroAgencia").is(requisicao.getNumeroAgencia());
+        }
+        if (requisicao.getNumeroConta() != null) {
+            criteria.and("numeroConta").is(requisicao.getNumeroConta());
+        }
+        if (requisicao.getVersao() != null) {
+            criteria.and("versao").is(requisicao.getVersao());
+        }
+
+        return Query.query(criteria);
+    }
+
+    /**
+     * Alteração com troca de conta, feita depois de ler a chave e reservar a
+     * vaga na conta nova: só casa se a chave não mudou desde a leitura.
+     */
+    public static Query consultaAlteracaoConta(PixModelo chaveLida) {
+        return Query.query(Criteria.where("id").is(chaveLida.getId())
+                .and("inativa").is(false)
+                .and("versao").is(chaveLida.getVersao()));
+    }
+
+    /**
+     * $set apenas dos campos informados, com incremento da versão.
+     */
+    public static Update alteracao(PixAlterarRequisicaoDto requisicao) {
+        Update update = new Update().inc("versao", 1);
+
+        if (requisicao.getTipoConta() != null) {
+            update.set("tipoConta", requisicao.getTipoConta());
+        }
+        if (requisicao.getNumeroAgencia() != null) {
+            update.set("numeroAgencia", requisicao.getNumeroAgencia());
+        }
+        if (requisicao.getNumeroConta() != null) {
+            update.set("numeroConta", requisicao.getNumeroConta());
+        }
+        if (requisicao.getNomeCorrentista() != null) {
+            update.set("nomeCorrentista", requisicao.getNomeCorrentista());
+        }
+        if (requisicao.getSobrenomeCorrentista() != null) {
+            update.set("sobrenomeCorrentista", requisicao.getSobrenomeCorrentista());
+        }
+
+        return update;
+    }
+
+    /**
+     * Chaves ainda ativas entre os ids informados ou, sem ids, de toda a agência e conta.
+     */
+    public static Criteria criteriosDesativacao(PixDesativarLoteDto selecao) {
+        return selecaoLote(Criteria.where("inativa").is(false), selecao);
+    }
+
+    /**
+     * Chaves da mesma seleção desativadas pela chamada que gravou {@code loteDesativacao}.
+     */
+    public static Criteria criteriosDesativadas(PixDesativarLoteDto selecao, String loteDesativacao) {
+        return selecaoLote(Criteria.where("loteDesativacao").is(loteDesativacao), selecao);
+    }
+
+    /**
+     * Chaves da seleção desativadas pelo lote informado, apenas com os campos
+     * usados para invalidar o cache e devolver os contadores.
+     */
+    public static Query consultaDesativadas(PixDesativarLoteDto selecao, String loteDesativacao) {
+        Query query = Query.query(criteriosDesativadas(selecao, loteDesativacao));
+        query.fields().include("id", "valorChave", "numeroAgencia", "numeroConta");
+        return query;
+    }
+
+    public static Query consultaId(UUID id) {
+        return Query.query(Criteria.where("id").is(id.toString()));
+    }
+
+    /**
+     * Desativação de uma chave sem condição de estado: o $min mantém a data de
+     * inativação já gravada, então sobre uma chave inativa a escrita não altera
+     * nada. Chaves ativas não têm o campo (valores nulos não são gravados).
+     */
+    public static Update desativacaoChave(LocalDateTime dataHoraInativacao) {
+        return new Update()
+                .set("inativa", true)
+                .min("dataHoraInativacao", dataHoraInativacao);
+    }
+
+    public static Update desativacao(LocalDateTime dataHoraInativacao, String loteDesativacao) {
+        return new Update()
+                .set("inativa", true)
+                .set("dataHoraInativacao", dataHoraInativacao)
+                .set("loteDesativacao", loteDesativacao);
+    }
+
+    /**
+     * Retira o identificador da chamada depois da releitura; chaves inativas não o carregam.
+     */
+    public static Update fimLote() {
+        return new Update().unset("loteDesativacao");
+    }
+
+    private static Criteria selecaoLote(Criteria criteria, PixDesativarLoteDto selecao) {
+        if (selecao.getIds() != null && !selecao.getIds().isEmpty()) {
+            return criteria.and("id").in(selecao.getIds().stream().map(UUID::toString).toList());
+        }
+        return criteria.and("numeroAgencia").is(selecao.getNumeroAgencia())
+                .and("numeroConta").is(selecao.getNumeroConta());
+    }
+
+    /**
+     * Exportação completa: sem ordenação nem limite, lida do cursor do Mongo em
+     * lotes fixos para manter a memória constante.
+     */
+    public static Query consultaExportacao(PixFiltroDto filtro) {
+        return consulta(filtro).cursorBatchSize(LOTE_CURSOR_EXPORTACAO);
+    }
+
+    public static Query consultaValoresChaveAtivos() {
+        Query query = Query.query(Criteria.where("inativa").is(false))
+                .cursorBatchSize(LOTE_CURSOR_EXPORTACAO);
+        query.fields().include("valorChave");
+        return query;
+    }
+
+    /**
+     * Ids das chaves inativas desde antes de {@code inativadasAntesDe}, no
+     * máximo {@code limite}; percorre o índice parcial de inativação.
+     */
+    public static Query consultaArquivamento(LocalDateTime inativadasAntesDe, int limite) {
+        Query query = Query.query(Criteria.where("inativa").is(true).and("dataHoraInativacao").lt(inativadasAntesDe))
+                .limit(limite);
+        query.fields().include("id");
+        return query;
+    }
+
+    /**
+     * Copia as chaves para o arquivo no próprio servidor. Chaves já arquivadas
+     * por uma execução interrompida são mantidas, o que torna a cópia repetível.
+     */
+    public static List<Document> copiaArquivo(List<?> ids) {
+        return List.of(
+                new Document("$match", new Document("_id", new Document("$in", ids))),
+                new Document("$merge", new Document("into", PixModelo.COLECAO_INATIVAS)
+                        .append("on", "_id")
+                        .append("whenMatched", "keepExisting")
+                        .append("whenNotMatched", "insert")));
+    }
+
+    public static Query consultaRemocaoArquivadas(List<String> ids) {
+        return Query.query(Criteria.where("id").in(ids).and("inativa").is(true));
+    }
+
+    public static Query consultaContadores(Collection<ContaPix> contas) {
+        return Query.query(Criteria.where("id").in(contas.stream().map(ContadorConta::idDe).toList()));
+    }
+
+    /**
+     * Contador da conta apenas enquanto ainda couberem {@code quantidade} chaves
+     * no limite; usada no upsert, um contador cheio não casa e o insert
+     * resultante colide com o _id existente.
+     */
+    public static Query consultaReserva(ContaPix conta, int quantidade, int limite) {
+        return Query.query(Criteria.where("id").is(ContadorConta.idDe(conta)).and("quantidade").lte(limite - quantidade));
+    }
+
+    public static Update incrementoReserva(ContaPix conta, int quantidade) {
+        return new Update()
+                .inc("quantidade", quantidade)
+                .setOnInsert("numeroAgencia", conta.numeroAgencia())
+                .setOnInsert("numeroConta", conta.numeroConta());
+    }
+
+    public static Query consultaLiberacao(ContaPix conta, int quantidade) {
+        return Query.query(Criteria.where("id").is(ContadorConta.idDe(conta)).and("quantidade").gte(quantidade));
+    }
+
+    public static Update decrementoReserva(int quantidade) {
+        return new Update().inc("quantidade", -quantidade);
+    }
+}
@@ -0,0 +1,372 @@
+package com.itau.pix.repository;
+
+import com.itau.pix.model.PixModelo;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Modelo de leitura local: uma cópia de pix_keys em um {@link PixRepositoryMemoria},
+ * carregada na subida e mantida pelo change stream da coleção, para /buscar e a
+ * resolução por valorChave não irem ao MongoDB. Exige replica set, como todo
+ * change stream; um replica set de um nó basta.
+ *
+ * <p>A defasagem é o tempo desde o último instante em que a cópia refletia
+ * tudo o que o servidor tinha: o horário do último evento aplicado ou o
+ * recebimento de um lote vazio. Acima de {@code pix.leitura.local.defasagem-maxima}
+ * (fluxo interrompido, atraso ao retomar) {@link #atualizado} devolve
+ * {@code null} e as consultas voltam ao MongoDB.</p>
+ *
+ * <p>A cópia e o resume token são salvos em NDJSON a cada
+ * {@code pix.leitura.local.persistencia} e no desligamento, para o reinício
+ * retomar o fluxo do token em vez de reler a coleção. O token é lido antes de
+ * percorrer a cópia; como cada evento grava o documento inteiro ou remove pelo
+ * id, reaplicar os eventos posteriores a ele sobre o arquivo chega ao mesmo
+ * estado. Se o histórico do oplog não alcançar mais o token, a coleção é relida.</p>
+ */
+@Slf4j
+@Component
+public class PixLeituraLocal implements SmartLifecycle {
+
+    // Código do MongoDB para resume token fora do oplog.
+    private static final int HISTORICO_PERDIDO = 286;
+    private static final Duration ESPERA_EVENTOS = Duration.ofSeconds(1);
+    private static final Duration ESPERA_RECONEXAO = Duration.ofSeconds(5);
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean habilitado;
+    private final boolean armazenamentoCompacto;
+    private final long defasagemMaxima;
+    private final Path arquivo;
+    private final Timer atraso;
+    private final ReentrantLock gravacao = new ReentrantLock();
+
+    private volatile PixRepositoryMemoria modelo;
+    private volatile BsonDocument token;
+    private volatile long atualizadoAte;
+    private volatile boolean ativo;
+    private Thread leitor;
+
+    @Autowired
+    public PixLeituraLocal(
+            @Nullable MongoTemplate mongoTemplate,
+            MeterRegistry registry,
+            @Value("${pix.leitura.local.habilitado:false}") boolean habilitado,
+            @Value("${pix.armazenamento.compacto:false}") boolean armazenamentoCompacto,
+            @Value("${pix.leitura.local.defasagem-maxima:PT5S}") Duration defasagemMaxima,
+            @Value("${pix.leitura.local.arquivo:pix_keys.ndjson}") String arquivo) {
+        this.mongoTemplate = mongoTemplate;
+        this.habilitado = habilitado;
+        this.armazenamentoCompacto = armazenamentoCompacto;
+        this.defasagemMaxima = defasagemMaxima.toMillis();
+        this.arquivo = Path.of(arquivo);
+
+        this.atraso = Timer.builder("pix.leitura.local.atraso")
+                .description("Tempo entre a gravação no MongoDB e a aplicação no modelo de leitura local")
+                .register(registry);
+        Gauge.builder("pix.leitura.local.defasagem", this, PixLeituraLocal::defasagemSegundos)
+                .description("Segundos desde o último instante em que o modelo de leitura local estava em dia")
+                .register(registry);
+        Gauge.builder("pix.leitura.local.chaves", this, leitura -> leitura.modelo == null ? 0 : leitura.modelo.count())
+                .description("Chaves no modelo de leitura local")
+                .register(registry);
+    }
+
+    /**
+     * O modelo local, se estiver dentro da defasagem máxima; senão {@code null}
+     * e a consulta deve ir ao MongoDB. Não tem chaves arquivadas nem contadores.
+     */
+    @Nullable
+    public PixRepository atualizado() {
+        PixRepositoryMemoria atual = modelo;
+        if (atual == null || System.currentTimeMillis() - atualizadoAte > defasagemMaxima) {
+            return null;
+        }
+        return atual;
+    }
+
+    private double defasagemSegundos() {
+        return modelo == null ? Double.NaN : (System.currentTimeMillis() - atualizadoAte) / 1000.0;
+    }
+
+    // Ciclo de vida
+
+    @Override
+    public void start() {
+        if (!habilitado) {
+            return;
+        }
+        if (mongoTemplate == null) {
+            throw new IllegalStateException("pix.leitura.local.habilitado exige o MongoDB e não se combina com o perfil memoria.");
+        }
+        ativo = true;
+        leitor = new Thread(this::acompanhar, "pix-leitura-local");
+        leitor.setDaemon(true);
+        leitor.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!ativo) {
+            return;
+        }
+        ativo = false;
+        try {
+            leitor.join(ESPERA_RECONEXAO.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        persistir();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return ativo;
+    }
+
+    private void acompanhar() {
+        while (ativo) {
+            try {
+                consumir();
+            } catch (MongoException e) {
+                if (e.getCode() == HISTORICO_PERDIDO) {
+                    log.warn("Resume token do modelo de leitura local fora do oplog; relendo pix_keys.");
+                    descartarModelo();
+                } else {
+                    log.warn("Change stream de pix_keys interrompido; retomando em {}.", ESPERA_RECONEXAO, e);
+                }
+                esperar(ESPERA_RECONEXAO);
+            } catch (RuntimeException e) {
+                log.error("Falha no modelo de leitura local; recarregando em {}.", ESPERA_RECONEXAO, e);
+                descartarModelo();
+                esperar(ESPERA_RECONEXAO);
+            }
+        }
+    }
+
+    private void consumir() {
+        if (modelo == null && Files.exists(arquivo)) {
+            carregar();
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = abrirFluxo()) {
+            while (ativo) {
+                ChangeStreamDocument<Document> evento = cursor.tryNext();
+                if (evento == null) {
+                    // Lote vazio: tudo o que o servidor tinha até aqui já foi aplicado.
+                    token = cursor.getResumeToken();
+                    atualizadoAte = System.currentTimeMillis();
+                    continue;
+                }
+                if (!aplicar(evento)) {
+                    return;
+                }
+                token = evento.getResumeToken();
+                long instante = instante(evento);
+                atualizadoAte = instante;
+                atraso.record(Math.max(0, System.currentTimeMillis() - instante), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Retoma do token, se houver cópia; senão abre o fluxo, relê a coleção e
+     * devolve o fluxo aberto antes da leitura, para nenhuma alteração feita
+     * durante ela se perder.
+     */
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> abrirFluxo() {
+        if (modelo != null && token != null) {
+            return fluxo().resumeAfter(token).cursor();
+        }
+
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = fluxo().cursor();
+        try {
+            BsonDocument inicio = cursor.getResumeToken();
+            if (inicio == null) {
+                throw new IllegalStateException("O MongoDB não devolveu resume token ao abrir o change stream.");
+            }
+
+            long tempo = System.nanoTime();
+            PixRepositoryMemoria novo = new PixRepositoryMemoria();
+            try (Stream<PixModelo> chaves = mongoTemplate.stream(new Query(), PixModelo.class)) {
+                chaves.forEach(novo::aplicar);
+            }
+            // Modelo antes do token: quem lê o token novo já vê o modelo novo.
+            modelo = novo;
+            token = inicio;
+            log.info("Modelo de leitura local carregado com {} chaves de pix_keys em {} ms.",
+                    novo.count(), (System.nanoTime() - tempo) / 1_000_000);
+            return cursor;
+        } catch (RuntimeException e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    private ChangeStreamIterable<Document> fluxo() {
+        return mongoTemplate.getCollection(PixModelo.COLECAO)
+                .watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(ESPERA_EVENTOS.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * {@code false} quando o fluxo terminou (coleção removida ou renomeada) e a
+     * coleção precisa ser relida.
+     */
+    private boolean aplicar(ChangeStreamDocument<Document> evento) {
+        switch (evento.getOperationType()) {
+            case INSERT, UPDATE, REPLACE -> {
+                // Sem documento, a chave foi removida antes da leitura; o evento de remoção vem a seguir.
+                if (evento.getFullDocument() != null) {
+                    modelo.aplicar(mongoTemplate.getConverter().read(PixModelo.class, evento.getFullDocument()));
+                }
+            }
+            case DELETE -> modelo.descartar(id(evento.getDocumentKey().get("_id")));
+            case DROP, RENAME, DROP_DATABASE, INVALIDATE -> {
+                log.warn("Change stream de pix_keys encerrado por {}; relendo a coleção.", evento.getOperationType());
+                descartarModelo();
+                return false;
+            }
+            default -> {
+            }
+        }
+        return true;
+    }
+
+    // Id em texto ou, no armazenamento compacto, UUID em binário.
+    private static String id(BsonValue id) {
+        return id.isBinary() ? id.asBinary().asUuid().toString() : id.asString().getValue();
+    }
+
+    private static long instante(ChangeStreamDocument<Document> evento) {
+        if (evento.getWallTime() != null) {
+            return evento.getWallTime().getValue();
+        }
+        if (evento.getClusterTime() != null) {
+            return evento.getClusterTime().getTime() * 1000L;
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Descarta a cópia e o arquivo, que não podem mais ser retomados.
+     */
+    private void descartarModelo() {
+        modelo = null;
+        token = null;
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.warn("Não foi possível remover {}.", arquivo, e);
+        }
+    }
+
+    private static void esperar(Duration espera) {
+        try {
+            Thread.sleep(espera.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Arquivo
+
+    @Scheduled(initialDelayString = "${pix.leitura.local.persistencia:PT5M}", fixedDelayString = "${pix.leitura.local.persistencia:PT5M}")
+    public void persistir() {
+        // Token antes do modelo: eventos aplicados durante a gravação são reaplicados ao retomar.
+        BsonDocument desde = token;
+        PixRepositoryMemoria atual = modelo;
+        if (!habilitado || desde == null || atual == null) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        gravacao.lock();
+        try {
+            try (BufferedWriter saida = Files.newBufferedWriter(temporario, StandardCharsets.UTF_8);
+                 Stream<PixModelo> chaves = atual.armazenadas()) {
+                saida.write(new Document("token", desde).append("compacto", armazenamentoCompacto).toJson(JSON));
+                saida.newLine();
+                Iterator<PixModelo> iterador = chaves.iterator();
+                while (iterador.hasNext()) {
+                    Document documento = new Document();
+                    mongoTemplate.getConverter().write(iterador.next(), documento);
+                    saida.write(documento.toJson(JSON));
+                    saida.newLine();
+                }
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao salvar o modelo de leitura local em " + arquivo, e);
+        } finally {
+            gravacao.unlock();
+        }
+
+        log.info("Modelo de leitura local salvo em {} com {} chaves em {} ms.",
+                arquivo, atual.count(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private void carregar() {
+        PixRepositoryMemoria novo = new PixRepositoryMemoria();
+        BsonDocument desde;
+        try (BufferedReader entrada = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            String linha = entrada.readLine();
+            if (linha == null) {
+                return;
+            }
+            BsonDocument cabecalho = BsonDocument.parse(linha);
+            if (cabecalho.getBoolean("compacto").getValue() != armazenamentoCompacto) {
+                log.warn("{} foi salvo com outro formato de armazenamento; relendo pix_keys.", arquivo);
+                return;
+            }
+            desde = cabecalho.getDocument("token");
+
+            while ((linha = entrada.readLine()) != null) {
+                novo.aplicar(mongoTemplate.getConverter().read(PixModelo.class, Document.parse(linha)));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Não foi possível carregar {}; relendo pix_keys.", arquivo, e);
+            return;
+        }
+
+        modelo = novo;
+        token = desde;
+        log.info("Modelo de leitura local carregado de {} com {} chaves.", arquivo, novo.count());
+    }
+}
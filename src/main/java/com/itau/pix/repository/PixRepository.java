@@ -1,34 +1,34 @@
 package com.itau.pix.repository;
 
 import com.itau.pix.model.PixModelo;
-import com.itau.pix.model.enums.TipoChave;
-import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.ListPagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Só o CRUD, a paginação e o insert do MongoRepository, sem as consultas por
+ * exemplo: é o que o serviço usa e o que {@link PixRepositoryMemoria} implementa.
+ */
 @Repository
 @EnableMongoRepositories(
         basePackages = "com.itau.pix.repository.mongo",
         mongoTemplateRef = "mongoTemplate"
 )
-public interface PixRepository extends MongoRepository<PixModelo, UUID> {
-    boolean existsByValorChave(String valorChave);
-    boolean existsByTipoChaveAndNumeroConta(String tipoChave, String numeroConta);
-    boolean existsByValorChaveAndNomeCorrentista(String valorChave, String conta);
+public interface PixRepository extends ListCrudRepository<PixModelo, UUID>, ListPagingAndSortingRepository<PixModelo, UUID>,
+        PixRepositoryCustom {
+    /**
+     * Insert do MongoRepository, atendido pelo SimpleMongoRepository.
+     */
+    <S extends PixModelo> S insert(S chave);
+
     long countByNumeroAgenciaAndNumeroConta(String numeroAgencia, String numeroConta);
-    List<PixModelo> findByTipoChaveAndNumeroAgenciaAndNumeroConta(TipoChave tipoChave, String numeroAgencia, String numeroConta);
-    List<PixModelo> findByTipoChaveAndNumeroAgenciaAndNumeroContaAndNomeCorrentistaAndDataHoraInclusao(
-            TipoChave tipoChave, String numeroAgencia, String numeroConta, String nomeCorrentista, LocalDateTime dataHoraInclusao);
-    List<PixModelo> findByTipoChaveAndNumeroAgenciaAndNumeroContaAndNomeCorrentistaAndDataHoraInativacao(
-            TipoChave tipoChave, String numeroAgencia, String numeroConta, String nomeCorrentista, LocalDateTime dataHoraInativacao);
-    List<PixModelo> findByTipoChave(TipoChave tipoChave);
-    List<PixModelo> findByNumeroAgenciaAndNumeroConta(String numeroAgencia, String numeroConta);
-    List<PixModelo> findByNomeCorrentista(String nomeCorrentista);
-    List<PixModelo> findByDataHoraInclusao(LocalDateTime dataHoraInclusao);
-    List<PixModelo> findByDataHoraInativacao(LocalDateTime dataHoraInativacao);
+
+    boolean existsByValorChave(String valorChave);
+
+    Optional<PixModelo> findByValorChaveAndInativaFalse(String valorChave);
 
 }
@@ -0,0 +1,99 @@
+package com.itau.pix.repository;
+
+import com.itau.pix.model.ContaPix;
+import com.itau.pix.model.CursorPaginacao;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixProjecaoDto;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface PixRepositoryCustom {
+    List<PixModelo> buscarPorFiltros(PixFiltroDto filtro, CursorPaginacao cursor, int limite);
+
+    List<PixProjecaoDto> buscarCamposPorFiltros(PixFiltroDto filtro, Set<String> campos, CursorPaginacao cursor, int limite);
+
+    Stream<PixModelo> exportarPorFiltros(PixFiltroDto filtro);
+
+    /**
+     * Quantidade atual de chaves ativas por conta, lida de pix_account_counters.
+     * Contas sem contador ficam fora do mapa.
+     */
+    Map<ContaPix, Long> contarChavesPorConta(Collection<ContaPix> contas);
+
+    /**
+     * Soma {@code quantidade} ao contador da conta com um único $inc
+     * condicional, desde que o total não passe de {@code limite}.
+     */
+    boolean reservarChaves(ContaPix conta, int quantidade, int limite);
+
+    /**
+     * Reserva de várias contas em uma escrita bulk; devolve as contas recusadas por limite.
+     */
+    Set<ContaPix> reservarChaves(Map<ContaPix, Integer> quantidades, Map<ContaPix, Integer> limites);
+
+    void liberarChaves(Map<ContaPix, Integer> quantidades);
+
+    /**
+     * Insere as chaves em uma única escrita bulk não ordenada. Devolve, pela
+     * posição na lista, as que violaram algum índice único; as demais foram gravadas.
+     */
+    Map<Integer, String> inserirLote(List<PixModelo> chaves);
+
+    /**
+     * Aplica a alteração em um único findAndModify condicionado à chave ativa,
+     * sem troca de conta, e devolve a chave já alterada; {@code null} se a
+     * chave não casar com as condições.
+     */
+    PixModelo alterar(UUID id, PixAlterarRequisicaoDto requisicao);
+
+    /**
+     * Alteração com troca de conta, condicionada à versão de {@code chaveLida};
+     * {@code null} se a chave mudou desde a leitura.
+     */
+    PixModelo alterarConta(PixModelo chaveLida, PixAlterarRequisicaoDto requisicao);
+
+    /**
+     * Desativa a chave em um único findAndModify e devolve o estado anterior:
+     * {@code null} se o id não existe, {@code inativa} se ela já estava desativada.
+     */
+    PixModelo desativar(UUID id, LocalDateTime dataHoraInativacao);
+
+    /**
+     * Desativa as chaves selecionadas com um único updateMany restrito às
+     * ativas, marcando-as com {@code loteDesativacao}, e devolve quantas foram alteradas.
+     */
+    long desativarEmLote(PixDesativarLoteDto selecao, LocalDateTime dataHoraInativacao, String loteDesativacao);
+
+    /**
+     * Chaves da seleção desativadas pela chamada que gravou {@code loteDesativacao},
+     * apenas com id, valorChave, agência e conta.
+     */
+    List<PixModelo> buscarDesativadas(PixDesativarLoteDto selecao, String loteDesativacao);
+
+    /**
+     * Remove {@code loteDesativacao} das chaves da seleção marcadas com ele,
+     * depois de {@link #buscarDesativadas}.
+     */
+    void encerrarLote(PixDesativarLoteDto selecao, String loteDesativacao);
+
+    /**
+     * Move para {@code pix_keys_inativas} até {@code limite} chaves inativas
+     * desde antes de {@code inativadasAntesDe}: copia e só então remove de
+     * pix_keys. Devolve quantas foram selecionadas; menos que o limite indica
+     * que não há mais chaves a arquivar.
+     */
+    int arquivarInativas(LocalDateTime inativadasAntesDe, int limite);
+
+    long contarEstimado();
+
+    Stream<String> valoresChaveAtivos();
+}
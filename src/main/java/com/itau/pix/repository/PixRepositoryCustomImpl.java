@@ -0,0 +1,212 @@
+package com.itau.pix.repository;
+
+import com.itau.pix.model.ContaPix;
+import com.itau.pix.model.ContadorConta;
+import com.itau.pix.model.CursorPaginacao;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixProjecaoDto;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class PixRepositoryCustomImpl implements PixRepositoryCustom {
+
+    private static final int CODIGO_CHAVE_DUPLICADA = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public PixRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<PixModelo> buscarPorFiltros(PixFiltroDto filtro, CursorPaginacao cursor, int limite) {
+        return mongoTemplate.find(PixConsultaBuilder.consultaPaginada(filtro, cursor, limite), PixModelo.class,
+                PixConsultaBuilder.colecao(filtro));
+    }
+
+    @Override
+    public List<PixProjecaoDto> buscarCamposPorFiltros(PixFiltroDto filtro, Set<String> campos, CursorPaginacao cursor, int limite) {
+        return mongoTemplate.query(PixModelo.class)
+                .inCollection(PixConsultaBuilder.colecao(filtro))
+                .as(PixProjecaoDto.class)
+                .matching(PixConsultaBuilder.consultaPaginadaProjetada(filtro, campos, cursor, limite))
+                .all();
+    }
+
+    @Override
+    public Stream<PixModelo> exportarPorFiltros(PixFiltroDto filtro) {
+        return mongoTemplate.stream(PixConsultaBuilder.consultaExportacao(filtro), PixModelo.class,
+                PixConsultaBuilder.colecao(filtro));
+    }
+
+    @Override
+    public Map<ContaPix, Long> contarChavesPorConta(Collection<ContaPix> contas) {
+        Map<ContaPix, Long> quantidades = new HashMap<>();
+        for (ContadorConta contador : mongoTemplate.find(PixConsultaBuilder.consultaContadores(contas), ContadorConta.class)) {
+            quantidades.put(new ContaPix(contador.getNumeroAgencia(), contador.getNumeroConta()), contador.getQuantidade());
+        }
+        return quantidades;
+    }
+
+    @Override
+    public boolean reservarChaves(ContaPix conta, int quantidade, int limite) {
+        // Duas tentativas: dois primeiros cadastros simultâneos na mesma conta
+        // disputam o upsert e o perdedor recebe chave duplicada sem o limite ter sido atingido.
+        for (int tentativa = 0; tentativa < 2; tentativa++) {
+            try {
+                mongoTemplate.upsert(PixConsultaBuilder.consultaReserva(conta, quantidade, limite), PixConsultaBuilder.incrementoReserva(conta, quantidade), ContadorConta.class);
+                return true;
+            } catch (DuplicateKeyException e) {
+                ContadorConta contador = mongoTemplate.findById(ContadorConta.idDe(conta), ContadorConta.class);
+                if (contador != null && contador.getQuantidade() + quantidade > limite) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<ContaPix> reservarChaves(Map<ContaPix, Integer> quantidades, Map<ContaPix, Integer> limites) {
+        List<ContaPix> contas = new ArrayList<>(quantidades.keySet());
+        BulkOperations reservas = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ContadorConta.class);
+        for (ContaPix conta : contas) {
+            reservas.upsert(PixConsultaBuilder.consultaReserva(conta, quantidades.get(conta), limites.get(conta)),
+                    PixConsultaBuilder.incrementoReserva(conta, quantidades.get(conta)));
+        }
+
+        try {
+            reservas.execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            Set<ContaPix> recusadas = new HashSet<>();
+            for (BulkWriteError erro : e.getErrors()) {
+                if (erro.getCode() != CODIGO_CHAVE_DUPLICADA) {
+                    throw e;
+                }
+                ContaPix conta = contas.get(erro.getIndex());
+                if (!reservarChaves(conta, quantidades.get(conta), limites.get(conta))) {
+                    recusadas.add(conta);
+                }
+            }
+            return recusadas;
+        }
+    }
+
+    @Override
+    public void liberarChaves(Map<ContaPix, Integer> quantidades) {
+        BulkOperations liberacoes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ContadorConta.class);
+        quantidades.forEach((conta, quantidade) -> liberacoes.updateOne(
+                PixConsultaBuilder.consultaLiberacao(conta, quantidade),
+                PixConsultaBuilder.decrementoReserva(quantidade)));
+        liberacoes.execute();
+    }
+
+    @Override
+    public Map<Integer, String> inserirLote(List<PixModelo> chaves) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PixModelo.class)
+                    .insert(chaves)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> duplicadas = new HashMap<>();
+            for (BulkWriteError erro : e.getErrors()) {
+                if (erro.getCode() != CODIGO_CHAVE_DUPLICADA) {
+                    throw e;
+                }
+                duplicadas.put(erro.getIndex(), erro.getMessage());
+            }
+            return duplicadas;
+        }
+    }
+
+    @Override
+    public PixModelo alterar(UUID id, PixAlterarRequisicaoDto requisicao) {
+        return mongoTemplate.findAndModify(PixConsultaBuilder.consultaAlteracao(id, requisicao),
+                PixConsultaBuilder.alteracao(requisicao), FindAndModifyOptions.options().returnNew(true), PixModelo.class);
+    }
+
+    @Override
+    public PixModelo alterarConta(PixModelo chaveLida, PixAlterarRequisicaoDto requisicao) {
+        return mongoTemplate.findAndModify(PixConsultaBuilder.consultaAlteracaoConta(chaveLida),
+                PixConsultaBuilder.alteracao(requisicao), FindAndModifyOptions.options().returnNew(true), PixModelo.class);
+    }
+
+    @Override
+    public PixModelo desativar(UUID id, LocalDateTime dataHoraInativacao) {
+        return mongoTemplate.findAndModify(PixConsultaBuilder.consultaId(id),
+                PixConsultaBuilder.desativacaoChave(dataHoraInativacao), PixModelo.class);
+    }
+
+    @Override
+    public long desativarEmLote(PixDesativarLoteDto selecao, LocalDateTime dataHoraInativacao, String loteDesativacao) {
+        return mongoTemplate.updateMulti(Query.query(PixConsultaBuilder.criteriosDesativacao(selecao)),
+                        PixConsultaBuilder.desativacao(dataHoraInativacao, loteDesativacao), PixModelo.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public List<PixModelo> buscarDesativadas(PixDesativarLoteDto selecao, String loteDesativacao) {
+        return mongoTemplate.find(PixConsultaBuilder.consultaDesativadas(selecao, loteDesativacao), PixModelo.class);
+    }
+
+    @Override
+    public void encerrarLote(PixDesativarLoteDto selecao, String loteDesativacao) {
+        mongoTemplate.updateMulti(Query.query(PixConsultaBuilder.criteriosDesativadas(selecao, loteDesativacao)),
+                PixConsultaBuilder.fimLote(), PixModelo.class);
+    }
+
+    @Override
+    public int arquivarInativas(LocalDateTime inativadasAntesDe, int limite) {
+        List<String> ids = mongoTemplate.find(PixConsultaBuilder.consultaArquivamento(inativadasAntesDe, limite), PixModelo.class)
+                .stream()
+                .map(PixModelo::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // O pipeline vai cru ao servidor: os ids seguem na forma gravada (binária no armazenamento compacto).
+        List<Object> idsGravados = ids.stream()
+                .map(id -> mongoTemplate.getConverter().convertId(id, String.class))
+                .toList();
+        mongoTemplate.getCollection(PixModelo.COLECAO)
+                .aggregate(PixConsultaBuilder.copiaArquivo(idsGravados))
+                .toCollection();
+        mongoTemplate.remove(PixConsultaBuilder.consultaRemocaoArquivadas(ids), PixModelo.class);
+        return ids.size();
+    }
+
+    @Override
+    public long contarEstimado() {
+        return mongoTemplate.estimatedCount(PixModelo.class);
+    }
+
+    @Override
+    public Stream<String> valoresChaveAtivos() {
+        return mongoTemplate.stream(PixConsultaBuilder.consultaValoresChaveAtivos(), PixModelo.class)
+                .map(PixModelo::getValorChave);
+    }
+}
@@ -0,0 +1,790 @@
+package com.itau.pix.repository;
+
+import com.itau.pix.config.MongoConfig;
+import com.itau.pix.model.ContaPix;
+import com.itau.pix.model.CursorPaginacao;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixProjecaoDto;
+import com.itau.pix.model.enums.TipoCorrentista;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * {@link PixRepository} sem MongoDB, ativo no perfil {@code memoria}, para nós
+ * de borda e de teste, como base dos benchmarks e como réplica do
+ * {@link PixLeituraLocal}. Reproduz o que o MongoDB
+ * garante ao serviço: os índices únicos de valorChave e de tipoChave+numeroConta
+ * (pessoa física), os contadores por conta, a alteração e a desativação
+ * condicionais e o arquivo de chaves inativas.
+ *
+ * <p>Índices em hash por id e por valorChave, ids por conta e um índice
+ * ordenado por dataHoraInclusao e id, que atende a paginação por cursor.
+ * Leituras não travam: uma chave guardada nunca é alterada, cada escrita grava
+ * uma cópia nova, e quem chama sempre recebe cópias. Escritas na mesma chave
+ * são serializadas por uma entre {@value #LISTRAS} travas, escolhida pelo id;
+ * a unicidade entre chaves diferentes é garantida reservando as entradas dos
+ * índices únicos com putIfAbsent.</p>
+ *
+ * <p>{@code findAll} por página ou ordenado também usa o índice ordenado
+ * quando a ordem é por dataHoraInclusao; por outros campos, ordena as chaves.</p>
+ */
+@Repository
+@Profile("memoria")
+public class PixRepositoryMemoria implements PixRepository {
+
+    static final int LISTRAS = 64;
+
+    private static final Comparator<Posicao> ORDENACAO_PAGINA = Comparator
+            .comparing(Posicao::dataHoraInclusao, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Posicao::id);
+
+    @SuppressWarnings("rawtypes")
+    private static final Map<String, Function<PixModelo, Comparable>> CAMPOS_ORDENACAO = Map.ofEntries(
+            Map.entry("id", PixModelo::getId),
+            Map.entry("tipoChave", PixModelo::getTipoChave),
+            Map.entry("valorChave", PixModelo::getValorChave),
+            Map.entry("tipoConta", PixModelo::getTipoConta),
+            Map.entry("numeroAgencia", PixModelo::getNumeroAgencia),
+            Map.entry("numeroConta", PixModelo::getNumeroConta),
+            Map.entry("nomeCorrentista", PixModelo::getNomeCorrentista),
+            Map.entry("sobrenomeCorrentista", PixModelo::getSobrenomeCorrentista),
+            Map.entry("dataHoraInclusao", PixModelo::getDataHoraInclusao),
+            Map.entry("dataHoraInativacao", PixModelo::getDataHoraInativacao),
+            Map.entry("inativa", PixModelo::isInativa),
+            Map.entry("tipoCorrentista", PixModelo::getTipoCorrentista),
+            Map.entry("versao", PixModelo::getVersao));
+
+    private final Map<String, PixModelo> chaves = new ConcurrentHashMap<>();
+    private final Map<String, String> idsPorValor = new ConcurrentHashMap<>();
+    private final Map<String, String> idsPorTipoConta = new ConcurrentHashMap<>();
+    private final Map<ContaPix, Set<String>> idsPorConta = new ConcurrentHashMap<>();
+    private final NavigableSet<Posicao> porInclusao = new ConcurrentSkipListSet<>(ORDENACAO_PAGINA);
+    private final NavigableMap<Posicao, PixModelo> arquivo = new ConcurrentSkipListMap<>(ORDENACAO_PAGINA);
+    private final Map<ContaPix, Long> contadores = new ConcurrentHashMap<>();
+    private final ReentrantLock[] travas = new ReentrantLock[LISTRAS];
+
+    public PixRepositoryMemoria() {
+        for (int i = 0; i < LISTRAS; i++) {
+            travas[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Posição de uma chave no índice ordenado, na mesma ordem da paginação.
+     */
+    private record Posicao(LocalDateTime dataHoraInclusao, String id) {
+        static Posicao de(PixModelo chave) {
+            return new Posicao(chave.getDataHoraInclusao(), chave.getId());
+        }
+    }
+
+    // Gravação e índices
+
+    @Override
+    public <S extends PixModelo> S insert(S chave) {
+        if (chave.getVersao() == null) {
+            chave.setVersao(0L);
+        }
+        PixModelo nova = chave.copia();
+        travado(nova.getId(), () -> {
+            if (chaves.containsKey(nova.getId())) {
+                throw duplicada("_id_");
+            }
+            incluir(nova);
+            return null;
+        });
+        return chave;
+    }
+
+    /**
+     * Como o save do Spring Data com {@code @Version}: sem versão é um insert;
+     * com versão, só substitui a chave que ainda está nela.
+     */
+    @Override
+    public <S extends PixModelo> S save(S chave) {
+        if (chave.getVersao() == null) {
+            return insert(chave);
+        }
+        PixModelo nova = chave.copia();
+        nova.setVersao(chave.getVersao() + 1);
+        travado(nova.getId(), () -> {
+            PixModelo atual = chaves.get(nova.getId());
+            if (atual == null || !chave.getVersao().equals(atual.getVersao())) {
+                throw new OptimisticLockingFailureException("Versão " + chave.getVersao() + " da chave " + chave.getId() + " desatualizada.");
+            }
+            substituir(atual, nova);
+            return null;
+        });
+        chave.setVersao(nova.getVersao());
+        return chave;
+    }
+
+    @Override
+    public <S extends PixModelo> List<S> saveAll(Iterable<S> lote) {
+        List<S> gravadas = new ArrayList<>();
+        lote.forEach(chave -> gravadas.add(save(chave)));
+        return gravadas;
+    }
+
+    @Override
+    public Map<Integer, String> inserirLote(List<PixModelo> lote) {
+        Map<Integer, String> duplicadas = new HashMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            try {
+                insert(lote.get(i));
+            } catch (DuplicateKeyException e) {
+                duplicadas.put(i, e.getMessage());
+            }
+        }
+        return duplicadas;
+    }
+
+    /**
+     * Grava uma chave nova em pix_keys e nos índices. Chamado com a trava do id.
+     */
+    private void incluir(PixModelo nova) {
+        reservarUnicos(nova, null);
+        chaves.put(nova.getId(), nova);
+        indexarConta(nova);
+        porInclusao.add(Posicao.de(nova));
+    }
+
+    private <T> T travado(String id, Supplier<T> escrita) {
+        ReentrantLock trava = travas[Math.floorMod(id.hashCode(), LISTRAS)];
+        trava.lock();
+        try {
+            return escrita.get();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Reserva as entradas dos índices únicos que {@code nova} ocupa e
+     * {@code atual} ainda não; em caso de colisão desfaz o que reservou.
+     */
+    private void reservarUnicos(PixModelo nova, PixModelo atual) {
+        String valor = nova.getValorChave();
+        boolean valorNovo = atual == null || !valor.equals(atual.getValorChave());
+        if (valorNovo && idsPorValor.putIfAbsent(valor, nova.getId()) != null) {
+            throw duplicada(MongoConfig.INDICE_VALOR_CHAVE);
+        }
+
+        String tipoConta = tipoConta(nova);
+        if (tipoConta != null && (atual == null || !tipoConta.equals(tipoConta(atual)))
+                && idsPorTipoConta.putIfAbsent(tipoConta, nova.getId()) != null) {
+            if (valorNovo) {
+                idsPorValor.remove(valor, nova.getId());
+            }
+            throw duplicada(MongoConfig.INDICE_TIPO_CHAVE_CONTA);
+        }
+    }
+
+    /**
+     * Troca {@code atual} por {@code nova}, de mesmo id, ajustando os índices.
+     * Chamado com a trava do id.
+     */
+    private void substituir(PixModelo atual, PixModelo nova) {
+        reservarUnicos(nova, atual);
+        if (!nova.getValorChave().equals(atual.getValorChave())) {
+            idsPorValor.remove(atual.getValorChave(), atual.getId());
+        }
+        String tipoContaAnterior = tipoConta(atual);
+        if (tipoContaAnterior != null && !tipoContaAnterior.equals(tipoConta(nova))) {
+            idsPorTipoConta.remove(tipoContaAnterior, atual.getId());
+        }
+
+        chaves.put(nova.getId(), nova);
+
+        if (!conta(nova).equals(conta(atual))) {
+            indexarConta(nova);
+            desindexarConta(atual);
+        }
+        if (!Objects.equals(nova.getDataHoraInclusao(), atual.getDataHoraInclusao())) {
+            porInclusao.add(Posicao.de(nova));
+            porInclusao.remove(Posicao.de(atual));
+        }
+    }
+
+    /**
+     * Retira a chave de pix_keys e de todos os índices. Chamado com a trava do id.
+     */
+    private PixModelo remover(String id) {
+        PixModelo atual = chaves.get(id);
+        if (atual == null) {
+            return null;
+        }
+        porInclusao.remove(Posicao.de(atual));
+        desindexarConta(atual);
+        chaves.remove(id);
+        idsPorValor.remove(atual.getValorChave(), id);
+        String tipoConta = tipoConta(atual);
+        if (tipoConta != null) {
+            idsPorTipoConta.remove(tipoConta, id);
+        }
+        return atual;
+    }
+
+    private void indexarConta(PixModelo chave) {
+        idsPorConta.compute(conta(chave), (conta, ids) -> {
+            Set<String> atualizados = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            atualizados.add(chave.getId());
+            return atualizados;
+        });
+    }
+
+    private void desindexarConta(PixModelo chave) {
+        idsPorConta.computeIfPresent(conta(chave), (conta, ids) -> {
+            ids.remove(chave.getId());
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Entrada do índice único parcial de tipo por conta, que só vale para pessoa física.
+     */
+    private static String tipoConta(PixModelo chave) {
+        return chave.getTipoCorrentista() == TipoCorrentista.FISICA
+                ? chave.getTipoChave() + "|" + chave.getNumeroConta()
+                : null;
+    }
+
+    private static ContaPix conta(PixModelo chave) {
+        return new ContaPix(chave.getNumeroAgencia(), chave.getNumeroConta());
+    }
+
+    /**
+     * Mesmo texto do erro do MongoDB, de onde o serviço tira o índice violado.
+     */
+    private static DuplicateKeyException duplicada(String indice) {
+        return new DuplicateKeyException("E11000 duplicate key error collection: pixdb." + PixModelo.COLECAO + " index: " + indice);
+    }
+
+    // Alteração e desativação
+
+    @Override
+    public PixModelo alterar(UUID id, PixAlterarRequisicaoDto requisicao) {
+        return alterarSe(id.toString(), requisicao, chave ->
+                (requisicao.getTipoChave() == null || requisicao.getTipoChave() == chave.getTipoChave())
+                        && (requisicao.getValorChave() == null || requisicao.getValorChave().equals(chave.getValorChave()))
+                        && (requisicao.getNumeroAgencia() == null || requisicao.getNumeroAgencia().equals(chave.getNumeroAgencia()))
+                        && (requisicao.getNumeroConta() == null || requisicao.getNumeroConta().equals(chave.getNumeroConta()))
+                        && (requisicao.getVersao() == null || requisicao.getVersao().equals(chave.getVersao())));
+    }
+
+    @Override
+    public PixModelo alterarConta(PixModelo chaveLida, PixAlterarRequisicaoDto requisicao) {
+        return alterarSe(chaveLida.getId(), requisicao, chave -> Objects.equals(chave.getVersao(), chaveLida.getVersao()));
+    }
+
+    /**
+     * Equivalente ao findAndModify condicional: aplica os campos informados e
+     * incrementa a versão se a chave estiver ativa e atender à condição.
+     */
+    private PixModelo alterarSe(String id, PixAlterarRequisicaoDto requisicao, Predicate<PixModelo> condicao) {
+        return travado(id, () -> {
+            PixModelo atual = chaves.get(id);
+            if (atual == null || atual.isInativa() || !condicao.test(atual)) {
+                return null;
+            }
+
+            PixModelo nova = atual.copia();
+            if (requisicao.getTipoConta() != null) {
+                nova.setTipoConta(requisicao.getTipoConta());
+            }
+            if (requisicao.getNumeroAgencia() != null) {
+                nova.setNumeroAgencia(requisicao.getNumeroAgencia());
+            }
+            if (requisicao.getNumeroConta() != null) {
+                nova.setNumeroConta(requisicao.getNumeroConta());
+            }
+            if (requisicao.getNomeCorrentista() != null) {
+                nova.setNomeCorrentista(requisicao.getNomeCorrentista());
+            }
+            if (requisicao.getSobrenomeCorrentista() != null) {
+                nova.setSobrenomeCorrentista(requisicao.getSobrenomeCorrentista());
+            }
+            nova.setVersao(atual.getVersao() == null ? 1L : atual.getVersao() + 1);
+
+            substituir(atual, nova);
+            return nova.copia();
+        });
+    }
+
+    @Override
+    public PixModelo desativar(UUID id, LocalDateTime dataHoraInativacao) {
+        return travado(id.toString(), () -> {
+            PixModelo atual = chaves.get(id.toString());
+            if (atual == null) {
+                return null;
+            }
+            if (!atual.isInativa()) {
+                chaves.put(atual.getId(), desativada(atual, dataHoraInativacao));
+            }
+            return atual.copia();
+        });
+    }
+
+    @Override
+    public long desativarEmLote(PixDesativarLoteDto selecao, LocalDateTime dataHoraInativacao, String loteDesativacao) {
+        long desativadas = 0;
+        for (String id : selecionados(selecao)) {
+            boolean desativada = travado(id, () -> {
+                PixModelo atual = chaves.get(id);
+                if (atual == null || atual.isInativa()) {
+                    return false;
+                }
+                PixModelo nova = desativada(atual, dataHoraInativacao);
+                nova.setLoteDesativacao(loteDesativacao);
+                chaves.put(id, nova);
+                return true;
+            });
+            if (desativada) {
+                desativadas++;
+            }
+        }
+        return desativadas;
+    }
+
+    @Override
+    public List<PixModelo> buscarDesativadas(PixDesativarLoteDto selecao, String loteDesativacao) {
+        return selecionados(selecao).stream()
+                .map(chaves::get)
+                .filter(chave -> chave != null && loteDesativacao.equals(chave.getLoteDesativacao()))
+                .map(PixModelo::copia)
+                .toList();
+    }
+
+    @Override
+    public void encerrarLote(PixDesativarLoteDto selecao, String loteDesativacao) {
+        for (String id : selecionados(selecao)) {
+            travado(id, () -> {
+                PixModelo atual = chaves.get(id);
+                if (atual != null && loteDesativacao.equals(atual.getLoteDesativacao())) {
+                    PixModelo nova = atual.copia();
+                    nova.setLoteDesativacao(null);
+                    chaves.put(id, nova);
+                }
+                return null;
+            });
+        }
+    }
+
+    private Collection<String> selecionados(PixDesativarLoteDto selecao) {
+        if (selecao.getIds() != null && !selecao.getIds().isEmpty()) {
+            return selecao.getIds().stream().map(UUID::toString).toList();
+        }
+        return List.copyOf(idsPorConta.getOrDefault(new ContaPix(selecao.getNumeroAgencia(), selecao.getNumeroConta()), Set.of()));
+    }
+
+    private static PixModelo desativada(PixModelo atual, LocalDateTime dataHoraInativacao) {
+        PixModelo nova = atual.copia();
+        nova.setInativa(true);
+        nova.setDataHoraInativacao(dataHoraInativacao);
+        return nova;
+    }
+
+    @Override
+    public int arquivarInativas(LocalDateTime inativadasAntesDe, int limite) {
+        List<String> ids = chaves.values().stream()
+                .filter(chave -> chave.isInativa() && chave.getDataHoraInativacao() != null
+                        && chave.getDataHoraInativacao().isBefore(inativadasAntesDe))
+                .limit(limite)
+                .map(PixModelo::getId)
+                .toList();
+        for (String id : ids) {
+            travado(id, () -> {
+                PixModelo atual = chaves.get(id);
+                if (atual != null && atual.isInativa()) {
+                    arquivo.put(Posicao.de(atual), remover(id));
+                }
+                return null;
+            });
+        }
+        return ids.size();
+    }
+
+    // Réplica do modelo de leitura local
+
+    /**
+     * Grava a chave como veio do MongoDB, inserindo ou substituindo pelo id,
+     * sem conferir a versão. Quem ainda ocupava o mesmo valor ou o mesmo tipo
+     * na conta é removido: a unicidade já foi garantida na origem, e ao retomar
+     * de um arquivo a réplica pode receber eventos que já refletia. Supõe um
+     * único escritor.
+     */
+    void aplicar(PixModelo chave) {
+        PixModelo nova = chave.copia();
+        travado(nova.getId(), () -> {
+            descartarOcupante(idsPorValor.get(nova.getValorChave()), nova.getId());
+            String tipoConta = tipoConta(nova);
+            if (tipoConta != null) {
+                descartarOcupante(idsPorTipoConta.get(tipoConta), nova.getId());
+            }
+
+            PixModelo atual = chaves.get(nova.getId());
+            if (atual == null) {
+                incluir(nova);
+            } else {
+                substituir(atual, nova);
+            }
+            return null;
+        });
+    }
+
+    private void descartarOcupante(String id, String chaveAplicada) {
+        if (id != null && !id.equals(chaveAplicada)) {
+            travado(id, () -> remover(id));
+        }
+    }
+
+    void descartar(String id) {
+        travado(id, () -> remover(id));
+    }
+
+    /**
+     * As chaves guardadas, sem cópia; quem percorre não pode alterá-las.
+     */
+    Stream<PixModelo> armazenadas() {
+        return chaves.values().stream();
+    }
+
+    // Contadores por conta
+
+    @Override
+    public Map<ContaPix, Long> contarChavesPorConta(Collection<ContaPix> contas) {
+        Map<ContaPix, Long> quantidades = new HashMap<>();
+        for (ContaPix conta : contas) {
+            Long quantidade = contadores.get(conta);
+            if (quantidade != null) {
+                quantidades.put(conta, quantidade);
+            }
+        }
+        return quantidades;
+    }
+
+    @Override
+    public boolean reservarChaves(ContaPix conta, int quantidade, int limite) {
+        boolean[] reservada = {false};
+        contadores.compute(conta, (c, atual) -> {
+            long total = atual == null ? 0 : atual;
+            if (total + quantidade > limite) {
+                return atual;
+            }
+            reservada[0] = true;
+            return total + quantidade;
+        });
+        return reservada[0];
+    }
+
+    @Override
+    public Set<ContaPix> reservarChaves(Map<ContaPix, Integer> quantidades, Map<ContaPix, Integer> limites) {
+        Set<ContaPix> recusadas = new HashSet<>();
+        quantidades.forEach((conta, quantidade) -> {
+            if (!reservarChaves(conta, quantidade, limites.get(conta))) {
+                recusadas.add(conta);
+            }
+        });
+        return recusadas;
+    }
+
+    @Override
+    public void liberarChaves(Map<ContaPix, Integer> quantidades) {
+        quantidades.forEach((conta, quantidade) ->
+                contadores.computeIfPresent(conta, (c, atual) -> atual >= quantidade ? atual - quantidade : atual));
+    }
+
+    // Consultas
+
+    @Override
+    public Optional<PixModelo> findById(UUID id) {
+        return Optional.ofNullable(chaves.get(id.toString())).map(PixModelo::copia);
+    }
+
+    @Override
+    public Optional<PixModelo> findByValorChaveAndInativaFalse(String valorChave) {
+        String id = idsPorValor.get(valorChave);
+        return Optional.ofNullable(id != null ? chaves.get(id) : null)
+                .filter(chave -> !chave.isInativa())
+                .map(PixModelo::copia);
+    }
+
+    @Override
+    public boolean existsByValorChave(String valorChave) {
+        return idsPorValor.containsKey(valorChave);
+    }
+
+    @Override
+    public long countByNumeroAgenciaAndNumeroConta(String numeroAgencia, String numeroConta) {
+        return idsPorConta.getOrDefault(new ContaPix(numeroAgencia, numeroConta), Set.of()).size();
+    }
+
+    @Override
+    public List<PixModelo> buscarPorFiltros(PixFiltroDto filtro, CursorPaginacao cursor, int limite) {
+        return filtrar(filtro, cursor).limit(limite).map(PixModelo::copia).toList();
+    }
+
+    @Override
+    public List<PixProjecaoDto> buscarCamposPorFiltros(PixFiltroDto filtro, Set<String> campos, CursorPaginacao cursor, int limite) {
+        return filtrar(filtro, cursor).limit(limite).map(chave -> projetar(chave, campos)).toList();
+    }
+
+    @Override
+    public Stream<PixModelo> exportarPorFiltros(PixFiltroDto filtro) {
+        return filtrar(filtro, null).map(PixModelo::copia);
+    }
+
+    /**
+     * Chaves que atendem ao filtro, depois do cursor, na ordem da paginação.
+     * Id e agência+conta vão direto ao índice em hash; os demais filtros
+     * percorrem o índice ordenado a partir do cursor.
+     */
+    private Stream<PixModelo> filtrar(PixFiltroDto filtro, CursorPaginacao cursor) {
+        Posicao inicio = cursor != null ? new Posicao(cursor.getDataHoraInclusao(), cursor.getId()) : null;
+
+        Stream<PixModelo> candidatas;
+        if (filtro.isArquivadas()) {
+            candidatas = (inicio != null ? arquivo.tailMap(inicio, false) : arquivo).values().stream();
+        } else if (filtro.getId() != null) {
+            candidatas = Stream.ofNullable(chaves.get(filtro.getId().toString()));
+        } else if (filtro.getNumeroAgencia() != null && filtro.getNumeroConta() != null) {
+            candidatas = idsPorConta.getOrDefault(new ContaPix(filtro.getNumeroAgencia(), filtro.getNumeroConta()), Set.of())
+                    .stream()
+                    .map(chaves::get)
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(Posicao::de, ORDENACAO_PAGINA));
+        } else {
+            candidatas = (inicio != null ? porInclusao.tailSet(inicio, false) : porInclusao).stream()
+                    .map(posicao -> chaves.get(posicao.id()))
+                    .filter(Objects::nonNull);
+        }
+
+        return candidatas.filter(chave -> (inicio == null || ORDENACAO_PAGINA.compare(Posicao.de(chave), inicio) > 0)
+                && atende(filtro, chave));
+    }
+
+    private static boolean atende(PixFiltroDto filtro, PixModelo chave) {
+        return chave.isInativa() == (filtro.isArquivadas() || filtro.isPorInativacao())
+                && (filtro.getId() == null || filtro.getId().toString().equals(chave.getId()))
+                && (filtro.getTipoChave() == null || filtro.getTipoChave() == chave.getTipoChave())
+                && (filtro.getNumeroAgencia() == null || filtro.getNumeroAgencia().equals(chave.getNumeroAgencia()))
+                && (filtro.getNumeroConta() == null || filtro.getNumeroConta().equals(chave.getNumeroConta()))
+                && (filtro.getNomeCorrentista() == null || filtro.getNomeCorrentista().equals(chave.getNomeCorrentista()))
+                && (!filtro.isPorInclusao()
+                        || noPeriodo(chave.getDataHoraInclusao(), filtro.getDataInclusaoInicio(), filtro.getDataInclusaoFim()))
+                && (!filtro.isPorInativacao()
+                        || noPeriodo(chave.getDataHoraInativacao(), filtro.getDataInativacaoInicio(), filtro.getDataInativacaoFim()));
+    }
+
+    /**
+     * Mesmo intervalo semiaberto de {@link PixConsultaBuilder}.
+     */
+    private static boolean noPeriodo(LocalDateTime dataHora, LocalDate inicio, LocalDate fim) {
+        return dataHora != null
+                && (inicio == null || !dataHora.isBefore(inicio.atStartOfDay()))
+                && (fim == null || dataHora.isBefore(fim.plusDays(1).atStartOfDay()));
+    }
+
+    /**
+     * Como a projeção do MongoDB: os campos pedidos, mais id e dataHoraInclusao para o cursor.
+     */
+    private static PixProjecaoDto projetar(PixModelo chave, Set<String> campos) {
+        PixProjecaoDto projecao = new PixProjecaoDto();
+        projecao.setId(chave.getId());
+        projecao.setDataHoraInclusao(chave.getDataHoraInclusao());
+        if (campos.contains("tipoChave")) {
+            projecao.setTipoChave(chave.getTipoChave());
+        }
+        if (campos.contains("valorChave")) {
+            projecao.setValorChave(chave.getValorChave());
+        }
+        if (campos.contains("tipoConta")) {
+            projecao.setTipoConta(chave.getTipoConta());
+        }
+        if (campos.contains("numeroAgencia")) {
+            projecao.setNumeroAgencia(chave.getNumeroAgencia());
+        }
+        if (campos.contains("numeroConta")) {
+            projecao.setNumeroConta(chave.getNumeroConta());
+        }
+        if (campos.contains("nomeCorrentista")) {
+            projecao.setNomeCorrentista(chave.getNomeCorrentista());
+        }
+        if (campos.contains("sobrenomeCorrentista")) {
+            projecao.setSobrenomeCorrentista(chave.getSobrenomeCorrentista());
+        }
+        if (campos.contains("dataHoraInativacao")) {
+            projecao.setDataHoraInativacao(chave.getDataHoraInativacao());
+        }
+        if (campos.contains("tipoCorrentista")) {
+            projecao.setTipoCorrentista(chave.getTipoCorrentista());
+        }
+        return projecao;
+    }
+
+    @Override
+    public long contarEstimado() {
+        return chaves.size();
+    }
+
+    @Override
+    public Stream<String> valoresChaveAtivos() {
+        return chaves.values().stream()
+                .filter(chave -> !chave.isInativa())
+                .map(PixModelo::getValorChave);
+    }
+
+    // CrudRepository
+
+    @Override
+    public boolean existsById(UUID id) {
+        return chaves.containsKey(id.toString());
+    }
+
+    @Override
+    public List<PixModelo> findAll() {
+        return chaves.values().stream().map(PixModelo::copia).toList();
+    }
+
+    @Override
+    public List<PixModelo> findAllById(Iterable<UUID> ids) {
+        List<PixModelo> encontradas = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(encontradas::add));
+        return encontradas;
+    }
+
+    @Override
+    public long count() {
+        return chaves.size();
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        travado(id.toString(), () -> remover(id.toString()));
+    }
+
+    @Override
+    public void delete(PixModelo chave) {
+        travado(chave.getId(), () -> remover(chave.getId()));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends UUID> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends PixModelo> lote) {
+        lote.forEach(this::delete);
+    }
+
+    /**
+     * Esvazia todo o armazenamento, inclusive contadores e arquivo, para
+     * reiniciar massas de teste. Não deve concorrer com outras escritas.
+     */
+    @Override
+    public void deleteAll() {
+        porInclusao.clear();
+        chaves.clear();
+        idsPorValor.clear();
+        idsPorTipoConta.clear();
+        idsPorConta.clear();
+        arquivo.clear();
+        contadores.clear();
+    }
+
+    // PagingAndSortingRepository
+
+    @Override
+    public List<PixModelo> findAll(Sort sort) {
+        return ordenadas(sort).map(PixModelo::copia).toList();
+    }
+
+    @Override
+    public Page<PixModelo> findAll(Pageable pageable) {
+        Stream<PixModelo> ordenadas = ordenadas(pageable.getSort());
+        if (pageable.isPaged()) {
+            ordenadas = ordenadas.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(ordenadas.map(PixModelo::copia).toList(), pageable, chaves::size);
+    }
+
+    /**
+     * Sem ordenação, ou só por dataHoraInclusao (e id), percorre o índice
+     * ordenado, num sentido ou no outro; por outros campos, ordena as chaves.
+     */
+    private Stream<PixModelo> ordenadas(Sort sort) {
+        NavigableSet<Posicao> indice = null;
+        if (sort.isUnsorted() || porInclusao(sort, Sort.Direction.ASC)) {
+            indice = porInclusao;
+        } else if (porInclusao(sort, Sort.Direction.DESC)) {
+            indice = porInclusao.descendingSet();
+        }
+
+        if (indice != null) {
+            return indice.stream()
+                    .map(posicao -> chaves.get(posicao.id()))
+                    .filter(Objects::nonNull);
+        }
+        return chaves.values().stream().sorted(comparador(sort));
+    }
+
+    private static boolean porInclusao(Sort sort, Sort.Direction direcao) {
+        List<Sort.Order> ordens = sort.toList();
+        return ordens.size() <= 2
+                && ordens.get(0).getProperty().equals("dataHoraInclusao")
+                && (ordens.size() == 1 || ordens.get(1).getProperty().equals("id"))
+                && ordens.stream().allMatch(ordem -> ordem.getDirection() == direcao);
+    }
+
+    /**
+     * Nulos primeiro na ordem crescente, como no MongoDB; campo desconhecido
+     * não altera a ordem, como um campo ausente em todos os documentos.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Comparator<PixModelo> comparador(Sort sort) {
+        Comparator<PixModelo> comparador = (a, b) -> 0;
+        for (Sort.Order ordem : sort) {
+            Function<PixModelo, Comparable> campo = CAMPOS_ORDENACAO.get(ordem.getProperty());
+            if (campo == null) {
+                continue;
+            }
+            Comparator<PixModelo> porCampo = Comparator.comparing(campo, Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparador = comparador.thenComparing(ordem.isAscending() ? porCampo : porCampo.reversed());
+        }
+        return comparador;
+    }
+}
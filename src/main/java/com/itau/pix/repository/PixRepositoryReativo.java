@@ -0,0 +1,20 @@
+package com.itau.pix.repository;
+
+import com.itau.pix.model.PixModelo;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Versão não bloqueante de {@link PixRepository}, usada pelo perfil {@code reativo}.
+ */
+@Repository
+public interface PixRepositoryReativo extends ReactiveMongoRepository<PixModelo, UUID>, PixRepositoryReativoCustom {
+
+    Mono<PixModelo> findByValorChaveAndInativaFalse(String valorChave);
+
+    Mono<Boolean> existsByValorChave(String valorChave);
+
+}
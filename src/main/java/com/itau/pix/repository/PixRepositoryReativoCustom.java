@@ -0,0 +1,52 @@
+package com.itau.pix.repository;
+
+import com.itau.pix.model.ContaPix;
+import com.itau.pix.model.CursorPaginacao;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixProjecaoDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Mesmas operações de {@link PixRepositoryCustom}, com as mesmas consultas de
+ * {@link PixConsultaBuilder}, sobre o driver reativo.
+ */
+public interface PixRepositoryReativoCustom {
+    Flux<PixModelo> buscarPorFiltros(PixFiltroDto filtro, CursorPaginacao cursor, int limite);
+
+    Flux<PixProjecaoDto> buscarCamposPorFiltros(PixFiltroDto filtro, Set<String> campos, CursorPaginacao cursor, int limite);
+
+    Flux<PixModelo> exportarPorFiltros(PixFiltroDto filtro);
+
+    Mono<Map<ContaPix, Long>> contarChavesPorConta(Collection<ContaPix> contas);
+
+    Mono<Boolean> reservarChaves(ContaPix conta, int quantidade, int limite);
+
+    Mono<Set<ContaPix>> reservarChaves(Map<ContaPix, Integer> quantidades, Map<ContaPix, Integer> limites);
+
+    Mono<Void> liberarChaves(Map<ContaPix, Integer> quantidades);
+
+    Mono<Map<Integer, String>> inserirLote(List<PixModelo> chaves);
+
+    Mono<PixModelo> alterar(UUID id, PixAlterarRequisicaoDto requisicao);
+
+    Mono<PixModelo> alterarConta(PixModelo chaveLida, PixAlterarRequisicaoDto requisicao);
+
+    Mono<PixModelo> desativar(UUID id, LocalDateTime dataHoraInativacao);
+
+    Mono<Long> desativarEmLote(PixDesativarLoteDto selecao, LocalDateTime dataHoraInativacao, String loteDesativacao);
+
+    Flux<PixModelo> buscarDesativadas(PixDesativarLoteDto selecao, String loteDesativacao);
+
+    Mono<Void> encerrarLote(PixDesativarLoteDto selecao, String loteDesativacao);
+}
@@ -0,0 +1,197 @@
+package com.itau.pix.repository;
+
+import com.itau.pix.model.ContaPix;
+import com.itau.pix.model.ContadorConta;
+import com.itau.pix.model.CursorPaginacao;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixProjecaoDto;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class PixRepositoryReativoCustomImpl implements PixRepositoryReativoCustom {
+
+    private static final int CODIGO_CHAVE_DUPLICADA = 11000;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    public PixRepositoryReativoCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<PixModelo> buscarPorFiltros(PixFiltroDto filtro, CursorPaginacao cursor, int limite) {
+        return mongoTemplate.find(PixConsultaBuilder.consultaPaginada(filtro, cursor, limite), PixModelo.class,
+                PixConsultaBuilder.colecao(filtro));
+    }
+
+    @Override
+    public Flux<PixProjecaoDto> buscarCamposPorFiltros(PixFiltroDto filtro, Set<String> campos, CursorPaginacao cursor, int limite) {
+        return mongoTemplate.query(PixModelo.class)
+                .inCollection(PixConsultaBuilder.colecao(filtro))
+                .as(PixProjecaoDto.class)
+                .matching(PixConsultaBuilder.consultaPaginadaProjetada(filtro, campos, cursor, limite))
+                .all();
+    }
+
+    @Override
+    public Flux<PixModelo> exportarPorFiltros(PixFiltroDto filtro) {
+        return mongoTemplate.find(PixConsultaBuilder.consultaExportacao(filtro), PixModelo.class,
+                PixConsultaBuilder.colecao(filtro));
+    }
+
+    @Override
+    public Mono<Map<ContaPix, Long>> contarChavesPorConta(Collection<ContaPix> contas) {
+        return mongoTemplate.find(PixConsultaBuilder.consultaContadores(contas), ContadorConta.class)
+                .collectMap(contador -> new ContaPix(contador.getNumeroAgencia(), contador.getNumeroConta()),
+                        ContadorConta::getQuantidade);
+    }
+
+    @Override
+    public Mono<Boolean> reservarChaves(ContaPix conta, int quantidade, int limite) {
+        // Duas tentativas, como no repositório bloqueante: o perdedor da corrida
+        // pelo primeiro upsert da conta recebe chave duplicada sem o limite ter sido atingido.
+        return reservarChaves(conta, quantidade, limite, 2);
+    }
+
+    private Mono<Boolean> reservarChaves(ContaPix conta, int quantidade, int limite, int tentativas) {
+        return mongoTemplate.upsert(PixConsultaBuilder.consultaReserva(conta, quantidade, limite),
+                        PixConsultaBuilder.incrementoReserva(conta, quantidade), ContadorConta.class)
+                .thenReturn(true)
+                .onErrorResume(DuplicateKeyException.class, e -> mongoTemplate.findById(ContadorConta.idDe(conta), ContadorConta.class)
+                        .map(contador -> contador.getQuantidade() + quantidade > limite)
+                        .defaultIfEmpty(false)
+                        .flatMap(esgotado -> esgotado || tentativas <= 1
+                                ? Mono.just(false)
+                                : reservarChaves(conta, quantidade, limite, tentativas - 1)));
+    }
+
+    @Override
+    public Mono<Set<ContaPix>> reservarChaves(Map<ContaPix, Integer> quantidades, Map<ContaPix, Integer> limites) {
+        List<ContaPix> contas = new ArrayList<>(quantidades.keySet());
+        ReactiveBulkOperations reservas = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ContadorConta.class);
+        for (ContaPix conta : contas) {
+            reservas.upsert(PixConsultaBuilder.consultaReserva(conta, quantidades.get(conta), limites.get(conta)),
+                    PixConsultaBuilder.incrementoReserva(conta, quantidades.get(conta)));
+        }
+
+        return reservas.execute()
+                .<Map<Integer, String>>map(resultado -> Map.of())
+                .onErrorResume(PixRepositoryReativoCustomImpl::duplicadas)
+                .flatMapMany(falhas -> Flux.fromIterable(falhas.keySet()))
+                .map(contas::get)
+                .concatMap(conta -> reservarChaves(conta, quantidades.get(conta), limites.get(conta))
+                        .filter(reservada -> !reservada)
+                        .map(recusada -> conta))
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Mono<Void> liberarChaves(Map<ContaPix, Integer> quantidades) {
+        ReactiveBulkOperations liberacoes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ContadorConta.class);
+        quantidades.forEach((conta, quantidade) -> liberacoes.updateOne(
+                PixConsultaBuilder.consultaLiberacao(conta, quantidade),
+                PixConsultaBuilder.decrementoReserva(quantidade)));
+        return liberacoes.execute().then();
+    }
+
+    @Override
+    public Mono<Map<Integer, String>> inserirLote(List<PixModelo> chaves) {
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PixModelo.class)
+                .insert(chaves)
+                .execute()
+                .<Map<Integer, String>>map(resultado -> Map.of())
+                .onErrorResume(PixRepositoryReativoCustomImpl::duplicadas);
+    }
+
+    /**
+     * Posições que violaram índice único em uma escrita bulk não ordenada; se
+     * houver erro de outro tipo, ele é propagado.
+     */
+    private static Mono<Map<Integer, String>> duplicadas(Throwable erro) {
+        List<BulkWriteError> erros = errosEscrita(erro);
+        if (erros.isEmpty() || erros.stream().anyMatch(e -> e.getCode() != CODIGO_CHAVE_DUPLICADA)) {
+            return Mono.error(erro);
+        }
+
+        Map<Integer, String> duplicadas = new HashMap<>();
+        erros.forEach(e -> duplicadas.put(e.getIndex(), e.getMessage()));
+        return Mono.just(duplicadas);
+    }
+
+    // A tradução de exceções do template reativo pode entregar o erro bulk do
+    // driver como causa de uma DuplicateKeyException em vez de BulkOperationException.
+    private static List<BulkWriteError> errosEscrita(Throwable erro) {
+        if (erro instanceof BulkOperationException bulk) {
+            return bulk.getErrors();
+        }
+        if (erro instanceof MongoBulkWriteException bulk) {
+            return bulk.getWriteErrors();
+        }
+        if (erro.getCause() instanceof MongoBulkWriteException bulk) {
+            return bulk.getWriteErrors();
+        }
+        return List.of();
+    }
+
+    @Override
+    public Mono<PixModelo> alterar(UUID id, PixAlterarRequisicaoDto requisicao) {
+        return mongoTemplate.findAndModify(PixConsultaBuilder.consultaAlteracao(id, requisicao),
+                PixConsultaBuilder.alteracao(requisicao), FindAndModifyOptions.options().returnNew(true), PixModelo.class);
+    }
+
+    @Override
+    public Mono<PixModelo> alterarConta(PixModelo chaveLida, PixAlterarRequisicaoDto requisicao) {
+        return mongoTemplate.findAndModify(PixConsultaBuilder.consultaAlteracaoConta(chaveLida),
+                PixConsultaBuilder.alteracao(requisicao), FindAndModifyOptions.options().returnNew(true), PixModelo.class);
+    }
+
+    @Override
+    public Mono<PixModelo> desativar(UUID id, LocalDateTime dataHoraInativacao) {
+        return mongoTemplate.findAndModify(PixConsultaBuilder.consultaId(id),
+                PixConsultaBuilder.desativacaoChave(dataHoraInativacao), PixModelo.class);
+    }
+
+    @Override
+    public Mono<Long> desativarEmLote(PixDesativarLoteDto selecao, LocalDateTime dataHoraInativacao, String loteDesativacao) {
+        return mongoTemplate.updateMulti(Query.query(PixConsultaBuilder.criteriosDesativacao(selecao)),
+                        PixConsultaBuilder.desativacao(dataHoraInativacao, loteDesativacao), PixModelo.class)
+                .map(UpdateResult::getModifiedCount);
+    }
+
+    @Override
+    public Flux<PixModelo> buscarDesativadas(PixDesativarLoteDto selecao, String loteDesativacao) {
+        return mongoTemplate.find(PixConsultaBuilder.consultaDesativadas(selecao, loteDesativacao), PixModelo.class);
+    }
+
+    @Override
+    public Mono<Void> encerrarLote(PixDesativarLoteDto selecao, String loteDesativacao) {
+        return mongoTemplate.updateMulti(Query.query(PixConsultaBuilder.criteriosDesativadas(selecao, loteDesativacao)),
+                        PixConsultaBuilder.fimLote(), PixModelo.class)
+                .then();
+    }
+}
@@ -0,0 +1,73 @@
+package com.itau.pix.service;
+
+import com.itau.pix.repository.PixRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Move para {@code pix_keys_inativas} as chaves inativas há mais de
+ * {@code pix.arquivamento.retencao}, em lotes de {@code pix.arquivamento.lote},
+ * para que pix_keys e seus índices acompanhem só as chaves ativas.
+ *
+ * <p>Cada lote é copiado antes de ser removido; se a execução for interrompida
+ * no meio, a próxima recopia o lote sem duplicar e conclui a remoção. Várias
+ * instâncias podem executar ao mesmo tempo. Chaves inativas não têm contador
+ * nem entrada no filtro de Bloom, então nada mais precisa ser atualizado.</p>
+ */
+@Slf4j
+@Component
+public class ArquivamentoChaves {
+
+    private final PixRepository repository;
+    private final boolean habilitado;
+    private final Duration retencao;
+    private final int tamanhoLote;
+    private final Counter arquivadas;
+
+    @Autowired
+    public ArquivamentoChaves(
+            PixRepository repository,
+            MeterRegistry registry,
+            @Value("${pix.arquivamento.habilitado:true}") boolean habilitado,
+            @Value("${pix.arquivamento.retencao:P90D}") Duration retencao,
+            @Value("${pix.arquivamento.lote:1000}") int tamanhoLote) {
+        this.repository = repository;
+        this.habilitado = habilitado;
+        this.retencao = retencao;
+        this.tamanhoLote = tamanhoLote;
+
+        this.arquivadas = Counter.builder("pix.arquivamento.chaves")
+                .description("Chaves inativas movidas para o arquivo")
+                .register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${pix.arquivamento.intervalo:PT1H}", fixedDelayString = "${pix.arquivamento.intervalo:PT1H}")
+    public void arquivar() {
+        if (!habilitado) {
+            return;
+        }
+
+        LocalDateTime inativadasAntesDe = LocalDateTime.now().minus(retencao);
+        long inicio = System.nanoTime();
+        long total = 0;
+        int movidas;
+        do {
+            movidas = repository.arquivarInativas(inativadasAntesDe, tamanhoLote);
+            total += movidas;
+            arquivadas.increment(movidas);
+        } while (movidas == tamanhoLote);
+
+        if (total > 0) {
+            log.info("{} chaves inativas desde antes de {} arquivadas em {} ms.",
+                    total, inativadasAntesDe, (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+}
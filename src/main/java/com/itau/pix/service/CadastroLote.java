@@ -0,0 +1,188 @@
+package com.itau.pix.service;
+
+import com.itau.pix.exception.CodigoErro;
+import com.itau.pix.exception.ValidacaoException;
+import com.itau.pix.model.ContaPix;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixRequisicaoDto;
+import com.itau.pix.model.dto.PixResultadoLoteDto;
+import com.itau.pix.model.enums.TipoCorrentista;
+import com.itau.pix.validator.PixValidadorStrategy;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Etapas de /cadastrar/lote que não fazem I/O, compartilhadas pelos serviços
+ * bloqueante e reativo: quem orquestra só intercala as leituras e escritas no
+ * MongoDB entre elas. O resultado de cada item sai na mesma posição da requisição.
+ */
+final class CadastroLote {
+
+    private final List<PixRequisicaoDto> requisicoes;
+    private final PixValidadorStrategy validador;
+    private final PixResultadoLoteDto[] resultados;
+    private final List<Integer> validas = new ArrayList<>();
+    private final List<Integer> indices = new ArrayList<>();
+    private final List<PixModelo> chaves = new ArrayList<>();
+
+    private CadastroLote(List<PixRequisicaoDto> requisicoes, PixValidadorStrategy validador) {
+        this.requisicoes = requisicoes;
+        this.validador = validador;
+        this.resultados = new PixResultadoLoteDto[requisicoes.size()];
+    }
+
+    /**
+     * Valida cada item isoladamente; os inválidos já recebem o resultado de falha.
+     */
+    static CadastroLote validar(List<PixRequisicaoDto> requisicoes, PixValidadorStrategy validador, int limiteLote) {
+        validador.validadorTamanhoLote(requisicoes.size(), limiteLote);
+
+        CadastroLote lote = new CadastroLote(requisicoes, validador);
+        for (int i = 0; i < requisicoes.size(); i++) {
+            try {
+                validador.validadorItemLote(requisicoes.get(i));
+                lote.validas.add(i);
+            } catch (ResponseStatusException e) {
+                lote.resultados[i] = PixResultadoLoteDto.falha(i, e);
+            }
+        }
+        return lote;
+    }
+
+    Set<ContaPix> contas() {
+        Set<ContaPix> contas = new HashSet<>();
+        validas.forEach(i -> contas.add(PixService.conta(requisicoes.get(i))));
+        return contas;
+    }
+
+    /**
+     * Confere duplicidades dentro do próprio lote e o limite por conta a partir
+     * das quantidades atuais, montando as chaves dos itens aceitos.
+     */
+    void selecionar(Map<ContaPix, Long> quantidadesAtuais) {
+        Map<ContaPix, Long> chavesPorConta = new HashMap<>(quantidadesAtuais);
+        Set<String> ids = new HashSet<>();
+        Set<String> valores = new HashSet<>();
+        Set<String> tiposPorConta = new HashSet<>();
+        for (int i : validas) {
+            PixRequisicaoDto requisicao = requisicoes.get(i);
+            ContaPix conta = PixService.conta(requisicao);
+            // Mesma regra do índice único parcial: tipo por conta só vale para pessoa física.
+            String tipoPorConta = requisicao.getTipoCorrentista() == TipoCorrentista.FISICA
+                    ? requisicao.getTipoChave() + "|" + requisicao.getNumeroConta()
+                    : null;
+            try {
+                if (requisicao.getId() != null && ids.contains(requisicao.getId())) {
+                    throw new ValidacaoException(CodigoErro.CHAVE_DUPLICADA_ID);
+                }
+                if (valores.contains(requisicao.getValorChave())) {
+                    throw new ValidacaoException(CodigoErro.CHAVE_DUPLICADA_VALOR);
+                }
+                if (tipoPorConta != null && tiposPorConta.contains(tipoPorConta)) {
+                    throw new ValidacaoException(CodigoErro.CHAVE_DUPLICADA_TIPO_CONTA);
+                }
+                validador.validadorLimiteChave(requisicao.getTipoCorrentista(), chavesPorConta.getOrDefault(conta, 0L));
+            } catch (ResponseStatusException e) {
+                resultados[i] = PixResultadoLoteDto.falha(i, e);
+                continue;
+            }
+
+            PixModelo chave = PixService.novaChave(requisicao);
+            ids.add(chave.getId());
+            valores.add(chave.getValorChave());
+            if (tipoPorConta != null) {
+                tiposPorConta.add(tipoPorConta);
+            }
+            chavesPorConta.merge(conta, 1L, Long::sum);
+            indices.add(i);
+            chaves.add(chave);
+        }
+    }
+
+    /**
+     * Vagas a reservar por conta para as chaves selecionadas.
+     */
+    Map<ContaPix, Integer> reservas() {
+        Map<ContaPix, Integer> reservas = new HashMap<>();
+        indices.forEach(i -> reservas.merge(PixService.conta(requisicoes.get(i)), 1, Integer::sum));
+        return reservas;
+    }
+
+    /**
+     * Limite de cada conta; em contas com itens de tipos de correntista
+     * diferentes vale o menor.
+     */
+    Map<ContaPix, Integer> limites() {
+        Map<ContaPix, Integer> limites = new HashMap<>();
+        for (int i : indices) {
+            PixRequisicaoDto requisicao = requisicoes.get(i);
+            limites.merge(PixService.conta(requisicao), validador.limiteChaves(requisicao.getTipoCorrentista()), Math::min);
+        }
+        return limites;
+    }
+
+    /**
+     * Falha os itens das contas cuja reserva foi recusada (perderam a corrida
+     * para cadastros concorrentes) e os retira da gravação.
+     */
+    void recusar(Set<ContaPix> recusadas) {
+        if (recusadas.isEmpty()) {
+            return;
+        }
+        for (int posicao = chaves.size() - 1; posicao >= 0; posicao--) {
+            int i = indices.get(posicao);
+            PixRequisicaoDto requisicao = requisicoes.get(i);
+            if (!recusadas.contains(PixService.conta(requisicao))) {
+                continue;
+            }
+            TipoCorrentista tipoCorrentista = requisicao.getTipoCorrentista();
+            try {
+                validador.validadorLimiteChave(tipoCorrentista, validador.limiteChaves(tipoCorrentista));
+            } catch (ResponseStatusException e) {
+                resultados[i] = PixResultadoLoteDto.falha(i, e);
+            }
+            indices.remove(posicao);
+            chaves.remove(posicao);
+        }
+    }
+
+    /**
+     * Chaves a gravar, na ordem em que {@link #registrarGravacao} espera as posições.
+     */
+    List<PixModelo> chaves() {
+        return chaves;
+    }
+
+    /**
+     * Aplica o retorno da escrita bulk: as posições duplicadas viram falha e as
+     * demais sucesso. Devolve as vagas a liberar por conta.
+     */
+    Map<ContaPix, Integer> registrarGravacao(Map<Integer, String> duplicadas, Consumer<String> gravada) {
+        Map<ContaPix, Integer> liberacoes = new HashMap<>();
+        for (int posicao = 0; posicao < chaves.size(); posicao++) {
+            int i = indices.get(posicao);
+            PixModelo chave = chaves.get(posicao);
+            String duplicidade = duplicadas.get(posicao);
+            if (duplicidade == null) {
+                gravada.accept(chave.getValorChave());
+                resultados[i] = PixResultadoLoteDto.sucesso(i, chave.getId());
+            } else {
+                liberacoes.merge(new ContaPix(chave.getNumeroAgencia(), chave.getNumeroConta()), 1, Integer::sum);
+                resultados[i] = PixResultadoLoteDto.falha(i, new ValidacaoException(PixService.codigoDuplicidade(duplicidade)));
+            }
+        }
+        return liberacoes;
+    }
+
+    List<PixResultadoLoteDto> resultados() {
+        return Arrays.asList(resultados);
+    }
+}
@@ -0,0 +1,119 @@
+package com.itau.pix.service;
+
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.repository.PixRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Resolução por valorChave a partir de um {@link SnapshotChaves}, para
+ * instâncias de leitura resolverem chaves sem mantê-las no heap e sem ir ao
+ * MongoDB a cada consulta.
+ *
+ * <p>O snapshot é regravado a partir do repositório na subida e a cada
+ * {@code pix.snapshot.reconstrucao}. Chaves alteradas ou desativadas por esta
+ * instância deixam de ser servidas pelo snapshot na hora; as alteradas por
+ * outras instâncias só na próxima reconstrução, por isso o snapshot é
+ * opcional ({@code pix.snapshot.habilitado}). Chave fora do snapshot, ou
+ * enquanto não houver snapshot pronto, segue o caminho normal da resolução.</p>
+ */
+@Slf4j
+@Component
+public class DiretorioChaves {
+
+    private final PixRepository repository;
+    private final boolean habilitado;
+    private final Path arquivo;
+    private final Timer tempoReconstrucao;
+
+    private volatile SnapshotChaves atual;
+    private volatile Set<String> alteradas = ConcurrentHashMap.newKeySet();
+    private volatile Set<String> alteradasEmConstrucao;
+
+    @Autowired
+    public DiretorioChaves(
+            PixRepository repository,
+            MeterRegistry registry,
+            @Value("${pix.snapshot.habilitado:false}") boolean habilitado,
+            @Value("${pix.snapshot.arquivo:pix_keys.snapshot}") String arquivo) {
+        this.repository = repository;
+        this.habilitado = habilitado;
+        this.arquivo = Path.of(arquivo);
+
+        this.tempoReconstrucao = Timer.builder("pix.snapshot.reconstrucao")
+                .description("Tempo de reconstrução do snapshot de chaves")
+                .register(registry);
+        Gauge.builder("pix.snapshot.chaves", this, diretorio -> diretorio.atual == null ? 0 : diretorio.atual.getQuantidade())
+                .description("Chaves no snapshot mapeado em memória")
+                .register(registry);
+    }
+
+    /**
+     * A chave ativa com {@code valorChave} no snapshot, ou {@code null} se ela
+     * precisar ser buscada no repositório.
+     */
+    @Nullable
+    public PixModelo buscar(String valorChave) {
+        // Lê as alteradas antes do snapshot: quem vê o conjunto novo já vê o snapshot novo.
+        Set<String> ignorar = alteradas;
+        SnapshotChaves snapshot = atual;
+        if (snapshot == null || ignorar.contains(valorChave)) {
+            return null;
+        }
+        int posicao = snapshot.localizar(valorChave);
+        return posicao < 0 ? null : snapshot.chave(posicao);
+    }
+
+    public void invalidar(String valorChave) {
+        // Mesma ordem de FiltroChavesExistentes.registrar: se a troca acontecer no
+        // meio, o conjunto lido em seguida já é o novo.
+        Set<String> novas = alteradasEmConstrucao;
+        Set<String> conjunto = alteradas;
+        if (novas != null) {
+            novas.add(valorChave);
+        }
+        conjunto.add(valorChave);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${pix.snapshot.reconstrucao:PT15M}")
+    public void reconstruir() {
+        if (!habilitado) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        Set<String> novas = ConcurrentHashMap.newKeySet();
+        alteradasEmConstrucao = novas;
+        SnapshotChaves novo;
+        try (Stream<PixModelo> chaves = repository.exportarPorFiltros(new PixFiltroDto())) {
+            novo = SnapshotChaves.gravar(chaves, arquivo);
+            atual = novo;
+            alteradas = novas;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o snapshot de chaves em " + arquivo, e);
+        } finally {
+            alteradasEmConstrucao = null;
+        }
+        long duracao = System.nanoTime() - inicio;
+        tempoReconstrucao.record(duracao, TimeUnit.NANOSECONDS);
+
+        log.info("Snapshot de chaves reconstruído com {} chaves ({} fora do formato) em {} ms.",
+                novo.getQuantidade(), novo.getIgnoradas(), duracao / 1_000_000);
+    }
+}
@@ -0,0 +1,86 @@
+package com.itau.pix.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom de valores de chave, seguro para escrita e leitura
+ * concorrentes. Responde "certamente ausente" ou "talvez presente"; nunca
+ * produz falso negativo para um valor adicionado.
+ */
+public final class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long quantidadeBits;
+    private final int funcoesHash;
+    private final LongAdder elementos = new LongAdder();
+
+    public FiltroBloom(long capacidade, double taxaFalsoPositivo) {
+        long n = Math.max(1, capacidade);
+        long m = (long) Math.ceil(-n * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.quantidadeBits = Math.max(Long.SIZE, m);
+        this.funcoesHash = Math.max(1, (int) Math.round((double) quantidadeBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact((quantidadeBits + Long.SIZE - 1) / Long.SIZE));
+    }
+
+    public void adicionar(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcoesHash; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, quantidadeBits);
+            long mascara = 1L << bit;
+            bits.getAndAccumulate((int) (bit >>> 6), mascara, (atual, m) -> atual | m);
+        }
+        elementos.increment();
+    }
+
+    public boolean talvezContenha(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcoesHash; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, quantidadeBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getElementos() {
+        return elementos.sum();
+    }
+
+    public long getQuantidadeBits() {
+        return quantidadeBits;
+    }
+
+    public int getFuncoesHash() {
+        return funcoesHash;
+    }
+
+    /**
+     * Taxa de falso positivo esperada para a quantidade de valores já adicionados.
+     */
+    public double taxaFalsoPositivoEstimada() {
+        double ocupacao = 1 - Math.exp(-(double) funcoesHash * getElementos() / quantidadeBits);
+        return Math.pow(ocupacao, funcoesHash);
+    }
+
+    // FNV-1a de 64 bits seguido da finalização do MurmurHash3 para espalhar os bits.
+    // Também ordena o índice de SnapshotChaves.
+    static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,112 @@
+package com.itau.pix.service;
+
+import com.itau.pix.repository.PixRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Filtro de Bloom dos valores de chave ativos, usado no cadastro para recusar
+ * um valor repetido antes de reservar o contador da conta.
+ *
+ * <p>É reconstruído lendo a coleção em stream na subida e a cada
+ * {@code pix.bloom.reconstrucao}, o que também descarta chaves desativadas.
+ * Chaves cadastradas por esta instância entram na hora; as cadastradas por
+ * outras instâncias só entram na próxima reconstrução. Por isso um "certamente
+ * ausente" nunca encerra nada sozinho: o cadastro segue para o insert e o
+ * índice único uk_valor_chave recusa o que o filtro ainda não conhece.</p>
+ */
+@Slf4j
+@Component
+public class FiltroChavesExistentes {
+
+    private final PixRepository repository;
+    private final boolean habilitado;
+    private final long capacidadeMinima;
+    private final double taxaFalsoPositivo;
+    private final Timer tempoReconstrucao;
+
+    private volatile FiltroBloom atual;
+    private volatile FiltroBloom emConstrucao;
+
+    @Autowired
+    public FiltroChavesExistentes(
+            PixRepository repository,
+            MeterRegistry registry,
+            @Value("${pix.bloom.habilitado:false}") boolean habilitado,
+            @Value("${pix.bloom.capacidade:10000000}") long capacidadeMinima,
+            @Value("${pix.bloom.taxa-falso-positivo:0.01}") double taxaFalsoPositivo) {
+        this.repository = repository;
+        this.habilitado = habilitado;
+        this.capacidadeMinima = capacidadeMinima;
+        this.taxaFalsoPositivo = taxaFalsoPositivo;
+
+        this.tempoReconstrucao = Timer.builder("pix.bloom.reconstrucao")
+                .description("Tempo de reconstrução do filtro de Bloom de chaves")
+                .register(registry);
+        Gauge.builder("pix.bloom.elementos", this, filtro -> filtro.atual == null ? 0 : filtro.atual.getElementos())
+                .description("Valores de chave no filtro de Bloom")
+                .register(registry);
+        Gauge.builder("pix.bloom.bits", this, filtro -> filtro.atual == null ? 0 : filtro.atual.getQuantidadeBits())
+                .description("Tamanho do filtro de Bloom em bits")
+                .register(registry);
+        Gauge.builder("pix.bloom.taxa.falso.positivo", this, filtro -> filtro.atual == null ? 0 : filtro.atual.taxaFalsoPositivoEstimada())
+                .description("Taxa de falso positivo estimada do filtro de Bloom")
+                .register(registry);
+    }
+
+    /**
+     * {@code true} quando há filtro pronto e o valor pode estar cadastrado; sem
+     * filtro ({@code pix.bloom.habilitado=false} ou antes da primeira
+     * construção) responde {@code false} e o cadastro fica só com o índice único.
+     */
+    public boolean talvezCadastrada(String valorChave) {
+        FiltroBloom filtro = atual;
+        return filtro != null && filtro.talvezContenha(valorChave);
+    }
+
+    public void registrar(String valorChave) {
+        // Lê o filtro em construção antes do atual: se a troca acontecer no meio,
+        // o atual lido em seguida já é o novo e o valor não se perde.
+        FiltroBloom novo = emConstrucao;
+        FiltroBloom filtro = atual;
+        if (novo != null) {
+            novo.adicionar(valorChave);
+        }
+        if (filtro != null && filtro != novo) {
+            filtro.adicionar(valorChave);
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${pix.bloom.reconstrucao:PT6H}")
+    public void reconstruir() {
+        if (!habilitado) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        // Folga para os cadastros que chegarem até a próxima reconstrução.
+        long capacidade = Math.max(capacidadeMinima, repository.contarEstimado() * 5 / 4);
+        FiltroBloom novo = new FiltroBloom(capacidade, taxaFalsoPositivo);
+        emConstrucao = novo;
+        try (Stream<String> valores = repository.valoresChaveAtivos()) {
+            valores.forEach(novo::adicionar);
+            atual = novo;
+        } finally {
+            emConstrucao = null;
+        }
+        long duracao = System.nanoTime() - inicio;
+        tempoReconstrucao.record(duracao, TimeUnit.NANOSECONDS);
+
+        log.info("Filtro de Bloom reconstruído com {} chaves em {} ms (taxa de falso positivo estimada {}).",
+                novo.getElementos(), duracao / 1_000_000, novo.taxaFalsoPositivoEstimada());
+    }
+}
@@ -1,29 +1,147 @@
 package com.itau.pix.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.itau.pix.config.MetricasConfig;
+import com.itau.pix.config.MongoConfig;
+import com.itau.pix.exception.CodigoErro;
+import com.itau.pix.exception.ConflitoException;
 import com.itau.pix.exception.NaoEncontradoException;
+import com.itau.pix.exception.RequisicaoInvalidaException;
+import com.itau.pix.exception.ValidacaoException;
+import com.itau.pix.model.ContaPix;
+import com.itau.pix.model.CursorPaginacao;
 import com.itau.pix.model.PixModelo;
-import com.itau.pix.model.enums.TipoChave;
 import com.itau.pix.model.dto.PixRequisicaoDto;
 import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativacaoLoteDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixProjecaoDto;
+import com.itau.pix.model.dto.PixResultadoLoteDto;
+import com.itau.pix.model.enums.TipoCorrentista;
+import com.itau.pix.repository.PixLeituraLocal;
 import com.itau.pix.repository.PixRepository;
 import com.itau.pix.validator.PixValidadorStrategy;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reativo")
+@Timed(value = MetricasConfig.METRICA_SERVICO, histogram = true)
 public class PixService {
+    public static final String CABECALHO_PROXIMO_CURSOR = "X-Proximo-Cursor";
+    static final int LIMITE_PAGINA_PADRAO = 100;
+    static final int LIMITE_PAGINA_MAXIMO = 1000;
+    static final int LIMITE_LOTE = 1000;
+
     @Autowired
     private PixRepository repository;
     @Autowired
     private PixValidadorStrategy validador;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private Cache<String, PixModelo> cacheResolucao;
+    @Autowired
+    private FiltroChavesExistentes filtroChaves;
+    @Autowired
+    private DiretorioChaves diretorio;
+    @Autowired
+    private PixLeituraLocal leituraLocal;
+    private final AtomicLong invalidacoes = new AtomicLong();
 
     public PixModelo cadastrar(PixRequisicaoDto requisicao) {
         validador.validadorRequisicao(requisicao);
+        // Só um valor que o filtro de Bloom aponta como possível vai ao MongoDB antes do insert;
+        // o que ele não conhece, inclusive o cadastrado por outra instância, fica para o índice único.
+        if (filtroChaves.talvezCadastrada(requisicao.getValorChave())
+                && repository.existsByValorChave(requisicao.getValorChave())) {
+            throw new ValidacaoException(CodigoErro.CHAVE_DUPLICADA_VALOR);
+        }
+
+        ContaPix conta = conta(requisicao);
+        reservarChave(conta, requisicao.getTipoCorrentista());
+
+        boolean gravada = false;
+        try {
+            PixModelo chave = repository.insert(novaChave(requisicao));
+            gravada = true;
+            filtroChaves.registrar(chave.getValorChave());
+            return chave;
+        } catch (DuplicateKeyException e) {
+            throw new ValidacaoException(codigoDuplicidade(e.getMessage()));
+        } finally {
+            if (!gravada) {
+                repository.liberarChaves(Map.of(conta, 1));
+            }
+        }
+    }
+
+    /**
+     * Aplica o limite de chaves por conta com um único $inc condicional no
+     * contador da conta, em vez de contar as chaves a cada cadastro.
+     */
+    private void reservarChave(ContaPix conta, TipoCorrentista tipoCorrentista) {
+        int limite = validador.limiteChaves(tipoCorrentista);
+        if (!repository.reservarChaves(conta, 1, limite)) {
+            validador.validadorLimiteChave(tipoCorrentista, limite);
+        }
+    }
+
+    /**
+     * Cadastro em lote: valida cada item isoladamente, confere duplicidades
+     * dentro do próprio lote e o limite por conta a partir dos contadores,
+     * reserva os contadores em uma escrita bulk e grava as chaves aceitas em
+     * outra. O resultado de cada item sai na mesma posição da requisição.
+     */
+    public List<PixResultadoLoteDto> cadastrarLote(List<PixRequisicaoDto> requisicoes) {
+        CadastroLote lote = CadastroLote.validar(requisicoes, validador, LIMITE_LOTE);
+
+        Set<ContaPix> contas = lote.contas();
+        lote.selecionar(contas.isEmpty() ? Map.of() : repository.contarChavesPorConta(contas));
+
+        Map<ContaPix, Integer> reservas = lote.reservas();
+        Set<ContaPix> recusadas = reservas.isEmpty() ? Set.of() : repository.reservarChaves(reservas, lote.limites());
+        lote.recusar(recusadas);
+        recusadas.forEach(reservas::remove);
+
+        Map<Integer, String> duplicadas;
+        try {
+            duplicadas = lote.chaves().isEmpty() ? Map.of() : repository.inserirLote(lote.chaves());
+        } catch (RuntimeException e) {
+            repository.liberarChaves(reservas);
+            throw e;
+        }
+
+        Map<ContaPix, Integer> liberacoes = lote.registrarGravacao(duplicadas, filtroChaves::registrar);
+        if (!liberacoes.isEmpty()) {
+            repository.liberarChaves(liberacoes);
+        }
+
+        return lote.resultados();
+    }
+
+    static ContaPix conta(PixRequisicaoDto requisicao) {
+        return new ContaPix(requisicao.getNumeroAgencia(), requisicao.getNumeroConta());
+    }
 
+    static PixModelo novaChave(PixRequisicaoDto requisicao) {
         if (requisicao.getId() == null) {
             requisicao.setId(UUID.randomUUID().toString());
         }
@@ -39,84 +157,271 @@ public class PixService {
         pixKey.setSobrenomeCorrentista(requisicao.getSobrenomeCorrentista());
         pixKey.setDataHoraInclusao(LocalDateTime.now());
         pixKey.setInativa(false);
+        pixKey.setTipoCorrentista(requisicao.getTipoCorrentista());
+        // Explícita porque a escrita bulk do lote não inicializa a versão.
+        pixKey.setVersao(0L);
+        return pixKey;
+    }
 
-        return repository.save(pixKey);
+    static CodigoErro codigoDuplicidade(String detalhe) {
+        if (detalhe != null && detalhe.contains(MongoConfig.INDICE_TIPO_CHAVE_CONTA)) {
+            return CodigoErro.CHAVE_DUPLICADA_TIPO_CONTA;
+        }
+        if (detalhe != null && detalhe.contains(MongoConfig.INDICE_VALOR_CHAVE)) {
+            return CodigoErro.CHAVE_DUPLICADA_VALOR;
+        }
+        return CodigoErro.CHAVE_DUPLICADA_ID;
     }
 
+    /**
+     * Alteração em um único findAndModify com $set dos campos informados,
+     * condicionado à chave ativa, aos campos imutáveis, à conta atual e à
+     * versão enviada. Só quando ele não casa a chave é lida, para apontar o
+     * motivo ou tratar a troca de conta.
+     */
     public PixModelo alterar(UUID id, PixAlterarRequisicaoDto requisicaoAlterar) {
-        PixModelo ChaveExiste = repository.findById(id)
-                .orElseThrow(() -> new NaoEncontradoException("ID não encontrado."));
-
-        validador.validadorRequisicaoAlterar(ChaveExiste, requisicaoAlterar);
-
-        if (requisicaoAlterar.getTipoConta() != null) ChaveExiste.setTipoConta(requisicaoAlterar.getTipoConta());
-        if (requisicaoAlterar.getNumeroAgencia() != null) ChaveExiste.setNumeroAgencia(requisicaoAlterar.getNumeroAgencia());
-        if (requisicaoAlterar.getNumeroConta() != null) ChaveExiste.setNumeroConta(requisicaoAlterar.getNumeroConta());
-        if (requisicaoAlterar.getNomeCorrentista() != null) ChaveExiste.setNomeCorrentista(requisicaoAlterar.getNomeCorrentista());
-        if (requisicaoAlterar.getSobrenomeCorrentista() != null) ChaveExiste.setSobrenomeCorrentista(requisicaoAlterar.getSobrenomeCorrentista());
-
-        return repository.save(ChaveExiste);
-    }
-
-    public ResponseEntity<List<PixModelo>> buscar(
-            UUID id,
-            TipoChave tipoChave,
-            String numeroAgencia,
-            String numeroConta,
-            String nomeCorrentista,
-            LocalDateTime dataHoraInclusao,
-            LocalDateTime dataHoraInativacao
-    ) {
-
-        validador.validadorBuscaFiltros(id, tipoChave, numeroAgencia, numeroConta, nomeCorrentista, dataHoraInclusao, dataHoraInativacao);
-
-        List<PixModelo> resultado;
-        if (tipoChave != null) {
-            if (numeroAgencia != null && numeroConta != null) {
-                if (dataHoraInclusao != null) {
-                    resultado = repository.findByTipoChaveAndNumeroAgenciaAndNumeroContaAndNomeCorrentistaAndDataHoraInclusao(
-                            tipoChave, numeroAgencia, numeroConta, nomeCorrentista, dataHoraInclusao);
-                } else if (dataHoraInativacao != null) {
-                    resultado = repository.findByTipoChaveAndNumeroAgenciaAndNumeroContaAndNomeCorrentistaAndDataHoraInativacao(
-                            tipoChave, numeroAgencia, numeroConta, nomeCorrentista, dataHoraInativacao);
-                } else {
-                    resultado = repository.findByTipoChaveAndNumeroAgenciaAndNumeroConta(tipoChave, numeroAgencia, numeroConta);
-                }
-            } else {
-                resultado = repository.findByTipoChave(tipoChave);
+        validador.validadorCamposAlterar(id, requisicaoAlterar);
+
+        PixModelo chaveAlterada = gravarAlteracao(() -> repository.alterar(id, requisicaoAlterar));
+        if (chaveAlterada == null) {
+            chaveAlterada = alterarConta(id, requisicaoAlterar);
+        }
+
+        invalidarResolucao(chaveAlterada.getValorChave());
+        return chaveAlterada;
+    }
+
+    private PixModelo alterarConta(UUID id, PixAlterarRequisicaoDto requisicaoAlterar) {
+        PixModelo chaveExiste = repository.findById(id)
+                .orElseThrow(() -> new NaoEncontradoException(CodigoErro.ID_NAO_ENCONTRADO));
+
+        validador.validadorRequisicaoAlterar(chaveExiste, requisicaoAlterar);
+
+        ContaPix contaAnterior = new ContaPix(chaveExiste.getNumeroAgencia(), chaveExiste.getNumeroConta());
+        ContaPix contaNova = contaAlterada(chaveExiste, requisicaoAlterar);
+        if (contaNova.equals(contaAnterior)) {
+            // Passou em todas as condições relida: mudou entre o update e a leitura.
+            throw new ConflitoException(CodigoErro.VERSAO_DESATUALIZADA);
+        }
+
+        // A chave que muda de conta ocupa uma vaga na conta nova e libera a da anterior.
+        reservarChave(contaNova, chaveExiste.getTipoCorrentista());
+
+        PixModelo chaveAlterada = null;
+        try {
+            chaveAlterada = gravarAlteracao(() -> repository.alterarConta(chaveExiste, requisicaoAlterar));
+            if (chaveAlterada == null) {
+                throw new ConflitoException(CodigoErro.VERSAO_DESATUALIZADA);
             }
-        } else if (numeroAgencia != null && numeroConta != null) {
-            resultado = repository.findByNumeroAgenciaAndNumeroConta(numeroAgencia, numeroConta);
-        } else if (nomeCorrentista != null) {
-            resultado = repository.findByNomeCorrentista(nomeCorrentista);
-        } else if (dataHoraInclusao != null) {
-            resultado = repository.findByDataHoraInclusao(dataHoraInclusao);
-        } else if (dataHoraInativacao != null) {
-            resultado = repository.findByDataHoraInativacao(dataHoraInativacao);
-        } else {
-            resultado = new ArrayList<>();
+            return chaveAlterada;
+        } finally {
+            repository.liberarChaves(Map.of(chaveAlterada != null ? contaAnterior : contaNova, 1));
         }
+    }
+
+    static ContaPix contaAlterada(PixModelo chave, PixAlterarRequisicaoDto requisicao) {
+        return new ContaPix(
+                requisicao.getNumeroAgencia() != null ? requisicao.getNumeroAgencia() : chave.getNumeroAgencia(),
+                requisicao.getNumeroConta() != null ? requisicao.getNumeroConta() : chave.getNumeroConta());
+    }
 
-        resultado = validador.filtroChaveInativa(resultado);
+    private static PixModelo gravarAlteracao(Supplier<PixModelo> alteracao) {
+        try {
+            return alteracao.get();
+        } catch (DuplicateKeyException e) {
+            throw new ValidacaoException(codigoDuplicidade(e.getMessage()));
+        }
+    }
 
+    /**
+     * Resolve um valor de chave ativo para a conta. Consulta o modelo de
+     * leitura local, que acompanha as outras instâncias pelo change stream, e
+     * depois o cache e o snapshot mapeado em memória antes do MongoDB.
+     * Ausências não são guardadas no cache, para um cadastro posterior
+     * aparecer de imediato, nem as chaves lidas do modelo local ou do snapshot.
+     */
+    public PixModelo resolver(String valorChave) {
+        PixRepository local = leituraLocal.atualizado();
+        if (local != null) {
+            return local.findByValorChaveAndInativaFalse(valorChave)
+                    .orElseThrow(() -> new NaoEncontradoException(CodigoErro.CHAVE_NAO_ENCONTRADA));
+        }
+        PixModelo chave = cacheResolucao.getIfPresent(valorChave);
+        if (chave != null) {
+            return chave.copia();
+        }
+        chave = diretorio.buscar(valorChave);
+        if (chave != null) {
+            return chave;
+        }
+        long invalidacao = invalidacoes.get();
+        chave = repository.findByValorChaveAndInativaFalse(valorChave)
+                .orElseThrow(() -> new NaoEncontradoException(CodigoErro.CHAVE_NAO_ENCONTRADA));
+        guardarResolucao(valorChave, chave, invalidacao);
+        return chave;
+    }
+
+    /**
+     * Guarda uma cópia da chave lida do MongoDB. Se houve alguma invalidação
+     * desde o início da leitura, a chave lida pode ser anterior a ela: a
+     * entrada sai de novo. Conferir depois do put cobre a invalidação que
+     * chega entre a conferência e o put.
+     */
+    private void guardarResolucao(String valorChave, PixModelo chave, long invalidacao) {
+        cacheResolucao.put(valorChave, chave.copia());
+        if (invalidacoes.get() != invalidacao) {
+            cacheResolucao.invalidate(valorChave);
+        }
+    }
+
+    private void invalidarResolucao(String valorChave) {
+        if (valorChave != null) {
+            invalidacoes.incrementAndGet();
+            cacheResolucao.invalidate(valorChave);
+            diretorio.invalidar(valorChave);
+        }
+    }
+
+    public ResponseEntity<List<PixModelo>> buscar(PixFiltroDto filtro, Integer limite, String cursor) {
+        validador.validadorBuscaFiltros(filtro);
+
+        int tamanhoPagina = tamanhoPagina(limite);
+        CursorPaginacao posicao = cursor != null ? CursorPaginacao.decodificar(cursor) : null;
+
+        // Busca um item além da página para saber se existe continuação.
+        List<PixModelo> resultado = filtro.isVazio()
+                ? Collections.emptyList()
+                : leitura(filtro).buscarPorFiltros(filtro, posicao, tamanhoPagina + 1);
+
+        return pagina(resultado, tamanhoPagina, CursorPaginacao::depoisDe);
+    }
+
+    public ResponseEntity<List<PixProjecaoDto>> buscarCampos(PixFiltroDto filtro, Set<String> campos, Integer limite, String cursor) {
+        validador.validadorBuscaFiltros(filtro);
+        validador.validadorCamposProjecao(campos);
+
+        int tamanhoPagina = tamanhoPagina(limite);
+        CursorPaginacao posicao = cursor != null ? CursorPaginacao.decodificar(cursor) : null;
+
+        List<PixProjecaoDto> resultado = filtro.isVazio()
+                ? Collections.emptyList()
+                : leitura(filtro).buscarCamposPorFiltros(filtro, campos, posicao, tamanhoPagina + 1);
+
+        ResponseEntity<List<PixProjecaoDto>> resposta = pagina(resultado, tamanhoPagina,
+                chave -> new CursorPaginacao(chave.getDataHoraInclusao(), chave.getId()));
+        resposta.getBody().forEach(chave -> chave.descartarChavesPaginacao(campos));
+        return resposta;
+    }
+
+    /**
+     * O modelo de leitura local, se estiver em dia, senão o MongoDB. Chaves
+     * arquivadas só existem no MongoDB.
+     */
+    private PixRepository leitura(PixFiltroDto filtro) {
+        PixRepository local = filtro.isArquivadas() ? null : leituraLocal.atualizado();
+        return local != null ? local : repository;
+    }
+
+    private int tamanhoPagina(Integer limite) {
+        int tamanhoPagina = limite != null ? limite : LIMITE_PAGINA_PADRAO;
+        validador.validadorTamanhoPagina(tamanhoPagina, LIMITE_PAGINA_MAXIMO);
+        return tamanhoPagina;
+    }
+
+    static <T> ResponseEntity<List<T>> pagina(List<T> resultado, int tamanhoPagina, Function<T, CursorPaginacao> posicao) {
         if (resultado.isEmpty()) {
-            throw new NaoEncontradoException("Nenhuma chave encontrada com os critérios fornecidos.");
+            throw new NaoEncontradoException(CodigoErro.BUSCA_SEM_RESULTADO);
+        }
+
+        if (resultado.size() <= tamanhoPagina) {
+            return ResponseEntity.ok(resultado);
         }
 
-        return ResponseEntity.ok(resultado);
+        List<T> pagina = resultado.subList(0, tamanhoPagina);
+        return ResponseEntity.ok()
+                .header(CABECALHO_PROXIMO_CURSOR, posicao.apply(pagina.get(tamanhoPagina - 1)).codificar())
+                .body(pagina);
+    }
+
+    public StreamingResponseBody exportar(PixFiltroDto filtro) {
+        validador.validadorBuscaFiltros(filtro);
+
+        if (filtro.isVazio()) {
+            throw new RequisicaoInvalidaException(CodigoErro.EXPORTACAO_SEM_FILTRO);
+        }
+
+        // Cada chave é escrita assim que sai do cursor, uma por linha (NDJSON),
+        // sem materializar o resultado em memória.
+        return saida -> {
+            try (Stream<PixModelo> chaves = leitura(filtro).exportarPorFiltros(filtro);
+                 JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida)) {
+                gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                gerador.setRootValueSeparator(null);
+
+                Iterator<PixModelo> iterador = chaves.iterator();
+                while (iterador.hasNext()) {
+                    gerador.writeObject(iterador.next());
+                    gerador.writeRaw('\n');
+                }
+            }
+        };
     }
 
+    /**
+     * Desativação em um único findAndModify que devolve o estado anterior da
+     * chave: ausente é "não encontrada", inativa é "já desativada" (e nada foi
+     * gravado); só quem a encontrou ativa libera a vaga da conta, então
+     * requisições concorrentes ou repetidas não liberam a mesma vaga duas vezes.
+     */
     public ResponseEntity<PixModelo> desativar(UUID id) {
-        PixModelo chaveExiste = repository.findById(id)
-                .orElseThrow(() -> new NaoEncontradoException("ID não encontrado."));
+        LocalDateTime dataHoraInativacao = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        PixModelo chaveDesativada = repository.desativar(id, dataHoraInativacao);
+        if (chaveDesativada == null) {
+            throw new NaoEncontradoException(CodigoErro.ID_NAO_ENCONTRADO);
+        }
 
-        validador.validadorChaveAtiva(chaveExiste);
+        validador.validadorChaveAtiva(chaveDesativada);
 
-        chaveExiste.setInativa(true);
-        chaveExiste.setDataHoraInativacao(LocalDateTime.now());
+        chaveDesativada.setInativa(true);
+        chaveDesativada.setDataHoraInativacao(dataHoraInativacao);
 
-        PixModelo chaveDesativada = repository.save(chaveExiste);
+        repository.liberarChaves(Map.of(new ContaPix(chaveDesativada.getNumeroAgencia(), chaveDesativada.getNumeroConta()), 1));
+        invalidarResolucao(chaveDesativada.getValorChave());
 
         return ResponseEntity.ok(chaveDesativada);
     }
-}
\ No newline at end of file
+
+    /**
+     * Desativação em lote com um único updateMany sobre as chaves ativas. As
+     * chaves alteradas são relidas pelo lote gravado nessa mesma escrita: outra
+     * desativação no mesmo milissegundo não entra na resposta nem tem a vaga
+     * devolvida duas vezes. Relidas, as chaves deixam de carregar o lote. O
+     * instante é truncado para a precisão do MongoDB.
+     */
+    public PixDesativacaoLoteDto desativarLote(PixDesativarLoteDto selecao) {
+        validador.validadorDesativacaoLote(selecao, LIMITE_LOTE);
+
+        LocalDateTime dataHoraInativacao = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        String loteDesativacao = UUID.randomUUID().toString();
+        long desativadas = repository.desativarEmLote(selecao, dataHoraInativacao, loteDesativacao);
+        List<PixModelo> chaves = desativadas == 0
+                ? List.of()
+                : repository.buscarDesativadas(selecao, loteDesativacao);
+        if (!chaves.isEmpty()) {
+            repository.encerrarLote(selecao, loteDesativacao);
+        }
+
+        List<String> ids = new ArrayList<>(chaves.size());
+        Map<ContaPix, Integer> liberacoes = new HashMap<>();
+        for (PixModelo chave : chaves) {
+            ids.add(chave.getId());
+            liberacoes.merge(new ContaPix(chave.getNumeroAgencia(), chave.getNumeroConta()), 1, Integer::sum);
+            invalidarResolucao(chave.getValorChave());
+        }
+        if (!liberacoes.isEmpty()) {
+            repository.liberarChaves(liberacoes);
+        }
+
+        return new PixDesativacaoLoteDto(desativadas, dataHoraInativacao, ids);
+    }
+}
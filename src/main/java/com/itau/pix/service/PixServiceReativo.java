@@ -0,0 +1,336 @@
+package com.itau.pix.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.itau.pix.exception.CodigoErro;
+import com.itau.pix.exception.ConflitoException;
+import com.itau.pix.exception.NaoEncontradoException;
+import com.itau.pix.exception.RequisicaoInvalidaException;
+import com.itau.pix.exception.ValidacaoException;
+import com.itau.pix.model.ContaPix;
+import com.itau.pix.model.CursorPaginacao;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativacaoLoteDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixProjecaoDto;
+import com.itau.pix.model.dto.PixRequisicaoDto;
+import com.itau.pix.model.dto.PixResultadoLoteDto;
+import com.itau.pix.model.enums.TipoCorrentista;
+import com.itau.pix.repository.PixLeituraLocal;
+import com.itau.pix.repository.PixRepository;
+import com.itau.pix.repository.PixRepositoryReativo;
+import com.itau.pix.validator.PixValidadorStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Mesmas regras de {@link PixService} sobre o driver reativo do MongoDB: nenhuma
+ * thread fica parada esperando o banco. Validação, cache de resolução, snapshot e
+ * filtro de Bloom são os mesmos do serviço bloqueante, pois não esperam pela rede.
+ */
+@Service
+@Profile("reativo")
+public class PixServiceReativo {
+
+    @Autowired
+    private PixRepositoryReativo repository;
+    @Autowired
+    private PixValidadorStrategy validador;
+    @Autowired
+    private Cache<String, PixModelo> cacheResolucao;
+    @Autowired
+    private FiltroChavesExistentes filtroChaves;
+    @Autowired
+    private DiretorioChaves diretorio;
+    @Autowired
+    private PixLeituraLocal leituraLocal;
+    private final AtomicLong invalidacoes = new AtomicLong();
+
+    public Mono<PixModelo> cadastrar(PixRequisicaoDto requisicao) {
+        ContaPix conta = PixService.conta(requisicao);
+
+        return Mono.fromRunnable(() -> validador.validadorRequisicao(requisicao))
+                .then(Mono.defer(() -> verificarValor(requisicao.getValorChave())))
+                .then(reservarChave(conta, requisicao.getTipoCorrentista()))
+                .then(Mono.defer(() -> repository.insert(PixService.novaChave(requisicao))
+                        .onErrorResume(e -> repository.liberarChaves(Map.of(conta, 1)).then(Mono.error(e)))))
+                .onErrorMap(DuplicateKeyException.class, e -> new ValidacaoException(PixService.codigoDuplicidade(e.getMessage())))
+                .doOnNext(chave -> filtroChaves.registrar(chave.getValorChave()));
+    }
+
+    /**
+     * Mesma checagem do serviço bloqueante: só um valor que o filtro de Bloom
+     * aponta como possível é conferido no MongoDB antes da reserva.
+     */
+    private Mono<Void> verificarValor(String valorChave) {
+        if (!filtroChaves.talvezCadastrada(valorChave)) {
+            return Mono.empty();
+        }
+        return repository.existsByValorChave(valorChave)
+                .filter(Boolean::booleanValue)
+                .flatMap(existe -> Mono.<Void>error(new ValidacaoException(CodigoErro.CHAVE_DUPLICADA_VALOR)));
+    }
+
+    private Mono<Void> reservarChave(ContaPix conta, TipoCorrentista tipoCorrentista) {
+        int limite = validador.limiteChaves(tipoCorrentista);
+        return repository.reservarChaves(conta, 1, limite)
+                .filter(reservada -> !reservada)
+                .doOnNext(recusada -> validador.validadorLimiteChave(tipoCorrentista, limite))
+                .then();
+    }
+
+    public Mono<List<PixResultadoLoteDto>> cadastrarLote(List<PixRequisicaoDto> requisicoes) {
+        return Mono.fromCallable(() -> CadastroLote.validar(requisicoes, validador, PixService.LIMITE_LOTE))
+                .flatMap(lote -> {
+                    Set<ContaPix> contas = lote.contas();
+                    Mono<Map<ContaPix, Long>> quantidades = contas.isEmpty()
+                            ? Mono.just(Map.of())
+                            : repository.contarChavesPorConta(contas);
+                    return quantidades.doOnNext(lote::selecionar).thenReturn(lote);
+                })
+                .flatMap(lote -> {
+                    Map<ContaPix, Integer> reservas = lote.reservas();
+                    Mono<Set<ContaPix>> recusadas = reservas.isEmpty()
+                            ? Mono.just(Set.of())
+                            : repository.reservarChaves(reservas, lote.limites());
+                    return recusadas.flatMap(contas -> {
+                        lote.recusar(contas);
+                        contas.forEach(reservas::remove);
+                        return gravarLote(lote, reservas);
+                    });
+                });
+    }
+
+    private Mono<List<PixResultadoLoteDto>> gravarLote(CadastroLote lote, Map<ContaPix, Integer> reservas) {
+        Mono<Map<Integer, String>> duplicadas = lote.chaves().isEmpty()
+                ? Mono.just(Map.of())
+                : repository.inserirLote(lote.chaves())
+                        .onErrorResume(e -> repository.liberarChaves(reservas).then(Mono.error(e)));
+
+        return duplicadas.flatMap(posicoes -> {
+            Map<ContaPix, Integer> liberacoes = lote.registrarGravacao(posicoes, filtroChaves::registrar);
+            Mono<Void> liberacao = liberacoes.isEmpty() ? Mono.empty() : repository.liberarChaves(liberacoes);
+            return liberacao.then(Mono.fromCallable(lote::resultados));
+        });
+    }
+
+    public Mono<PixModelo> alterar(UUID id, PixAlterarRequisicaoDto requisicaoAlterar) {
+        return Mono.defer(() -> {
+            validador.validadorCamposAlterar(id, requisicaoAlterar);
+
+            return gravarAlteracao(repository.alterar(id, requisicaoAlterar))
+                    .switchIfEmpty(Mono.defer(() -> alterarConta(id, requisicaoAlterar)))
+                    .doOnNext(chaveAlterada -> invalidarResolucao(chaveAlterada.getValorChave()));
+        });
+    }
+
+    private Mono<PixModelo> alterarConta(UUID id, PixAlterarRequisicaoDto requisicaoAlterar) {
+        return repository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new NaoEncontradoException(CodigoErro.ID_NAO_ENCONTRADO)))
+                .flatMap(chaveExiste -> {
+                    validador.validadorRequisicaoAlterar(chaveExiste, requisicaoAlterar);
+
+                    ContaPix contaAnterior = new ContaPix(chaveExiste.getNumeroAgencia(), chaveExiste.getNumeroConta());
+                    ContaPix contaNova = PixService.contaAlterada(chaveExiste, requisicaoAlterar);
+                    if (contaNova.equals(contaAnterior)) {
+                        return Mono.error(new ConflitoException(CodigoErro.VERSAO_DESATUALIZADA));
+                    }
+
+                    // A chave que muda de conta ocupa uma vaga na conta nova e libera a da anterior.
+                    return reservarChave(contaNova, chaveExiste.getTipoCorrentista())
+                            .then(Mono.defer(() -> gravarAlteracao(repository.alterarConta(chaveExiste, requisicaoAlterar))
+                                    .switchIfEmpty(Mono.error(() -> new ConflitoException(CodigoErro.VERSAO_DESATUALIZADA)))
+                                    .onErrorResume(e -> repository.liberarChaves(Map.of(contaNova, 1)).then(Mono.error(e)))))
+                            .flatMap(chaveAlterada -> repository.liberarChaves(Map.of(contaAnterior, 1)).thenReturn(chaveAlterada));
+                });
+    }
+
+    private static Mono<PixModelo> gravarAlteracao(Mono<PixModelo> alteracao) {
+        return alteracao.onErrorMap(DuplicateKeyException.class, e -> new ValidacaoException(PixService.codigoDuplicidade(e.getMessage())));
+    }
+
+    /**
+     * Resolve um valor de chave ativo para a conta com o mesmo modelo local,
+     * cache e snapshot do serviço bloqueante; só a ida ao MongoDB é assíncrona.
+     */
+    public Mono<PixModelo> resolver(String valorChave) {
+        PixRepository local = leituraLocal.atualizado();
+        if (local != null) {
+            return Mono.justOrEmpty(local.findByValorChaveAndInativaFalse(valorChave))
+                    .switchIfEmpty(Mono.error(() -> new NaoEncontradoException(CodigoErro.CHAVE_NAO_ENCONTRADA)));
+        }
+        PixModelo chave = cacheResolucao.getIfPresent(valorChave);
+        if (chave != null) {
+            return Mono.just(chave.copia());
+        }
+        chave = diretorio.buscar(valorChave);
+        if (chave != null) {
+            return Mono.just(chave);
+        }
+        long invalidacao = invalidacoes.get();
+        return repository.findByValorChaveAndInativaFalse(valorChave)
+                .switchIfEmpty(Mono.error(() -> new NaoEncontradoException(CodigoErro.CHAVE_NAO_ENCONTRADA)))
+                .doOnNext(encontrada -> guardarResolucao(valorChave, encontrada, invalidacao));
+    }
+
+    /**
+     * Como em {@link PixService}: a entrada sai de novo se houve invalidação
+     * desde o início da leitura.
+     */
+    private void guardarResolucao(String valorChave, PixModelo chave, long invalidacao) {
+        cacheResolucao.put(valorChave, chave.copia());
+        if (invalidacoes.get() != invalidacao) {
+            cacheResolucao.invalidate(valorChave);
+        }
+    }
+
+    private void invalidarResolucao(String valorChave) {
+        if (valorChave != null) {
+            invalidacoes.incrementAndGet();
+            cacheResolucao.invalidate(valorChave);
+            diretorio.invalidar(valorChave);
+        }
+    }
+
+    public Mono<ResponseEntity<List<PixModelo>>> buscar(PixFiltroDto filtro, Integer limite, String cursor) {
+        return Mono.defer(() -> {
+            validador.validadorBuscaFiltros(filtro);
+
+            int tamanhoPagina = tamanhoPagina(limite);
+            CursorPaginacao posicao = cursor != null ? CursorPaginacao.decodificar(cursor) : null;
+
+            // Busca um item além da página para saber se existe continuação.
+            PixRepository local = modeloLocal(filtro);
+            Flux<PixModelo> resultado;
+            if (filtro.isVazio()) {
+                resultado = Flux.empty();
+            } else if (local != null) {
+                resultado = Flux.fromIterable(local.buscarPorFiltros(filtro, posicao, tamanhoPagina + 1));
+            } else {
+                resultado = repository.buscarPorFiltros(filtro, posicao, tamanhoPagina + 1);
+            }
+
+            return pagina(resultado, tamanhoPagina, CursorPaginacao::depoisDe);
+        });
+    }
+
+    public Mono<ResponseEntity<List<PixProjecaoDto>>> buscarCampos(PixFiltroDto filtro, Set<String> campos, Integer limite, String cursor) {
+        return Mono.defer(() -> {
+            validador.validadorBuscaFiltros(filtro);
+            validador.validadorCamposProjecao(campos);
+
+            int tamanhoPagina = tamanhoPagina(limite);
+            CursorPaginacao posicao = cursor != null ? CursorPaginacao.decodificar(cursor) : null;
+
+            PixRepository local = modeloLocal(filtro);
+            Flux<PixProjecaoDto> resultado;
+            if (filtro.isVazio()) {
+                resultado = Flux.empty();
+            } else if (local != null) {
+                resultado = Flux.fromIterable(local.buscarCamposPorFiltros(filtro, campos, posicao, tamanhoPagina + 1));
+            } else {
+                resultado = repository.buscarCamposPorFiltros(filtro, campos, posicao, tamanhoPagina + 1);
+            }
+
+            return pagina(resultado, tamanhoPagina, chave -> new CursorPaginacao(chave.getDataHoraInclusao(), chave.getId()))
+                    .doOnNext(resposta -> resposta.getBody().forEach(chave -> chave.descartarChavesPaginacao(campos)));
+        });
+    }
+
+    /**
+     * O modelo de leitura local, se estiver em dia, ou {@code null} para ir ao
+     * MongoDB. Chaves arquivadas só existem no MongoDB.
+     */
+    private PixRepository modeloLocal(PixFiltroDto filtro) {
+        return filtro.isArquivadas() ? null : leituraLocal.atualizado();
+    }
+
+    private int tamanhoPagina(Integer limite) {
+        int tamanhoPagina = limite != null ? limite : PixService.LIMITE_PAGINA_PADRAO;
+        validador.validadorTamanhoPagina(tamanhoPagina, PixService.LIMITE_PAGINA_MAXIMO);
+        return tamanhoPagina;
+    }
+
+    private static <T> Mono<ResponseEntity<List<T>>> pagina(Flux<T> resultado, int tamanhoPagina, Function<T, CursorPaginacao> posicao) {
+        return resultado.collectList()
+                .map(chaves -> PixService.pagina(chaves, tamanhoPagina, posicao));
+    }
+
+    /**
+     * Exportação NDJSON: o WebFlux escreve cada chave assim que ela sai do
+     * cursor, com contrapressão sobre o MongoDB em vez de uma thread bloqueada.
+     */
+    public Flux<PixModelo> exportar(PixFiltroDto filtro) {
+        return Flux.defer(() -> {
+            validador.validadorBuscaFiltros(filtro);
+
+            if (filtro.isVazio()) {
+                return Flux.error(new RequisicaoInvalidaException(CodigoErro.EXPORTACAO_SEM_FILTRO));
+            }
+            PixRepository local = modeloLocal(filtro);
+            return local != null
+                    ? Flux.fromStream(() -> local.exportarPorFiltros(filtro))
+                    : repository.exportarPorFiltros(filtro);
+        });
+    }
+
+    public Mono<PixModelo> desativar(UUID id) {
+        return Mono.defer(() -> {
+            LocalDateTime dataHoraInativacao = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            return repository.desativar(id, dataHoraInativacao)
+                    .switchIfEmpty(Mono.error(() -> new NaoEncontradoException(CodigoErro.ID_NAO_ENCONTRADO)))
+                    .flatMap(chaveDesativada -> {
+                        validador.validadorChaveAtiva(chaveDesativada);
+
+                        chaveDesativada.setInativa(true);
+                        chaveDesativada.setDataHoraInativacao(dataHoraInativacao);
+                        return repository
+                                .liberarChaves(Map.of(new ContaPix(chaveDesativada.getNumeroAgencia(), chaveDesativada.getNumeroConta()), 1))
+                                .thenReturn(chaveDesativada);
+                    })
+                    .doOnNext(chaveDesativada -> invalidarResolucao(chaveDesativada.getValorChave()));
+        });
+    }
+
+    public Mono<PixDesativacaoLoteDto> desativarLote(PixDesativarLoteDto selecao) {
+        return Mono.defer(() -> {
+            validador.validadorDesativacaoLote(selecao, PixService.LIMITE_LOTE);
+
+            LocalDateTime dataHoraInativacao = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            String loteDesativacao = UUID.randomUUID().toString();
+            return repository.desativarEmLote(selecao, dataHoraInativacao, loteDesativacao)
+                    .flatMap(desativadas -> (desativadas == 0
+                            ? Mono.just(List.<PixModelo>of())
+                            : repository.buscarDesativadas(selecao, loteDesativacao).collectList())
+                            .flatMap(chaves -> {
+                                List<String> ids = new ArrayList<>(chaves.size());
+                                Map<ContaPix, Integer> liberacoes = new HashMap<>();
+                                for (PixModelo chave : chaves) {
+                                    ids.add(chave.getId());
+                                    liberacoes.merge(new ContaPix(chave.getNumeroAgencia(), chave.getNumeroConta()), 1, Integer::sum);
+                                    invalidarResolucao(chave.getValorChave());
+                                }
+                                Mono<Void> liberacao = liberacoes.isEmpty() ? Mono.empty() : repository.liberarChaves(liberacoes);
+                                Mono<Void> encerramento = chaves.isEmpty() ? Mono.empty() : repository.encerrarLote(selecao, loteDesativacao);
+                                return encerramento.then(liberacao).thenReturn(new PixDesativacaoLoteDto(desativadas, dataHoraInativacao, ids));
+                            }));
+        });
+    }
+}
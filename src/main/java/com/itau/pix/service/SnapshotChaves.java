@@ -0,0 +1,360 @@
+package com.itau.pix.service;
+
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.enums.TipoCorrentista;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Snapshot somente leitura das chaves ativas em um arquivo mapeado em memória,
+ * para resolver valorChave sem manter as chaves no heap.
+ *
+ * <p>O arquivo tem um cabeçalho, um índice com o prefixo do hash de cada
+ * valorChave em ordem crescente e, na mesma ordem, um registro de largura fixa
+ * por chave com id, versão, tipos, conta e correntista (textos em ISO-8859-1).
+ * {@link #localizar} faz a busca binária no índice e compara o valor gravado
+ * com o procurado sem alocar objetos; só {@link #chave} monta o PixModelo.</p>
+ *
+ * <p>Chaves que não cabem no registro (id que não é UUID, texto maior que o
+ * campo ou fora de ISO-8859-1) ficam de fora e são contadas em
+ * {@link #getIgnoradas}; quem consulta o snapshot segue para o repositório
+ * quando a chave não é encontrada.</p>
+ */
+public final class SnapshotChaves {
+
+    private static final int MAGICO = 0x50495853;
+    private static final int VERSAO_FORMATO = 1;
+    // Mágico, versão do formato, quantidade, ignoradas e data de geração.
+    private static final int CABECALHO = 24;
+
+    private static final int LARGURA_VALOR_CHAVE = 77;
+    private static final int LARGURA_TIPO_CONTA = 10;
+    private static final int LARGURA_AGENCIA = 4;
+    private static final int LARGURA_CONTA = 8;
+    private static final int LARGURA_NOME = 30;
+    private static final int LARGURA_SOBRENOME = 45;
+
+    // Posições no registro; cada texto é precedido de um byte com o tamanho.
+    private static final int ID = 0;
+    private static final int VERSAO = 16;
+    private static final int INCLUSAO = 24;
+    private static final int TIPO_CHAVE = 32;
+    private static final int TIPO_CORRENTISTA = 33;
+    private static final int VALOR_CHAVE = 34;
+    private static final int TIPO_CONTA = VALOR_CHAVE + 1 + LARGURA_VALOR_CHAVE;
+    private static final int AGENCIA = TIPO_CONTA + 1 + LARGURA_TIPO_CONTA;
+    private static final int CONTA = AGENCIA + 1 + LARGURA_AGENCIA;
+    private static final int NOME = CONTA + 1 + LARGURA_CONTA;
+    private static final int SOBRENOME = NOME + 1 + LARGURA_NOME;
+    static final int TAMANHO_REGISTRO = SOBRENOME + 1 + LARGURA_SOBRENOME;
+
+    private static final int TEXTO_NULO = 0xFF;
+    private static final long NUMERO_NULO = Long.MIN_VALUE;
+
+    // Na gravação, os bits de baixo de cada entrada do índice levam a posição de
+    // chegada do registro, para ordenar um único long[] por prefixo.
+    private static final int BITS_POSICAO = 28;
+    private static final long MASCARA_POSICAO = (1L << BITS_POSICAO) - 1;
+    // O índice é mapeado em um único buffer.
+    static final int MAXIMO_CHAVES = (Integer.MAX_VALUE - CABECALHO) / Long.BYTES;
+
+    // Os registros são mapeados em segmentos de 2^20 registros.
+    private static final int BITS_SEGMENTO = 20;
+    private static final int MASCARA_SEGMENTO = (1 << BITS_SEGMENTO) - 1;
+
+    private final ByteBuffer indice;
+    private final ByteBuffer[] registros;
+    private final int quantidade;
+    private final int ignoradas;
+    private final Instant geradoEm;
+
+    private SnapshotChaves(ByteBuffer indice, ByteBuffer[] registros, int quantidade, int ignoradas, Instant geradoEm) {
+        this.indice = indice;
+        this.registros = registros;
+        this.quantidade = quantidade;
+        this.ignoradas = ignoradas;
+        this.geradoEm = geradoEm;
+    }
+
+    /**
+     * Grava as chaves em {@code arquivo} e abre o snapshot gravado. O arquivo
+     * anterior só é substituído, de forma atômica, quando o novo está completo;
+     * quem ainda o tem mapeado continua lendo a versão anterior.
+     *
+     * <p>Os registros são gravados na ordem de chegada em um arquivo auxiliar
+     * e copiados na ordem do índice; no heap fica só o índice, 8 bytes por chave.</p>
+     */
+    public static SnapshotChaves gravar(Stream<PixModelo> chaves, Path arquivo) throws IOException {
+        Path chegada = arquivo.resolveSibling(arquivo.getFileName() + ".registros");
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try {
+            long[] ordem = new long[1 << 16];
+            int quantidade = 0;
+            int ignoradas = 0;
+            byte[] registro = new byte[TAMANHO_REGISTRO];
+            ByteBuffer buffer = ByteBuffer.wrap(registro);
+
+            try (OutputStream saida = new BufferedOutputStream(Files.newOutputStream(chegada), 1 << 16)) {
+                Iterator<PixModelo> iterador = chaves.iterator();
+                while (iterador.hasNext()) {
+                    PixModelo chave = iterador.next();
+                    Arrays.fill(registro, (byte) 0);
+                    if (!codificar(chave, buffer)) {
+                        ignoradas++;
+                        continue;
+                    }
+                    if (quantidade == MAXIMO_CHAVES) {
+                        throw new IllegalStateException("O snapshot comporta no máximo " + MAXIMO_CHAVES + " chaves.");
+                    }
+                    if (quantidade == ordem.length) {
+                        ordem = Arrays.copyOf(ordem, Math.min(ordem.length * 2, MAXIMO_CHAVES));
+                    }
+                    ordem[quantidade] = prefixo(chave.getValorChave()) << BITS_POSICAO | quantidade;
+                    saida.write(registro);
+                    quantidade++;
+                }
+            }
+            Arrays.sort(ordem, 0, quantidade);
+
+            try (FileChannel lidos = FileChannel.open(chegada, StandardOpenOption.READ);
+                 FileChannel canal = FileChannel.open(temporario,
+                         StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16))) {
+                ByteBuffer[] naChegada = mapear(lidos, 0, quantidade);
+
+                saida.writeInt(MAGICO);
+                saida.writeInt(VERSAO_FORMATO);
+                saida.writeInt(quantidade);
+                saida.writeInt(ignoradas);
+                saida.writeLong(System.currentTimeMillis());
+                for (int i = 0; i < quantidade; i++) {
+                    saida.writeLong(ordem[i] >>> BITS_POSICAO);
+                }
+                for (int i = 0; i < quantidade; i++) {
+                    int posicao = (int) (ordem[i] & MASCARA_POSICAO);
+                    naChegada[posicao >>> BITS_SEGMENTO].get(deslocamento(posicao), registro);
+                    saida.write(registro);
+                }
+                saida.flush();
+                canal.force(true);
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(chegada);
+            Files.deleteIfExists(temporario);
+        }
+        return abrir(arquivo);
+    }
+
+    public static SnapshotChaves abrir(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            if (canal.size() < CABECALHO) {
+                throw new IOException("Snapshot de chaves inválido: " + arquivo);
+            }
+            ByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, CABECALHO);
+            if (cabecalho.getInt(0) != MAGICO || cabecalho.getInt(4) != VERSAO_FORMATO) {
+                throw new IOException("Snapshot de chaves inválido: " + arquivo);
+            }
+
+            int quantidade = cabecalho.getInt(8);
+            long inicioRegistros = CABECALHO + (long) quantidade * Long.BYTES;
+            if (quantidade < 0 || quantidade > MAXIMO_CHAVES
+                    || canal.size() != inicioRegistros + (long) quantidade * TAMANHO_REGISTRO) {
+                throw new IOException("Snapshot de chaves incompleto: " + arquivo);
+            }
+
+            return new SnapshotChaves(
+                    canal.map(FileChannel.MapMode.READ_ONLY, 0, inicioRegistros),
+                    mapear(canal, inicioRegistros, quantidade),
+                    quantidade,
+                    cabecalho.getInt(12),
+                    Instant.ofEpochMilli(cabecalho.getLong(16)));
+        }
+    }
+
+    /**
+     * Posição da chave ativa com {@code valorChave}, ou -1 se não estiver no snapshot.
+     */
+    public int localizar(String valorChave) {
+        long prefixo = prefixo(valorChave);
+
+        int inicio = 0;
+        int fim = quantidade;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (prefixoNaPosicao(meio) < prefixo) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+
+        for (int posicao = inicio; posicao < quantidade && prefixoNaPosicao(posicao) == prefixo; posicao++) {
+            if (mesmoValor(posicao, valorChave)) {
+                return posicao;
+            }
+        }
+        return -1;
+    }
+
+    public PixModelo chave(int posicao) {
+        ByteBuffer segmento = registros[posicao >>> BITS_SEGMENTO];
+        int base = deslocamento(posicao);
+
+        PixModelo chave = new PixModelo();
+        chave.setId(new UUID(segmento.getLong(base + ID), segmento.getLong(base + ID + Long.BYTES)).toString());
+        chave.setVersao(numero(segmento.getLong(base + VERSAO)));
+        Long inclusao = numero(segmento.getLong(base + INCLUSAO));
+        if (inclusao != null) {
+            chave.setDataHoraInclusao(LocalDateTime.ofInstant(Instant.ofEpochMilli(inclusao), ZoneOffset.UTC));
+        }
+        int tipoChave = segmento.get(base + TIPO_CHAVE);
+        chave.setTipoChave(tipoChave == 0 ? null : TipoChave.doCodigo(tipoChave));
+        int tipoCorrentista = segmento.get(base + TIPO_CORRENTISTA);
+        chave.setTipoCorrentista(tipoCorrentista == 0 ? null : TipoCorrentista.doCodigo(tipoCorrentista));
+        chave.setValorChave(texto(segmento, base + VALOR_CHAVE));
+        chave.setTipoConta(texto(segmento, base + TIPO_CONTA));
+        chave.setNumeroAgencia(texto(segmento, base + AGENCIA));
+        chave.setNumeroConta(texto(segmento, base + CONTA));
+        chave.setNomeCorrentista(texto(segmento, base + NOME));
+        chave.setSobrenomeCorrentista(texto(segmento, base + SOBRENOME));
+        return chave;
+    }
+
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    public int getIgnoradas() {
+        return ignoradas;
+    }
+
+    public Instant getGeradoEm() {
+        return geradoEm;
+    }
+
+    private long prefixoNaPosicao(int posicao) {
+        return indice.getLong(CABECALHO + posicao * Long.BYTES);
+    }
+
+    private boolean mesmoValor(int posicao, String valorChave) {
+        ByteBuffer segmento = registros[posicao >>> BITS_SEGMENTO];
+        int inicio = deslocamento(posicao) + VALOR_CHAVE;
+        if ((segmento.get(inicio) & 0xFF) != valorChave.length()) {
+            return false;
+        }
+        for (int i = 0; i < valorChave.length(); i++) {
+            if ((segmento.get(inicio + 1 + i) & 0xFF) != valorChave.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Prefixo de 35 bits: com a posição de 28 bits, a entrada da gravação continua positiva.
+    private static long prefixo(String valorChave) {
+        return FiltroBloom.hash(valorChave) >>> (BITS_POSICAO + 1);
+    }
+
+    private static int deslocamento(int posicao) {
+        return (posicao & MASCARA_SEGMENTO) * TAMANHO_REGISTRO;
+    }
+
+    private static ByteBuffer[] mapear(FileChannel canal, long inicio, int quantidade) throws IOException {
+        ByteBuffer[] segmentos = new ByteBuffer[(quantidade + MASCARA_SEGMENTO) >>> BITS_SEGMENTO];
+        for (int i = 0; i < segmentos.length; i++) {
+            int registrosSegmento = Math.min(quantidade - (i << BITS_SEGMENTO), 1 << BITS_SEGMENTO);
+            segmentos[i] = canal.map(FileChannel.MapMode.READ_ONLY,
+                    inicio + ((long) i << BITS_SEGMENTO) * TAMANHO_REGISTRO,
+                    (long) registrosSegmento * TAMANHO_REGISTRO);
+        }
+        return segmentos;
+    }
+
+    private static boolean codificar(PixModelo chave, ByteBuffer registro) {
+        UUID id = uuidCanonico(chave.getId());
+        if (id == null || chave.getValorChave() == null) {
+            return false;
+        }
+
+        registro.putLong(ID, id.getMostSignificantBits());
+        registro.putLong(ID + Long.BYTES, id.getLeastSignificantBits());
+        registro.putLong(VERSAO, chave.getVersao() == null ? NUMERO_NULO : chave.getVersao());
+        registro.putLong(INCLUSAO, chave.getDataHoraInclusao() == null
+                ? NUMERO_NULO
+                : chave.getDataHoraInclusao().toInstant(ZoneOffset.UTC).toEpochMilli());
+        registro.put(TIPO_CHAVE, (byte) (chave.getTipoChave() == null ? 0 : chave.getTipoChave().getCodigo()));
+        registro.put(TIPO_CORRENTISTA, (byte) (chave.getTipoCorrentista() == null ? 0 : chave.getTipoCorrentista().getCodigo()));
+        return texto(registro, VALOR_CHAVE, LARGURA_VALOR_CHAVE, chave.getValorChave())
+                && texto(registro, TIPO_CONTA, LARGURA_TIPO_CONTA, chave.getTipoConta())
+                && texto(registro, AGENCIA, LARGURA_AGENCIA, chave.getNumeroAgencia())
+                && texto(registro, CONTA, LARGURA_CONTA, chave.getNumeroConta())
+                && texto(registro, NOME, LARGURA_NOME, chave.getNomeCorrentista())
+                && texto(registro, SOBRENOME, LARGURA_SOBRENOME, chave.getSobrenomeCorrentista());
+    }
+
+    private static boolean texto(ByteBuffer registro, int inicio, int largura, String valor) {
+        if (valor == null) {
+            registro.put(inicio, (byte) TEXTO_NULO);
+            return true;
+        }
+        if (valor.length() > largura) {
+            return false;
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c > 0xFF) {
+                return false;
+            }
+            registro.put(inicio + 1 + i, (byte) c);
+        }
+        registro.put(inicio, (byte) valor.length());
+        return true;
+    }
+
+    private static String texto(ByteBuffer segmento, int inicio) {
+        int tamanho = segmento.get(inicio) & 0xFF;
+        if (tamanho == TEXTO_NULO) {
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        segmento.get(inicio + 1, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static Long numero(long valor) {
+        return valor == NUMERO_NULO ? null : valor;
+    }
+
+    // Só o formato canônico, para o id lido de volta ser o mesmo texto.
+    private static UUID uuidCanonico(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -1,163 +1,223 @@
 package com.itau.pix.validator;
 
+import com.itau.pix.exception.CodigoErro;
+import com.itau.pix.exception.ConflitoException;
 import com.itau.pix.exception.NaoAutorizadoException;
 import com.itau.pix.exception.NaoEncontradoException;
 import com.itau.pix.exception.RequisicaoInvalidaException;
 import com.itau.pix.exception.ValidacaoException;
 import com.itau.pix.model.PixModelo;
-import com.itau.pix.model.enums.TipoChave;
 import com.itau.pix.model.dto.PixRequisicaoDto;
 import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixProjecaoDto;
 import com.itau.pix.model.enums.TipoCorrentista;
-import com.itau.pix.repository.PixRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.util.List;
+import java.time.LocalDate;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Component
 public class PixValidadorStrategy {
 
+    public static final int LIMITE_CHAVES_FISICA = 5;
+    public static final int LIMITE_CHAVES_JURIDICA = 20;
+
     private final ValidadorPixFactory validador;
-    private final PixRepository repository;
+    private final Validator validadorCampos;
 
     @Autowired
-    public PixValidadorStrategy(ValidadorPixFactory validationFactory, PixRepository repository) {
+    public PixValidadorStrategy(ValidadorPixFactory validationFactory, Validator validadorCampos) {
         this.validador = validationFactory;
-        this.repository = repository;
+        this.validadorCampos = validadorCampos;
     }
 
+    /**
+     * Formato e campos obrigatórios. O limite de chaves por conta é aplicado
+     * pelo serviço ao reservar o contador da conta ({@link #limiteChaves}).
+     */
     public void validadorRequisicao(PixRequisicaoDto requisicao) {
+        validarCamposObrigatorios(requisicao);
         ValidadorPix strategy = validador.getStrategy(requisicao.getTipoChave());
         strategy.validate(requisicao);
+    }
+
+    /**
+     * Validação de um item de lote: as anotações do DTO (que no cadastro
+     * unitário o @Valid do controller aplica) e o formato da chave, sem
+     * consultar o banco.
+     */
+    public void validadorItemLote(PixRequisicaoDto requisicao) {
+        Set<ConstraintViolation<PixRequisicaoDto>> violacoes = validadorCampos.validate(requisicao);
+        if (!violacoes.isEmpty()) {
+            throw new RequisicaoInvalidaException(CodigoErro.CAMPO_INVALIDO, violacoes.iterator().next().getMessage());
+        }
+
+        validador.getStrategy(requisicao.getTipoChave()).validate(requisicao);
         validarCamposObrigatorios(requisicao);
+    }
 
-        validarLimiteChave(requisicao);
-        validarDuplicidade(requisicao);
+    public void validadorTamanhoLote(int tamanho, int limiteMaximo) {
+        if (tamanho < 1 || tamanho > limiteMaximo) {
+            throw new RequisicaoInvalidaException(CodigoErro.TAMANHO_LOTE_INVALIDO, "O lote deve ter entre 1 e " + limiteMaximo + " chaves.");
+        }
+    }
+
+    public void validadorDesativacaoLote(PixDesativarLoteDto selecao, int limiteMaximo) {
+        boolean porIds = selecao.getIds() != null && !selecao.getIds().isEmpty();
+        boolean porConta = selecao.getNumeroAgencia() != null || selecao.getNumeroConta() != null;
+
+        if (porIds == porConta) {
+            throw new RequisicaoInvalidaException(CodigoErro.SELECAO_DESATIVACAO_INVALIDA);
+        }
+
+        if (porIds) {
+            validadorTamanhoLote(selecao.getIds().size(), limiteMaximo);
+            return;
+        }
+
+        if (selecao.getNumeroAgencia() == null || !ValidadorCaracteres.somenteDigitos(selecao.getNumeroAgencia(), 4)) {
+            throw new RequisicaoInvalidaException(CodigoErro.AGENCIA_INVALIDA);
+        }
+        if (selecao.getNumeroConta() == null || !ValidadorCaracteres.somenteDigitos(selecao.getNumeroConta(), 8)) {
+            throw new RequisicaoInvalidaException(CodigoErro.CONTA_INVALIDA);
+        }
+    }
+
+    public int limiteChaves(TipoCorrentista tipoCorrentista) {
+        if (tipoCorrentista == TipoCorrentista.FISICA) {
+            return LIMITE_CHAVES_FISICA;
+        } else if (tipoCorrentista == TipoCorrentista.JURIDICA) {
+            return LIMITE_CHAVES_JURIDICA;
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    public void validadorLimiteChave(TipoCorrentista tipoCorrentista, long qtdChave) {
+        if (tipoCorrentista == TipoCorrentista.FISICA && qtdChave >= LIMITE_CHAVES_FISICA) {
+            throw new NaoEncontradoException(CodigoErro.LIMITE_CHAVES_FISICA);
+        } else if (tipoCorrentista == TipoCorrentista.JURIDICA && qtdChave >= LIMITE_CHAVES_JURIDICA) {
+            throw new NaoAutorizadoException(CodigoErro.LIMITE_CHAVES_JURIDICA);
+        }
     }
 
     public void validadorRequisicaoAlterar(PixModelo chaveExiste, PixAlterarRequisicaoDto requisicaoAlterar) {
         validarImutabilidadeCampos(chaveExiste, requisicaoAlterar);
 
         if (chaveExiste.isInativa()) {
-            throw new ValidacaoException("Não é permitido alterar uma chave inativa.");
+            throw new ValidacaoException(CodigoErro.CHAVE_INATIVA);
+        }
+
+        if (requisicaoAlterar.getVersao() != null && !requisicaoAlterar.getVersao().equals(chaveExiste.getVersao())) {
+            throw new ConflitoException(CodigoErro.VERSAO_DESATUALIZADA);
+        }
+
+        validarCamposAlteraveis(requisicaoAlterar);
+    }
+
+    /**
+     * Regras da alteração que não dependem da chave gravada, conferidas antes
+     * de ir ao banco. As demais viram condições do próprio update.
+     */
+    public void validadorCamposAlterar(UUID id, PixAlterarRequisicaoDto requisicaoAlterar) {
+        if (requisicaoAlterar.getId() != null && !id.toString().equals(requisicaoAlterar.getId())) {
+            throw new ValidacaoException(CodigoErro.ID_INALTERAVEL);
         }
 
         validarCamposAlteraveis(requisicaoAlterar);
     }
 
-    public void validadorBuscaFiltros(
-            UUID id,
-            TipoChave tipoChave,
-            String numeroAgencia,
-            String numeroConta,
-            String nomeCorrentista,
-            LocalDateTime dataHoraInclusao,
-            LocalDateTime dataHoraInativacao
-    ) {
-        if (id != null && (tipoChave != null || numeroAgencia != null || numeroConta != null ||
-                nomeCorrentista != null || dataHoraInclusao != null || dataHoraInativacao != null)) {
-            throw new RequisicaoInvalidaException("Se informar o ID, nenhum outro filtro pode ser usado.");
+    public void validadorBuscaFiltros(PixFiltroDto filtro) {
+        if (filtro.getId() != null && (filtro.getTipoChave() != null || filtro.getNumeroAgencia() != null ||
+                filtro.getNumeroConta() != null || filtro.getNomeCorrentista() != null ||
+                filtro.isPorInclusao() || filtro.isPorInativacao())) {
+            throw new RequisicaoInvalidaException(CodigoErro.FILTRO_ID_EXCLUSIVO);
         }
+        validarPeriodo(filtro.getDataInclusaoInicio(), filtro.getDataInclusaoFim());
+        validarPeriodo(filtro.getDataInativacaoInicio(), filtro.getDataInativacaoFim());
     }
 
-    public void validadorChaveAtiva(PixModelo chave) {
-        if (chave.isInativa()) {
-            throw new ValidacaoException("A chave já está desativada.");
+    private void validarPeriodo(LocalDate inicio, LocalDate fim) {
+        if (inicio != null && fim != null && inicio.isAfter(fim)) {
+            throw new RequisicaoInvalidaException(CodigoErro.PERIODO_INVALIDO);
+        }
+    }
+
+    public void validadorTamanhoPagina(int limite, int limiteMaximo) {
+        if (limite < 1 || limite > limiteMaximo) {
+            throw new RequisicaoInvalidaException(CodigoErro.TAMANHO_PAGINA_INVALIDO, "O limite da página deve estar entre 1 e " + limiteMaximo + ".");
         }
     }
 
-    public List<PixModelo> filtroChaveInativa(List<PixModelo> chaves) {
-        return chaves.stream()
-                .filter(pixKey -> !pixKey.isInativa())
-                .collect(Collectors.toList());
+    public void validadorCamposProjecao(Set<String> campos) {
+        for (String campo : campos) {
+            if (!PixProjecaoDto.CAMPOS.contains(campo)) {
+                throw new RequisicaoInvalidaException(CodigoErro.CAMPO_PROJECAO_INVALIDO, "Campo inválido em fields: " + campo + ".");
+            }
+        }
+    }
+
+    public void validadorChaveAtiva(PixModelo chave) {
+        if (chave.isInativa()) {
+            throw new ValidacaoException(CodigoErro.CHAVE_JA_DESATIVADA);
+        }
     }
 
     private void validarCamposObrigatorios(PixRequisicaoDto requisicao) {
         if (requisicao.getTipoChave() == null || requisicao.getValorChave() == null ||
                 requisicao.getTipoConta() == null || requisicao.getNumeroAgencia() == null ||
                 requisicao.getNumeroConta() == null || requisicao.getNomeCorrentista() == null) {
-            throw new ValidacaoException("Todos os campos obrigatórios devem ser informados.");
+            throw new ValidacaoException(CodigoErro.CAMPOS_OBRIGATORIOS);
         }
     }
 
     private void validarImutabilidadeCampos(PixModelo chaveExiste, PixAlterarRequisicaoDto requisicaoAlterar) {
         if (requisicaoAlterar.getId() != null && !chaveExiste.getId().equals(requisicaoAlterar.getId())) {
-            throw new ValidacaoException("O ID da chave não pode ser alterado.");
+            throw new ValidacaoException(CodigoErro.ID_INALTERAVEL);
         }
 
         if (requisicaoAlterar.getTipoChave() != null && !chaveExiste.getTipoChave().equals(requisicaoAlterar.getTipoChave())) {
-            throw new ValidacaoException("O tipo da chave não pode ser alterado.");
+            throw new ValidacaoException(CodigoErro.TIPO_CHAVE_INALTERAVEL);
         }
 
         if (requisicaoAlterar.getValorChave() != null && !chaveExiste.getValorChave().equals(requisicaoAlterar.getValorChave())) {
-            throw new ValidacaoException("O valor da chave não pode ser alterado.");
+            throw new ValidacaoException(CodigoErro.VALOR_CHAVE_INALTERAVEL);
         }
     }
 
     private void validarCamposAlteraveis(PixAlterarRequisicaoDto requisicao) {
         if (requisicao.getTipoConta() != null) {
-            if (!requisicao.getTipoConta().matches("^(corrente|poupanca)$")) {
-                throw new RequisicaoInvalidaException("Tipo de conta inválido. Deve ser 'corrente' ou 'poupanca'.");
+            String tipoConta = requisicao.getTipoConta();
+            if (!tipoConta.equals("corrente") && !tipoConta.equals("poupança")) {
+                throw new RequisicaoInvalidaException(CodigoErro.TIPO_CONTA_INVALIDO);
             }
         }
 
-        if (requisicao.getNumeroAgencia() != null && !requisicao.getNumeroAgencia().matches("^\\d{4}$")) {
-            throw new RequisicaoInvalidaException("Número da agência inválido. Deve ter exatamente 4 dígitos.");
+        if (requisicao.getNumeroAgencia() != null && !ValidadorCaracteres.somenteDigitos(requisicao.getNumeroAgencia(), 4)) {
+            throw new RequisicaoInvalidaException(CodigoErro.AGENCIA_INVALIDA);
         }
 
-        if (requisicao.getNumeroConta() != null && !requisicao.getNumeroConta().matches("^\\d{8}$")) {
-            throw new RequisicaoInvalidaException("Número da conta inválido. Deve ter exatamente 8 dígitos.");
+        if (requisicao.getNumeroConta() != null && !ValidadorCaracteres.somenteDigitos(requisicao.getNumeroConta(), 8)) {
+            throw new RequisicaoInvalidaException(CodigoErro.CONTA_INVALIDA);
         }
 
         if (requisicao.getNomeCorrentista() != null) {
             String nome = requisicao.getNomeCorrentista().trim();
             if (nome.isEmpty() || nome.length() > 30) {
-                throw new RequisicaoInvalidaException("Nome do correntista inválido. Não pode ser em branco e deve ter no máximo 30 caracteres.");
+                throw new RequisicaoInvalidaException(CodigoErro.NOME_CORRENTISTA_INVALIDO);
             }
         }
 
         if (requisicao.getSobrenomeCorrentista() != null) {
             String sobrenome = requisicao.getSobrenomeCorrentista().trim();
             if (sobrenome.length() > 45) {
-                throw new RequisicaoInvalidaException("Sobrenome do correntista inválido. Deve ter no máximo 45 caracteres.");
-            }
-        }
-    }
-
-    private void validarDuplicidade(PixRequisicaoDto requisicao) {
-        if (repository.existsByValorChave(requisicao.getValorChave())) {
-            throw new ValidacaoException("Já existe uma chave cadastrada com esse valor.");
-        }
-
-        if (requisicao.getTipoCorrentista() == TipoCorrentista.FISICA) {
-            if (repository.existsByTipoChaveAndNumeroConta(
-                    requisicao.getTipoChave().name(),
-                    requisicao.getNumeroConta())) {
-                throw new ValidacaoException("Já existe uma chave desse tipo cadastrada para essa conta.");
+                throw new RequisicaoInvalidaException(CodigoErro.SOBRENOME_CORRENTISTA_INVALIDO);
             }
-
-            if (repository.existsByValorChaveAndNomeCorrentista(
-                    requisicao.getValorChave(),
-                    requisicao.getNomeCorrentista())) {
-                throw new ValidacaoException("Já existe uma chave cadastrada com esse valor para outro correntista.");
-            }
-        }
-    }
-
-    private void validarLimiteChave(PixRequisicaoDto requisicao) {
-        long qtdChave = repository.countByNumeroAgenciaAndNumeroConta(
-                requisicao.getNumeroAgencia(),
-                requisicao.getNumeroConta()
-        );
-
-        if (requisicao.getTipoCorrentista() == TipoCorrentista.FISICA && qtdChave >= 5) {
-            throw new NaoEncontradoException("Limite de 5 chaves atingido para conta de pessoa física.");
-        } else if (requisicao.getTipoCorrentista() == TipoCorrentista.JURIDICA && qtdChave >= 20) {
-            throw new NaoAutorizadoException("Limite de 20 chaves atingido para conta de pessoa jurídica.");
         }
     }
 }
@@ -1,65 +1,56 @@
 package com.itau.pix.validator;
 
+import com.itau.pix.exception.CodigoErro;
 import com.itau.pix.exception.ValidacaoException;
 import com.itau.pix.model.dto.PixRequisicaoDto;
 import org.springframework.stereotype.Component;
 
-import java.util.InputMismatchException;
-
 @Component
 public class ValidadorCNPJ implements ValidadorPix{
+    private static final int TAMANHO = 14;
+
     @Override
     public void validate(PixRequisicaoDto requisicao) {
-        String valorChave = requisicao.getValorChave();
-        if (!valorChave.matches("^\\d{14}$") || !isValidCnpj(valorChave)) {
-            throw new ValidacaoException("Valor de CNPJ inválido.");
+        if (!isValidCnpj(requisicao.getValorChave())) {
+            throw new ValidacaoException(CodigoErro.CNPJ_INVALIDO);
         }
     }
 
     private boolean isValidCnpj(String cnpj) {
-        cnpj = cnpj.replaceAll("[^\\d]", "");
-
-        if (cnpj.length() != 14) {
+        if (cnpj.length() != TAMANHO) {
             return false;
         }
 
-        try {
-            char dig13, dig14;
-            int sm, i, r, num, peso;
+        int sm13 = 0;
+        int sm14 = 0;
 
-            sm = 0;
-            peso = 2;
-            for (i = 11; i >= 0; i--) {
-                num = (int) (cnpj.charAt(i) - 48);
-                sm += (num * peso);
-                peso = peso == 9 ? 2 : peso + 1;
+        // Pesos ciclam de 2 a 9 da direita para a esquerda; o 14º dígito
+        // desloca a janela em uma posição em relação ao 13º.
+        for (int i = 0; i < TAMANHO; i++) {
+            char c = cnpj.charAt(i);
+            if (!ValidadorCaracteres.isDigito(c)) {
+                return false;
             }
 
-            r = sm % 11;
-            if ((r == 0) || (r == 1)) {
-                dig13 = '0';
-            } else {
-                dig13 = (char) ((11 - r) + 48);
+            int num = c - '0';
+            if (i < 12) {
+                sm13 += num * peso(11 - i);
             }
-
-            sm = 0;
-            peso = 2;
-            for (i = 12; i >= 0; i--) {
-                num = (int) (cnpj.charAt(i) - 48);
-                sm += (num * peso);
-                peso = peso == 9 ? 2 : peso + 1;
+            if (i < 13) {
+                sm14 += num * peso(12 - i);
             }
+        }
 
-            r = sm % 11;
-            if ((r == 0) || (r == 1)) {
-                dig14 = '0';
-            } else {
-                dig14 = (char) ((11 - r) + 48);
-            }
+        return digitoVerificador(sm13) == cnpj.charAt(12) - '0'
+                && digitoVerificador(sm14) == cnpj.charAt(13) - '0';
+    }
 
-            return (dig13 == cnpj.charAt(12)) && (dig14 == cnpj.charAt(13));
-        } catch (InputMismatchException e) {
-            return false;
-        }
+    private static int peso(int distanciaDireita) {
+        return 2 + (distanciaDireita % 8);
+    }
+
+    private static int digitoVerificador(int soma) {
+        int r = soma % 11;
+        return r < 2 ? 0 : 11 - r;
     }
 }
@@ -1,65 +1,57 @@
 package com.itau.pix.validator;
 
+import com.itau.pix.exception.CodigoErro;
 import com.itau.pix.exception.ValidacaoException;
 import com.itau.pix.model.dto.PixRequisicaoDto;
 import org.springframework.stereotype.Component;
 
-import java.util.InputMismatchException;
-
 @Component
 public class ValidadorCPF implements ValidadorPix{
+    private static final int TAMANHO = 11;
+
     @Override
     public void validate(PixRequisicaoDto requisicao) {
-        String valorChave = requisicao.getValorChave();
-        if (!valorChave.matches("^\\d{11}$") || !isValidCpf(valorChave)) {
-            throw new ValidacaoException("Valor de CPF inválido.");
+        if (!isValidCpf(requisicao.getValorChave())) {
+            throw new ValidacaoException(CodigoErro.CPF_INVALIDO);
         }
     }
 
     private boolean isValidCpf(String cpf) {
-        cpf = cpf.replaceAll("[^\\d]", "");
-
-        if (cpf.length() != 11 || cpf.matches("(\\d)\\1{10}")) {
+        if (cpf.length() != TAMANHO) {
             return false;
         }
 
-        try {
-            char dig10, dig11;
-            int sm, i, r, num, peso;
-
-            sm = 0;
-            peso = 10;
-            for (i = 0; i < 9; i++) {
-                num = (int) (cpf.charAt(i) - 48);
-                sm += (num * peso);
-                peso--;
-            }
+        int sm10 = 0;
+        int sm11 = 0;
+        boolean repetido = true;
+        char primeiro = cpf.charAt(0);
 
-            r = 11 - (sm % 11);
-            if ((r == 10) || (r == 11)) {
-                dig10 = '0';
-            } else {
-                dig10 = (char) (r + 48);
+        for (int i = 0; i < TAMANHO; i++) {
+            char c = cpf.charAt(i);
+            if (!ValidadorCaracteres.isDigito(c)) {
+                return false;
             }
+            repetido &= c == primeiro;
 
-            sm = 0;
-            peso = 11;
-            for (i = 0; i < 10; i++) {
-                num = (int) (cpf.charAt(i) - 48);
-                sm += (num * peso);
-                peso--;
+            int num = c - '0';
+            if (i < 9) {
+                sm10 += num * (10 - i);
             }
-
-            r = 11 - (sm % 11);
-            if ((r == 10) || (r == 11)) {
-                dig11 = '0';
-            } else {
-                dig11 = (char) (r + 48);
+            if (i < 10) {
+                sm11 += num * (11 - i);
             }
+        }
 
-            return (dig10 == cpf.charAt(9)) && (dig11 == cpf.charAt(10));
-        } catch (InputMismatchException e) {
+        if (repetido) {
             return false;
         }
+
+        return digitoVerificador(sm10) == cpf.charAt(9) - '0'
+                && digitoVerificador(sm11) == cpf.charAt(10) - '0';
+    }
+
+    private static int digitoVerificador(int soma) {
+        int r = 11 - (soma % 11);
+        return r >= 10 ? 0 : r;
     }
 }
@@ -0,0 +1,35 @@
+package com.itau.pix.validator;
+
+final class ValidadorCaracteres {
+
+    private ValidadorCaracteres() {
+    }
+
+    static boolean isDigito(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    static boolean isLetra(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    static boolean isAlfanumerico(char c) {
+        return isDigito(c) || isLetra(c);
+    }
+
+    static boolean isPalavra(char c) {
+        return isAlfanumerico(c) || c == '_';
+    }
+
+    static boolean somenteDigitos(String valor, int tamanho) {
+        if (valor.length() != tamanho) {
+            return false;
+        }
+        for (int i = 0; i < tamanho; i++) {
+            if (!isDigito(valor.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,20 +1,36 @@
 package com.itau.pix.validator;
 
+import com.itau.pix.exception.CodigoErro;
 import com.itau.pix.exception.ValidacaoException;
 import com.itau.pix.model.dto.PixRequisicaoDto;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ValidadorCelular implements ValidadorPix{
+    private static final int TAMANHO = 14;
+
     @Override
     public void validate(PixRequisicaoDto requisicao) {
         String valorChave = requisicao.getValorChave();
         if (!valorChave.startsWith("+55")) {
-            throw new ValidacaoException("O código do país deve ser +55 para números do Brasil.");
+            throw new ValidacaoException(CodigoErro.CELULAR_PAIS_INVALIDO);
         }
 
-        if (!valorChave.matches("^\\+55\\d{2}9\\d{8}$")) {
-            throw new ValidacaoException("Número de celular inválido. O formato correto é +55DD9XXXXXXXX.");
+        if (!isValidCelular(valorChave)) {
+            throw new ValidacaoException(CodigoErro.CELULAR_INVALIDO);
+        }
+    }
+
+    // Formato +55DD9XXXXXXXX: prefixo já conferido, posição 5 fixa em '9'.
+    private boolean isValidCelular(String valorChave) {
+        if (valorChave.length() != TAMANHO || valorChave.charAt(5) != '9') {
+            return false;
+        }
+        for (int i = 3; i < TAMANHO; i++) {
+            if (!ValidadorCaracteres.isDigito(valorChave.charAt(i))) {
+                return false;
+            }
         }
+        return true;
     }
 }
@@ -1,16 +1,30 @@
 package com.itau.pix.validator;
 
+import com.itau.pix.exception.CodigoErro;
 import com.itau.pix.exception.ValidacaoException;
 import com.itau.pix.model.dto.PixRequisicaoDto;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ValidadorChaveAleatoria implements ValidadorPix {
+    private static final int TAMANHO = 36;
+
     @Override
     public void validate(PixRequisicaoDto requisicao) {
-        String valorChave = requisicao.getValorChave();
-        if (!valorChave.matches("^[a-zA-Z0-9]{36}$")) {
-            throw new ValidacaoException("Valor de chave aleatória inválido.");
+        if (!isValidChaveAleatoria(requisicao.getValorChave())) {
+            throw new ValidacaoException(CodigoErro.CHAVE_ALEATORIA_INVALIDA);
+        }
+    }
+
+    private boolean isValidChaveAleatoria(String valorChave) {
+        if (valorChave.length() != TAMANHO) {
+            return false;
+        }
+        for (int i = 0; i < TAMANHO; i++) {
+            if (!ValidadorCaracteres.isAlfanumerico(valorChave.charAt(i))) {
+                return false;
+            }
         }
+        return true;
     }
 }
@@ -1,17 +1,54 @@
 package com.itau.pix.validator;
 
+import com.itau.pix.exception.CodigoErro;
 import com.itau.pix.exception.ValidacaoException;
 import com.itau.pix.model.dto.PixRequisicaoDto;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ValidadorEmail implements ValidadorPix {
+    private static final int TAMANHO_MAXIMO = 77;
 
     @Override
     public void validate(PixRequisicaoDto requisicao) {
-        String valorChave = requisicao.getValorChave();
-        if (!valorChave.matches("^[\\w.%+-]+@[\\w.-]+\\.[a-zA-Z]{2,}$") || valorChave.length() > 77) {
-            throw new ValidacaoException("Valor de e-mail inválido.");
+        if (!isValidEmail(requisicao.getValorChave())) {
+            throw new ValidacaoException(CodigoErro.EMAIL_INVALIDO);
         }
     }
+
+    // Equivalente a ^[\w.%+-]+@[\w.-]+\.[a-zA-Z]{2,}$ em uma única varredura:
+    // o domínio termina no último '.', seguido de ao menos duas letras.
+    private boolean isValidEmail(String email) {
+        int tamanho = email.length();
+        if (tamanho > TAMANHO_MAXIMO) {
+            return false;
+        }
+
+        int arroba = -1;
+        int ultimoPonto = -1;
+        boolean sufixoSoLetras = true;
+
+        for (int i = 0; i < tamanho; i++) {
+            char c = email.charAt(i);
+            if (arroba < 0) {
+                if (c == '@') {
+                    arroba = i;
+                } else if (!ValidadorCaracteres.isPalavra(c) && c != '.' && c != '%' && c != '+' && c != '-') {
+                    return false;
+                }
+            } else if (c == '.') {
+                ultimoPonto = i;
+                sufixoSoLetras = true;
+            } else if (ValidadorCaracteres.isPalavra(c) || c == '-') {
+                sufixoSoLetras &= ValidadorCaracteres.isLetra(c);
+            } else {
+                return false;
+            }
+        }
+
+        return arroba > 0
+                && ultimoPonto > arroba + 1
+                && tamanho - ultimoPonto - 1 >= 2
+                && sufixoSoLetras;
+    }
 }
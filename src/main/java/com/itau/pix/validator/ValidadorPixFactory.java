@@ -1,6 +1,8 @@
 package com.itau.pix.validator;
 
 import com.itau.pix.model.enums.TipoChave;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -10,8 +12,10 @@ import java.util.stream.Collectors;
 
 @Component
 public class ValidadorPixFactory {
+    public static final String METRICA_VALIDADOR = "pix.validador";
+
     private final Map<TipoChave, ValidadorPix> strategies;
-    @Autowired
+
     public ValidadorPixFactory(List<ValidadorPix> strategyList) {
         strategies = strategyList.stream()
                 .collect(Collectors.toMap(strategy -> {
@@ -24,6 +28,25 @@ public class ValidadorPixFactory {
                 }, strategy -> strategy));
     }
 
+    /**
+     * Cada estratégia passa a registrar o tempo de validação em
+     * {@code pix.validador}, com a tag {@code tipoChave}.
+     */
+    @Autowired
+    public ValidadorPixFactory(List<ValidadorPix> strategyList, MeterRegistry registry) {
+        this(strategyList);
+        strategies.replaceAll((tipoChave, strategy) -> medir(tipoChave, strategy, registry));
+    }
+
+    private static ValidadorPix medir(TipoChave tipoChave, ValidadorPix strategy, MeterRegistry registry) {
+        Timer timer = Timer.builder(METRICA_VALIDADOR)
+                .description("Tempo de validação do formato da chave")
+                .tag("tipoChave", tipoChave.name())
+                .publishPercentileHistogram()
+                .register(registry);
+        return requisicao -> timer.record(() -> strategy.validate(requisicao));
+    }
+
     public ValidadorPix getStrategy(TipoChave tipoChave) {
         return strategies.get(tipoChave);
     }
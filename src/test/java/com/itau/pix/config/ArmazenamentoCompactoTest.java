@@ -0,0 +1,86 @@
+package com.itau.pix.config;
+
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.enums.TipoCorrentista;
+import org.bson.BsonBinarySubType;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArmazenamentoCompactoTest {
+
+    @Test
+    public void testCompactsLegacyDocument() {
+        String id = UUID.randomUUID().toString();
+        Document anterior = new Document("_id", id)
+                .append("tipoChave", TipoChave.EMAIL.name())
+                .append("valorChave", "compacto@example.com")
+                .append("numeroAgencia", "1234")
+                .append("inativa", false)
+                .append("tipoCorrentista", TipoCorrentista.FISICA.name())
+                .append("_class", "com.itau.pix.model.PixModelo");
+
+        Document compacto = ArmazenamentoCompacto.compactar(anterior);
+
+        Binary binario = (Binary) compacto.get("_id");
+        assertEquals(BsonBinarySubType.UUID_STANDARD.getValue(), binario.getType());
+        assertEquals(id, new ArmazenamentoCompacto.BinarioParaTexto().convert(binario));
+        assertEquals(TipoChave.EMAIL.getCodigo(), compacto.get("tk"));
+        assertEquals("compacto@example.com", compacto.get("vk"));
+        assertEquals("1234", compacto.get("ag"));
+        assertEquals(false, compacto.get("in"));
+        assertEquals(TipoCorrentista.FISICA.getCodigo(), compacto.get("tp"));
+        assertEquals("com.itau.pix.model.PixModelo", compacto.get("_class"));
+        assertFalse(compacto.containsKey("valorChave"));
+    }
+
+    @Test
+    public void testKeepsNonCanonicalIdsAsText() {
+        String id = UUID.randomUUID().toString().toUpperCase();
+
+        assertNull(ArmazenamentoCompacto.uuidCanonico(id));
+        assertNull(ArmazenamentoCompacto.uuidCanonico("1234|12345678"));
+        assertEquals(id, ArmazenamentoCompacto.compactar(new Document("_id", id)).get("_id"));
+    }
+
+    @Test
+    public void testReadsBothFormats() {
+        String id = UUID.randomUUID().toString();
+        Document anterior = new Document("_id", id)
+                .append("tipoChave", TipoChave.EMAIL.name())
+                .append("valorChave", "anterior@example.com")
+                .append("tipoCorrentista", TipoCorrentista.FISICA.name());
+        Document compacto = ArmazenamentoCompacto.compactar(anterior);
+
+        for (boolean formatoCompacto : new boolean[]{true, false}) {
+            ArmazenamentoCompacto.Conversor conversor = conversor(formatoCompacto);
+            for (Document documento : new Document[]{anterior, compacto}) {
+                PixModelo chave = conversor.read(PixModelo.class, documento);
+
+                assertEquals(id, chave.getId());
+                assertEquals(TipoChave.EMAIL, chave.getTipoChave());
+                assertEquals("anterior@example.com", chave.getValorChave());
+                assertEquals(TipoCorrentista.FISICA, chave.getTipoCorrentista());
+            }
+        }
+    }
+
+    private static ArmazenamentoCompacto.Conversor conversor(boolean compacto) {
+        MongoCustomConversions conversoes = new MongoCustomConversions(ArmazenamentoCompacto.conversoresLeitura());
+        MongoMappingContext contexto = new MongoMappingContext();
+        contexto.setFieldNamingStrategy(compacto ? new ArmazenamentoCompacto.NomesCampos() : null);
+        contexto.setSimpleTypeHolder(conversoes.getSimpleTypeHolder());
+        ArmazenamentoCompacto.Conversor conversor = new ArmazenamentoCompacto.Conversor(NoOpDbRefResolver.INSTANCE, contexto, compacto);
+        conversor.setCustomConversions(conversoes);
+        conversor.afterPropertiesSet();
+        return conversor;
+    }
+}
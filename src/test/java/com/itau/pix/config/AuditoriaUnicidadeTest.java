@@ -0,0 +1,29 @@
+package com.itau.pix.config;
+
+import com.itau.pix.model.enums.TipoCorrentista;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditoriaUnicidadeTest {
+
+    @Test
+    public void testFacetsUseStoredFieldNames() {
+        List<Document> pipeline = AuditoriaUnicidade.pipeline("vk", "tk", "cc", "tp", TipoCorrentista.FISICA.getCodigo());
+
+        assertEquals(1, pipeline.size());
+        Document facetas = pipeline.get(0).get("$facet", Document.class);
+
+        List<Document> valorChave = facetas.getList(AuditoriaUnicidade.VALOR_CHAVE, Document.class);
+        assertEquals("$vk", valorChave.get(0).get("$group", Document.class).get("_id"));
+        assertEquals(AuditoriaUnicidade.EXEMPLOS, valorChave.get(2).get("$limit"));
+
+        List<Document> tipoChaveConta = facetas.getList(AuditoriaUnicidade.TIPO_CHAVE_CONTA, Document.class);
+        assertEquals(new Document("tp", TipoCorrentista.FISICA.getCodigo()), tipoChaveConta.get(0).get("$match"));
+        assertEquals(new Document("tipoChave", "$tk").append("numeroConta", "$cc"),
+                tipoChaveConta.get(1).get("$group", Document.class).get("_id"));
+    }
+}
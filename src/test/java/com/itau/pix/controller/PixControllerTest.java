@@ -1,11 +1,12 @@
 package com.itau.pix.controller;
 
-import com.itau.pix.exception.PixValidadorException;
+import com.itau.pix.exception.ValidacaoException;
 import com.itau.pix.massas.GeradorMassas;
 import com.itau.pix.model.PixModelo;
 import com.itau.pix.model.enums.TipoChave;
 import com.itau.pix.model.dto.PixRequisicaoDto;
 import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixFiltroDto;
 import com.itau.pix.service.PixService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,14 +15,19 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.restdocs.mockmvc.RestDocumentationRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -72,26 +78,18 @@ public class PixControllerTest {
         String numeroAgencia = "1234";
         String numeroConta = "56789012";
         String nomeCorrentista = "João";
-        LocalDateTime dataHoraInclusao = LocalDateTime.now().minusDays(1);
-        LocalDateTime dataHoraInativacao = LocalDateTime.now();
+        LocalDate dataInclusaoInicio = LocalDate.now().minusDays(1);
+        LocalDate dataInclusaoFim = LocalDate.now();
 
         // Crie uma lista de PixKey
         List<PixModelo> pixKeys = GeradorMassas.createPixKeyList(3);
 
         // Configure o mock para retornar a ResponseEntity com a lista de PixKey
-        when(pixService.buscar(
-                eq(id),
-                eq(tipoChave),
-                eq(numeroAgencia),
-                eq(numeroConta),
-                eq(nomeCorrentista),
-                eq(dataHoraInclusao),
-                eq(dataHoraInativacao)))
+        when(pixService.buscar(any(PixFiltroDto.class), isNull(), isNull()))
                 .thenReturn(ResponseEntity.ok(pixKeys));
 
-        // Converta as datas para o formato esperado pelo LocalDateTime
-        String dataHoraInclusaoString = dataHoraInclusao.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-        String dataHoraInativacaoString = dataHoraInativacao.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        // Converta as datas para o formato esperado pelo controller
+        DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
         // Execute a requisição GET com os parâmetros
         mockMvc.perform(get("/api/v1/pix/buscar")
@@ -100,8 +98,8 @@ public class PixControllerTest {
                         .param("numeroAgencia", numeroAgencia)
                         .param("numeroConta", numeroConta)
                         .param("nomeCorrentista", nomeCorrentista)
-                        .param("dataHoraInclusao", dataHoraInclusaoString)
-                        .param("dataHoraInativacao", dataHoraInativacaoString))
+                        .param("dataInclusaoInicio", dataInclusaoInicio.format(formato))
+                        .param("dataInclusaoFim", dataInclusaoFim.format(formato)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(pixKeys.get(0).getId()))
                 .andExpect(jsonPath("$[1].id").value(pixKeys.get(1).getId()))
@@ -116,8 +114,8 @@ public class PixControllerTest {
                         .param("numeroAgencia", "12345")
                         .param("numeroConta", "1234")
                         .param("nomeCorrentista", "")
-                        .param("dataHoraInclusao", "invalid-date")
-                        .param("dataHoraInativacao", "invalid-date"))
+                        .param("dataInclusaoInicio", "invalid-date")
+                        .param("dataInativacaoFim", "invalid-date"))
                 .andExpect(status().isBadRequest());
     }
 
@@ -140,10 +138,23 @@ public class PixControllerTest {
         UUID id = UUID.fromString(GeradorMassas.createPixKey().getId());
         String errorMessage = "Chave Pix não encontrada ou inválida.";
 
-        when(pixService.desativar(id)).thenThrow(new PixValidadorException(errorMessage));
+        when(pixService.desativar(id)).thenThrow(new ValidacaoException(errorMessage));
 
         mockMvc.perform(delete("/api/v1/pix/" + id))
                 .andExpect(status().isUnprocessableEntity());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testExportPixKeysUsesExportTimeout() throws Exception {
+        StreamingResponseBody corpo = saida -> saida.write("{}\n".getBytes());
+        when(pixService.exportar(any(PixFiltroDto.class))).thenReturn(corpo);
+
+        MvcResult resultado = mockMvc.perform(get("/api/v1/pix/buscar")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("numeroAgencia", "1234"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(Duration.ofMinutes(30).toMillis(), resultado.getRequest().getAsyncContext().getTimeout());
+    }
+}
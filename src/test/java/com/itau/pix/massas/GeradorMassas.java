@@ -3,6 +3,7 @@ package com.itau.pix.massas;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.itau.pix.model.PixModelo;
 import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.enums.TipoCorrentista;
 import com.itau.pix.model.dto.PixRequisicaoDto;
 import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
 
@@ -22,8 +23,7 @@ public class GeradorMassas {
         dto.setNumeroConta("12345678");
         dto.setNomeCorrentista("João");
         dto.setSobrenomeCorrentista("Silva");
-        dto.setPessoaFisica(true);
-        dto.setPessoaJuridica(false);
+        dto.setTipoCorrentista(TipoCorrentista.FISICA);
         return dto;
     }
 
@@ -47,6 +47,7 @@ public class GeradorMassas {
         dto.setNumeroConta("87654321");
         dto.setNomeCorrentista("Maria");
         dto.setSobrenomeCorrentista("Oliveira");
+        dto.setTipoCorrentista(TipoCorrentista.FISICA);
         return dto;
     }
 
@@ -62,7 +63,7 @@ public class GeradorMassas {
         pixKey.setSobrenomeCorrentista("Pereira");
         pixKey.setDataHoraInclusao(LocalDateTime.now());
         pixKey.setInativa(false);
-        pixKey.setPessoaFisica(true); // Se necessário, ajuste a lógica
+        pixKey.setTipoCorrentista(TipoCorrentista.FISICA);
         return pixKey;
     }
 
@@ -0,0 +1,178 @@
+package com.itau.pix.repository;
+
+import com.itau.pix.config.MongoConfig;
+import com.itau.pix.model.ContaPix;
+import com.itau.pix.model.CursorPaginacao;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.enums.TipoCorrentista;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PixRepositoryMemoriaTest {
+
+    private final PixRepositoryMemoria repository = new PixRepositoryMemoria();
+
+    private static PixModelo chave(String valorChave, TipoChave tipoChave, String numeroConta, LocalDateTime dataHoraInclusao) {
+        PixModelo chave = new PixModelo();
+        chave.setId(UUID.randomUUID().toString());
+        chave.setTipoChave(tipoChave);
+        chave.setValorChave(valorChave);
+        chave.setTipoConta("corrente");
+        chave.setNumeroAgencia("1234");
+        chave.setNumeroConta(numeroConta);
+        chave.setNomeCorrentista("João");
+        chave.setDataHoraInclusao(dataHoraInclusao);
+        chave.setTipoCorrentista(TipoCorrentista.FISICA);
+        return chave;
+    }
+
+    @Test
+    public void testUniqueIndexes() {
+        LocalDateTime agora = LocalDateTime.now();
+        repository.insert(chave("um@example.com", TipoChave.EMAIL, "12345678", agora));
+
+        DuplicateKeyException valor = assertThrows(DuplicateKeyException.class,
+                () -> repository.insert(chave("um@example.com", TipoChave.EMAIL, "87654321", agora)));
+        DuplicateKeyException tipoConta = assertThrows(DuplicateKeyException.class,
+                () -> repository.insert(chave("dois@example.com", TipoChave.EMAIL, "12345678", agora)));
+
+        assertTrue(valor.getMessage().contains(MongoConfig.INDICE_VALOR_CHAVE));
+        assertTrue(tipoConta.getMessage().contains(MongoConfig.INDICE_TIPO_CHAVE_CONTA));
+        assertEquals(1, repository.count());
+        assertTrue(repository.findByValorChaveAndInativaFalse("dois@example.com").isEmpty());
+    }
+
+    @Test
+    public void testPagesByInclusionDateWithCursor() {
+        LocalDateTime inicio = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 5; i++) {
+            repository.insert(chave("pagina" + i + "@example.com", TipoChave.values()[i], "12345678", inicio.plusMinutes(i)));
+        }
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setNumeroAgencia("1234");
+
+        List<PixModelo> primeira = repository.buscarPorFiltros(filtro, null, 3);
+        List<PixModelo> segunda = repository.buscarPorFiltros(filtro, CursorPaginacao.depoisDe(primeira.get(2)), 3);
+
+        assertEquals(List.of("pagina0@example.com", "pagina1@example.com", "pagina2@example.com"),
+                primeira.stream().map(PixModelo::getValorChave).toList());
+        assertEquals(List.of("pagina3@example.com", "pagina4@example.com"),
+                segunda.stream().map(PixModelo::getValorChave).toList());
+    }
+
+    @Test
+    public void testFindAllSortedAndPaged() {
+        LocalDateTime inicio = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 5; i++) {
+            repository.insert(chave("ordem" + i + "@example.com", TipoChave.values()[i], "1234567" + (4 - i), inicio.plusMinutes(i)));
+        }
+
+        Page<PixModelo> segunda = repository.findAll(PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "dataHoraInclusao")));
+
+        assertEquals(List.of("ordem2@example.com", "ordem1@example.com"),
+                segunda.getContent().stream().map(PixModelo::getValorChave).toList());
+        assertEquals(5, segunda.getTotalElements());
+        assertEquals(List.of("12345670", "12345671", "12345672", "12345673", "12345674"),
+                repository.findAll(Sort.by("numeroConta")).stream().map(PixModelo::getNumeroConta).toList());
+    }
+
+    @Test
+    public void testConditionalUpdateAndDeactivation() {
+        PixModelo chave = repository.insert(chave("alterar@example.com", TipoChave.EMAIL, "12345678", LocalDateTime.now()));
+        UUID id = UUID.fromString(chave.getId());
+        PixAlterarRequisicaoDto requisicao = new PixAlterarRequisicaoDto();
+        requisicao.setNomeCorrentista("Maria");
+        requisicao.setVersao(0L);
+
+        PixModelo alterada = repository.alterar(id, requisicao);
+
+        assertEquals("Maria", alterada.getNomeCorrentista());
+        assertEquals(1L, alterada.getVersao());
+        assertNull(repository.alterar(id, requisicao));
+
+        LocalDateTime dataHoraInativacao = LocalDateTime.now();
+        assertFalse(repository.desativar(id, dataHoraInativacao).isInativa());
+        assertTrue(repository.desativar(id, dataHoraInativacao.plusMinutes(1)).isInativa());
+        assertEquals(dataHoraInativacao, repository.findById(id).orElseThrow().getDataHoraInativacao());
+        assertNull(repository.desativar(UUID.randomUUID(), dataHoraInativacao));
+    }
+
+    @Test
+    public void testBatchDeactivationRereadsOnlyItsOwnKeys() {
+        LocalDateTime agora = LocalDateTime.now();
+        PixModelo primeira = repository.insert(chave("lote1@example.com", TipoChave.EMAIL, "12345678", agora));
+        PixModelo segunda = repository.insert(chave("lote2@example.com", TipoChave.CPF, "12345678", agora));
+        PixDesativarLoteDto umaChave = new PixDesativarLoteDto();
+        umaChave.setIds(List.of(UUID.fromString(primeira.getId())));
+        PixDesativarLoteDto conta = new PixDesativarLoteDto();
+        conta.setNumeroAgencia("1234");
+        conta.setNumeroConta("12345678");
+
+        LocalDateTime dataHoraInativacao = LocalDateTime.now();
+        assertEquals(1, repository.desativarEmLote(umaChave, dataHoraInativacao, "lote-a"));
+        assertEquals(1, repository.desativarEmLote(conta, dataHoraInativacao, "lote-b"));
+
+        assertEquals(List.of(primeira.getId()), repository.buscarDesativadas(conta, "lote-a").stream().map(PixModelo::getId).toList());
+        assertEquals(List.of(segunda.getId()), repository.buscarDesativadas(conta, "lote-b").stream().map(PixModelo::getId).toList());
+
+        repository.encerrarLote(conta, "lote-a");
+        assertTrue(repository.buscarDesativadas(conta, "lote-a").isEmpty());
+        assertNull(repository.findById(UUID.fromString(primeira.getId())).orElseThrow().getLoteDesativacao());
+        assertEquals("lote-b", repository.findById(UUID.fromString(segunda.getId())).orElseThrow().getLoteDesativacao());
+    }
+
+    @Test
+    public void testArchiveFreesKeyValue() {
+        PixModelo chave = repository.insert(chave("arquivo@example.com", TipoChave.EMAIL, "12345678", LocalDateTime.now()));
+        repository.desativar(UUID.fromString(chave.getId()), LocalDateTime.now().minusDays(100));
+
+        assertEquals(1, repository.arquivarInativas(LocalDateTime.now().minusDays(90), 10));
+
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setArquivadas(true);
+        assertEquals(List.of(chave.getId()), repository.buscarPorFiltros(filtro, null, 10).stream().map(PixModelo::getId).toList());
+        assertEquals(0, repository.count());
+        repository.insert(chave("arquivo@example.com", TipoChave.EMAIL, "12345678", LocalDateTime.now()));
+    }
+
+    @Test
+    public void testApplyReplacesByIdAndEvictsPreviousHolder() {
+        PixModelo antiga = chave("replica@example.com", TipoChave.EMAIL, "12345678", LocalDateTime.now());
+        repository.aplicar(antiga);
+        PixModelo nova = chave("replica@example.com", TipoChave.EMAIL, "87654321", LocalDateTime.now());
+
+        repository.aplicar(nova);
+        nova.setNomeCorrentista("Maria");
+        repository.aplicar(nova);
+
+        assertEquals(1, repository.count());
+        assertEquals("Maria", repository.findByValorChaveAndInativaFalse("replica@example.com").orElseThrow().getNomeCorrentista());
+        repository.descartar(nova.getId());
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    public void testAccountCounters() {
+        ContaPix conta = new ContaPix("1234", "12345678");
+
+        assertTrue(repository.reservarChaves(conta, 4, 5));
+        assertFalse(repository.reservarChaves(conta, 2, 5));
+        repository.liberarChaves(Map.of(conta, 1));
+
+        assertEquals(Map.of(conta, 3L), repository.contarChavesPorConta(List.of(conta)));
+    }
+}
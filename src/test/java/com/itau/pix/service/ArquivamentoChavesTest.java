@@ -0,0 +1,47 @@
+package com.itau.pix.service;
+
+import com.itau.pix.repository.PixRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ArquivamentoChavesTest {
+
+    @Test
+    public void testArchivesInBatchesUntilPartialBatch() {
+        PixRepository repository = mock(PixRepository.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        when(repository.arquivarInativas(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 7);
+
+        new ArquivamentoChaves(repository, registry, true, Duration.ofDays(90), 100).arquivar();
+
+        verify(repository, times(3)).arquivarInativas(any(LocalDateTime.class), eq(100));
+        assertEquals(207, registry.get("pix.arquivamento.chaves").counter().count());
+    }
+
+    @Test
+    public void testArchivesOnlyKeysInactiveBeyondRetention() {
+        PixRepository repository = mock(PixRepository.class);
+        LocalDateTime antes = LocalDateTime.now().minusDays(30);
+
+        new ArquivamentoChaves(repository, new SimpleMeterRegistry(), true, Duration.ofDays(30), 100).arquivar();
+
+        verify(repository).arquivarInativas(argThat(corte -> !corte.isBefore(antes) && corte.isBefore(LocalDateTime.now().minusDays(29))), eq(100));
+    }
+
+    @Test
+    public void testDisabled() {
+        PixRepository repository = mock(PixRepository.class);
+
+        new ArquivamentoChaves(repository, new SimpleMeterRegistry(), false, Duration.ofDays(90), 100).arquivar();
+
+        verifyNoInteractions(repository);
+    }
+}
@@ -0,0 +1,39 @@
+package com.itau.pix.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FiltroBloomTest {
+
+    @Test
+    public void testNoFalseNegatives() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adicionar("chave" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.talvezContenha("chave" + i + "@example.com"));
+        }
+        assertEquals(10_000, filtro.getElementos());
+    }
+
+    @Test
+    public void testFalsePositiveRateWithinConfigured() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adicionar(Integer.toString(i));
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filtro.talvezContenha(Integer.toString(i))) {
+                falsosPositivos++;
+            }
+        }
+
+        assertTrue(falsosPositivos / 100_000.0 < 0.02, "taxa observada: " + falsosPositivos / 100_000.0);
+        assertEquals(0.01, filtro.taxaFalsoPositivoEstimada(), 0.005);
+    }
+}
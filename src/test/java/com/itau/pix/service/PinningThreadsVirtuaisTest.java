@@ -0,0 +1,192 @@
+package com.itau.pix.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixRequisicaoDto;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.enums.TipoCorrentista;
+import com.itau.pix.repository.PixLeituraLocal;
+import com.itau.pix.repository.PixRepository;
+import com.itau.pix.repository.PixRepositoryMemoria;
+import com.itau.pix.validator.PixValidadorStrategy;
+import com.itau.pix.validator.ValidadorCNPJ;
+import com.itau.pix.validator.ValidadorCPF;
+import com.itau.pix.validator.ValidadorCelular;
+import com.itau.pix.validator.ValidadorChaveAleatoria;
+import com.itau.pix.validator.ValidadorEmail;
+import com.itau.pix.validator.ValidadorPixFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Versão no build principal de {@code VerificacaoPinning} dos benchmarks:
+ * cadastro com cada {@link TipoChave}, alteração, busca e desativação em
+ * threads virtuais, com o repositório em memória esperando 1 ms a cada
+ * chamada, sem nenhum evento {@code jdk.VirtualThreadPinned} no JFR.
+ */
+public class PinningThreadsVirtuaisTest {
+
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final int EXECUCOES = 200;
+
+    @Test
+    public void testServiceDoesNotPinCarrierThreads() throws Exception {
+        PixService service = servico(repositorioComLatencia());
+
+        List<RecordedEvent> fixacoes = new CopyOnWriteArrayList<>();
+        try (RecordingStream eventos = new RecordingStream()) {
+            eventos.enable(EVENTO).withThreshold(Duration.ZERO).withStackTrace();
+            eventos.onEvent(EVENTO, fixacoes::add);
+            eventos.startAsync();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> execucoes = new ArrayList<>(EXECUCOES);
+                for (int i = 0; i < EXECUCOES; i++) {
+                    int execucao = i;
+                    execucoes.add(executor.submit(() -> exercitar(service, execucao)));
+                }
+                for (Future<?> execucao : execucoes) {
+                    execucao.get();
+                }
+            }
+            // Entrega os eventos ainda em buffer antes de conferir.
+            eventos.stop();
+        }
+
+        assertTrue(fixacoes.isEmpty(), () -> fixacoes.size() + " eventos " + EVENTO + ":\n" + fixacoes);
+    }
+
+    private static void exercitar(PixService service, int execucao) {
+        String conta = conta(execucao);
+        String numero = Integer.toString(execucao);
+        List<PixRequisicaoDto> requisicoes = List.of(
+                requisicao(TipoChave.CPF, cpf(execucao), conta),
+                requisicao(TipoChave.CNPJ, cnpj(execucao), conta),
+                requisicao(TipoChave.EMAIL, "pinning" + execucao + "@empresa.com.br", conta),
+                requisicao(TipoChave.CELULAR, "+55119" + conta, conta),
+                requisicao(TipoChave.ALEATORIA, "0".repeat(36 - numero.length()) + numero, conta));
+
+        PixModelo ultima = null;
+        for (PixRequisicaoDto requisicao : requisicoes) {
+            ultima = service.cadastrar(requisicao);
+        }
+
+        PixAlterarRequisicaoDto alteracao = new PixAlterarRequisicaoDto();
+        alteracao.setTipoChave(ultima.getTipoChave());
+        alteracao.setTipoConta("corrente");
+        alteracao.setNumeroAgencia("1234");
+        alteracao.setNumeroConta(conta);
+        alteracao.setNomeCorrentista("Maria");
+        alteracao.setSobrenomeCorrentista("Souza");
+        service.alterar(UUID.fromString(ultima.getId()), alteracao);
+        service.resolver(ultima.getValorChave());
+
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setNumeroAgencia("1234");
+        filtro.setNumeroConta(conta);
+        service.buscar(filtro, null, null);
+
+        service.desativar(UUID.fromString(ultima.getId()));
+    }
+
+    private static PixService servico(PixRepository repository) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ValidadorPixFactory factory = new ValidadorPixFactory(List.of(new ValidadorCelular(), new ValidadorEmail(),
+                new ValidadorCPF(), new ValidadorCNPJ(), new ValidadorChaveAleatoria()));
+        PixService service = new PixService();
+        ReflectionTestUtils.setField(service, "repository", repository);
+        ReflectionTestUtils.setField(service, "validador",
+                new PixValidadorStrategy(factory, Validation.buildDefaultValidatorFactory().getValidator()));
+        ReflectionTestUtils.setField(service, "cacheResolucao", Caffeine.newBuilder().maximumSize(10_000).build());
+        ReflectionTestUtils.setField(service, "filtroChaves", new FiltroChavesExistentes(repository, registry, false, 1, 0.01));
+        ReflectionTestUtils.setField(service, "diretorio", new DiretorioChaves(repository, registry, false, "pix_keys.snapshot"));
+        ReflectionTestUtils.setField(service, "leituraLocal",
+                new PixLeituraLocal(null, registry, false, false, Duration.ofSeconds(5), "pix_keys.ndjson"));
+        return service;
+    }
+
+    /**
+     * Proxy sem trava em volta de {@link PixRepositoryMemoria}: a espera de cada
+     * chamada faz a thread virtual estacionar, e uma trava mantida em volta da
+     * chamada apareceria como pinning.
+     */
+    private static PixRepository repositorioComLatencia() {
+        PixRepository repositorio = new PixRepositoryMemoria();
+        return (PixRepository) Proxy.newProxyInstance(PixRepository.class.getClassLoader(),
+                new Class<?>[]{PixRepository.class}, (proxy, metodo, argumentos) -> {
+                    if (metodo.getDeclaringClass() == Object.class) {
+                        return metodo.getName().equals("equals") ? proxy == argumentos[0]
+                                : metodo.getName().equals("hashCode") ? System.identityHashCode(proxy) : "repositorio";
+                    }
+                    Thread.sleep(1);
+                    try {
+                        return metodo.invoke(repositorio, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static PixRequisicaoDto requisicao(TipoChave tipoChave, String valorChave, String conta) {
+        PixRequisicaoDto dto = new PixRequisicaoDto();
+        dto.setTipoChave(tipoChave);
+        dto.setValorChave(valorChave);
+        dto.setTipoConta("corrente");
+        dto.setNumeroAgencia("1234");
+        dto.setNumeroConta(conta);
+        dto.setNomeCorrentista("João");
+        dto.setSobrenomeCorrentista("Silva");
+        dto.setTipoCorrentista(TipoCorrentista.FISICA);
+        return dto;
+    }
+
+    private static String conta(int i) {
+        String numero = Integer.toString(i);
+        return "0".repeat(8 - numero.length()) + numero;
+    }
+
+    private static String cpf(int i) {
+        StringBuilder cpf = new StringBuilder(Integer.toString(100_000_000 + i));
+        for (int pesoInicial = 10; pesoInicial <= 11; pesoInicial++) {
+            int soma = 0;
+            for (int j = 0; j < cpf.length(); j++) {
+                soma += (cpf.charAt(j) - '0') * (pesoInicial - j);
+            }
+            int resto = 11 - soma % 11;
+            cpf.append(resto >= 10 ? 0 : resto);
+        }
+        return cpf.toString();
+    }
+
+    private static String cnpj(int i) {
+        StringBuilder cnpj = new StringBuilder(conta(i)).append("0001");
+        for (int digito = 0; digito < 2; digito++) {
+            int soma = 0;
+            for (int j = 0; j < cnpj.length(); j++) {
+                soma += (cnpj.charAt(j) - '0') * (2 + (cnpj.length() - 1 - j) % 8);
+            }
+            int resto = soma % 11;
+            cnpj.append(resto < 2 ? 0 : 11 - resto);
+        }
+        return cnpj.toString();
+    }
+}
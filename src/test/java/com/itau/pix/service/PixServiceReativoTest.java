@@ -0,0 +1,191 @@
+package com.itau.pix.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itau.pix.config.MongoConfig;
+import com.itau.pix.exception.CodigoErro;
+import com.itau.pix.exception.NaoEncontradoException;
+import com.itau.pix.exception.RequisicaoInvalidaException;
+import com.itau.pix.exception.ValidacaoException;
+import com.itau.pix.model.ContaPix;
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.dto.PixDesativacaoLoteDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixRequisicaoDto;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.enums.TipoCorrentista;
+import com.itau.pix.repository.PixLeituraLocal;
+import com.itau.pix.repository.PixRepositoryReativo;
+import com.itau.pix.validator.PixValidadorStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PixServiceReativoTest {
+
+    @InjectMocks
+    private PixServiceReativo pixKeyService;
+
+    @Mock
+    private PixRepositoryReativo pixKeyRepository;
+
+    @Mock
+    private PixValidadorStrategy pixKeyValidator;
+
+    @Mock
+    private FiltroChavesExistentes filtroChaves;
+
+    @Mock
+    private DiretorioChaves diretorio;
+
+    @Mock
+    private PixLeituraLocal leituraLocal;
+
+    @Spy
+    private Cache<String, PixModelo> cacheResolucao = Caffeine.newBuilder().build();
+
+    private static PixRequisicaoDto requisicao(String valorChave) {
+        PixRequisicaoDto requestDto = new PixRequisicaoDto();
+        requestDto.setTipoChave(TipoChave.EMAIL);
+        requestDto.setValorChave(valorChave);
+        requestDto.setTipoConta("corrente");
+        requestDto.setNumeroAgencia("1234");
+        requestDto.setNumeroConta("12345678");
+        requestDto.setNomeCorrentista("João");
+        requestDto.setTipoCorrentista(TipoCorrentista.FISICA);
+        return requestDto;
+    }
+
+    @Test
+    public void testRegisterPixKey() {
+        when(pixKeyValidator.limiteChaves(TipoCorrentista.FISICA)).thenReturn(PixValidadorStrategy.LIMITE_CHAVES_FISICA);
+        when(pixKeyRepository.reservarChaves(new ContaPix("1234", "12345678"), 1, PixValidadorStrategy.LIMITE_CHAVES_FISICA))
+                .thenReturn(Mono.just(true));
+        when(pixKeyRepository.insert(any(PixModelo.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        PixModelo createdKey = pixKeyService.cadastrar(requisicao("reativo@example.com")).block();
+
+        assertNotNull(createdKey);
+        assertNotNull(createdKey.getId());
+        verify(pixKeyRepository, never()).liberarChaves(any());
+        verify(filtroChaves).registrar("reativo@example.com");
+    }
+
+    @Test
+    public void testRegisterPixKeyDuplicatedValueReleasesCounter() {
+        when(pixKeyRepository.reservarChaves(any(ContaPix.class), eq(1), anyInt())).thenReturn(Mono.just(true));
+        when(pixKeyRepository.insert(any(PixModelo.class))).thenReturn(Mono.error(new DuplicateKeyException(
+                "E11000 duplicate key error collection: pixdb.pix_keys index: " + MongoConfig.INDICE_VALOR_CHAVE)));
+        when(pixKeyRepository.liberarChaves(any())).thenReturn(Mono.empty());
+
+        Mono<PixModelo> cadastro = pixKeyService.cadastrar(requisicao("duplicated@example.com"));
+        ValidacaoException exception = assertThrows(ValidacaoException.class, cadastro::block);
+
+        assertEquals("Já existe uma chave cadastrada com esse valor.", exception.getReason());
+        verify(pixKeyRepository).liberarChaves(Map.of(new ContaPix("1234", "12345678"), 1));
+        verify(filtroChaves, never()).registrar(any());
+    }
+
+    @Test
+    public void testRegisterPixKeyAccountLimitReached() {
+        when(pixKeyValidator.limiteChaves(TipoCorrentista.FISICA)).thenReturn(PixValidadorStrategy.LIMITE_CHAVES_FISICA);
+        when(pixKeyRepository.reservarChaves(any(ContaPix.class), eq(1), eq(PixValidadorStrategy.LIMITE_CHAVES_FISICA)))
+                .thenReturn(Mono.just(false));
+        doThrow(new NaoEncontradoException("Limite de chaves atingido para pessoa física."))
+                .when(pixKeyValidator).validadorLimiteChave(TipoCorrentista.FISICA, PixValidadorStrategy.LIMITE_CHAVES_FISICA);
+
+        Mono<PixModelo> cadastro = pixKeyService.cadastrar(requisicao("sexta@example.com"));
+
+        assertThrows(NaoEncontradoException.class, cadastro::block);
+        verify(pixKeyRepository, never()).insert(any(PixModelo.class));
+    }
+
+    @Test
+    public void testResolvePixKeyUsesCache() {
+        PixModelo chave = new PixModelo();
+        chave.setId(UUID.randomUUID().toString());
+        when(pixKeyRepository.findByValorChaveAndInativaFalse("resolver@example.com")).thenReturn(Mono.just(chave));
+
+        assertEquals(chave.getId(), pixKeyService.resolver("resolver@example.com").block().getId());
+        assertEquals(chave.getId(), pixKeyService.resolver("resolver@example.com").block().getId());
+        assertNotSame(chave, cacheResolucao.getIfPresent("resolver@example.com"));
+
+        verify(pixKeyRepository, times(1)).findByValorChaveAndInativaFalse("resolver@example.com");
+    }
+
+    @Test
+    public void testResolvePixKeyNotFound() {
+        when(pixKeyRepository.findByValorChaveAndInativaFalse("ausente@example.com")).thenReturn(Mono.empty());
+
+        Mono<PixModelo> resolucao = pixKeyService.resolver("ausente@example.com");
+
+        assertThrows(NaoEncontradoException.class, resolucao::block);
+        assertNull(cacheResolucao.getIfPresent("ausente@example.com"));
+    }
+
+    @Test
+    public void testExportPixKeysWithoutFilters() {
+        Flux<PixModelo> exportacao = pixKeyService.exportar(new PixFiltroDto());
+
+        assertThrows(RequisicaoInvalidaException.class, exportacao::blockLast);
+        verify(pixKeyRepository, never()).exportarPorFiltros(any());
+    }
+
+    @Test
+    public void testDeactivatePixKeyAlreadyInactive() {
+        UUID id = UUID.randomUUID();
+        PixModelo chave = new PixModelo();
+        chave.setId(id.toString());
+        chave.setInativa(true);
+        when(pixKeyRepository.desativar(eq(id), any(LocalDateTime.class))).thenReturn(Mono.just(chave));
+        doThrow(new ValidacaoException(CodigoErro.CHAVE_JA_DESATIVADA)).when(pixKeyValidator).validadorChaveAtiva(chave);
+
+        Mono<PixModelo> desativacao = pixKeyService.desativar(id);
+
+        assertThrows(ValidacaoException.class, desativacao::block);
+        verify(pixKeyRepository, never()).liberarChaves(any());
+    }
+
+    @Test
+    public void testDeactivatePixKeysByAccount() {
+        PixDesativarLoteDto selecao = new PixDesativarLoteDto();
+        selecao.setNumeroAgencia("1234");
+        selecao.setNumeroConta("12345678");
+        PixModelo chave = new PixModelo();
+        chave.setId(UUID.randomUUID().toString());
+        chave.setValorChave("lote@example.com");
+        chave.setNumeroAgencia("1234");
+        chave.setNumeroConta("12345678");
+        cacheResolucao.put("lote@example.com", chave);
+
+        when(pixKeyRepository.desativarEmLote(eq(selecao), any(LocalDateTime.class), anyString())).thenReturn(Mono.just(1L));
+        when(pixKeyRepository.buscarDesativadas(eq(selecao), anyString())).thenReturn(Flux.just(chave));
+        when(pixKeyRepository.encerrarLote(eq(selecao), anyString())).thenReturn(Mono.empty());
+        when(pixKeyRepository.liberarChaves(any())).thenReturn(Mono.empty());
+
+        PixDesativacaoLoteDto resultado = pixKeyService.desativarLote(selecao).block();
+
+        assertNotNull(resultado);
+        assertEquals(1, resultado.getDesativadas());
+        assertEquals(List.of(chave.getId()), resultado.getIds());
+        assertNull(cacheResolucao.getIfPresent("lote@example.com"));
+        verify(pixKeyRepository).liberarChaves(Map.of(new ContaPix("1234", "12345678"), 1));
+    }
+}
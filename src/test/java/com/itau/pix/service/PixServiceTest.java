@@ -1,25 +1,52 @@
 package com.itau.pix.service;
 
-import com.itau.pix.exception.PixValidadorException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itau.pix.config.MongoConfig;
+import com.itau.pix.exception.CodigoErro;
+import com.itau.pix.exception.ConflitoException;
+import com.itau.pix.exception.NaoAutorizadoException;
+import com.itau.pix.exception.NaoEncontradoException;
+import com.itau.pix.exception.RequisicaoInvalidaException;
+import com.itau.pix.exception.ValidacaoException;
+import com.itau.pix.model.ContaPix;
+import com.itau.pix.model.CursorPaginacao;
 import com.itau.pix.model.PixModelo;
 import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.enums.TipoCorrentista;
 import com.itau.pix.model.dto.PixRequisicaoDto;
 import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
+import com.itau.pix.model.dto.PixDesativacaoLoteDto;
+import com.itau.pix.model.dto.PixDesativarLoteDto;
+import com.itau.pix.model.dto.PixFiltroDto;
+import com.itau.pix.model.dto.PixProjecaoDto;
+import com.itau.pix.model.dto.PixResultadoLoteDto;
+import com.itau.pix.repository.PixLeituraLocal;
 import com.itau.pix.repository.PixRepository;
 import com.itau.pix.validator.PixValidadorStrategy;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,6 +64,21 @@ public class PixServiceTest {
     @Mock
     private PixValidadorStrategy pixKeyValidator;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private FiltroChavesExistentes filtroChaves;
+
+    @Mock
+    private DiretorioChaves diretorio;
+
+    @Mock
+    private PixLeituraLocal leituraLocal;
+
+    @Spy
+    private Cache<String, PixModelo> cacheResolucao = Caffeine.newBuilder().build();
+
     @Test
     public void testRegisterPixKey() {
         PixRequisicaoDto requestDto = new PixRequisicaoDto();
@@ -48,17 +90,133 @@ public class PixServiceTest {
         requestDto.setNumeroConta("12345678");
         requestDto.setNomeCorrentista("João");
         requestDto.setSobrenomeCorrentista("Silva");
-        requestDto.setPessoaFisica(true);
+        requestDto.setTipoCorrentista(TipoCorrentista.FISICA);
 
         PixModelo pixKey = new PixModelo();
         pixKey.setId(UUID.randomUUID().toString());
-        when(pixKeyRepository.save(any(PixModelo.class))).thenReturn(pixKey);
+        when(pixKeyValidator.limiteChaves(any())).thenReturn(PixValidadorStrategy.LIMITE_CHAVES_FISICA);
+        when(pixKeyRepository.reservarChaves(new ContaPix("1234", "12345678"), 1, PixValidadorStrategy.LIMITE_CHAVES_FISICA))
+                .thenReturn(true);
+        when(pixKeyRepository.insert(any(PixModelo.class))).thenReturn(pixKey);
 
         PixModelo createdKey = pixKeyService.cadastrar(requestDto);
 
         assertNotNull(createdKey);
         assertNotNull(createdKey.getId());
-        verify(pixKeyRepository, times(1)).save(any(PixModelo.class));
+        verify(pixKeyRepository, times(1)).insert(any(PixModelo.class));
+        verify(pixKeyRepository, never()).save(any(PixModelo.class));
+        verify(pixKeyRepository, never()).liberarChaves(any());
+        verify(pixKeyValidator, never()).validadorLimiteChave(any(), anyLong());
+        verify(filtroChaves).registrar(createdKey.getValorChave());
+    }
+
+    @Test
+    public void testRegisterPixKeyAccountLimitReached() {
+        PixRequisicaoDto requestDto = new PixRequisicaoDto();
+        requestDto.setTipoChave(TipoChave.EMAIL);
+        requestDto.setValorChave("sexta@example.com");
+        requestDto.setTipoConta("corrente");
+        requestDto.setNumeroAgencia("1234");
+        requestDto.setNumeroConta("12345678");
+        requestDto.setNomeCorrentista("João");
+        requestDto.setTipoCorrentista(TipoCorrentista.FISICA);
+
+        when(pixKeyValidator.limiteChaves(TipoCorrentista.FISICA)).thenReturn(PixValidadorStrategy.LIMITE_CHAVES_FISICA);
+        when(pixKeyRepository.reservarChaves(any(ContaPix.class), eq(1), eq(PixValidadorStrategy.LIMITE_CHAVES_FISICA)))
+                .thenReturn(false);
+        doThrow(new NaoEncontradoException("Limite de chaves atingido para pessoa física."))
+                .when(pixKeyValidator).validadorLimiteChave(TipoCorrentista.FISICA, PixValidadorStrategy.LIMITE_CHAVES_FISICA);
+
+        assertThrows(NaoEncontradoException.class, () -> pixKeyService.cadastrar(requestDto));
+
+        verify(pixKeyRepository, never()).insert(any(PixModelo.class));
+        verify(pixKeyRepository, never()).liberarChaves(any());
+    }
+
+    @Test
+    public void testRegisterPixKeyDuplicatedValue() {
+        PixRequisicaoDto requestDto = new PixRequisicaoDto();
+        requestDto.setTipoChave(TipoChave.EMAIL);
+        requestDto.setValorChave("duplicated@example.com");
+        requestDto.setTipoConta("corrente");
+        requestDto.setNumeroAgencia("1234");
+        requestDto.setNumeroConta("12345678");
+        requestDto.setNomeCorrentista("João");
+
+        when(pixKeyRepository.insert(any(PixModelo.class))).thenThrow(new DuplicateKeyException(
+                "E11000 duplicate key error collection: pixdb.pix_keys index: " + MongoConfig.INDICE_VALOR_CHAVE));
+
+        when(pixKeyRepository.reservarChaves(any(ContaPix.class), eq(1), anyInt())).thenReturn(true);
+
+        ValidacaoException exception = assertThrows(ValidacaoException.class, () -> pixKeyService.cadastrar(requestDto));
+
+        assertTrue(exception.getMessage().contains("Já existe uma chave cadastrada com esse valor."));
+        assertEquals(CodigoErro.CHAVE_DUPLICADA_VALOR, exception.getCodigo());
+        assertEquals(0, exception.getStackTrace().length);
+        verify(pixKeyRepository).liberarChaves(Map.of(new ContaPix("1234", "12345678"), 1));
+    }
+
+    @Test
+    public void testRegisterPixKeysBatch() {
+        List<PixRequisicaoDto> requisicoes = new ArrayList<>();
+        for (String valor : new String[]{"lote@example.com", "invalido", "lote@example.com", "outra@example.com"}) {
+            PixRequisicaoDto requestDto = new PixRequisicaoDto();
+            requestDto.setTipoChave(TipoChave.EMAIL);
+            requestDto.setValorChave(valor);
+            requestDto.setTipoConta("corrente");
+            requestDto.setNumeroAgencia("1234");
+            requestDto.setNumeroConta("12345678");
+            requestDto.setNomeCorrentista("João");
+            requestDto.setTipoCorrentista(TipoCorrentista.JURIDICA);
+            requisicoes.add(requestDto);
+        }
+
+        // Os demais itens também passam pelo validador; só o segundo é recusado.
+        lenient().doThrow(new ValidacaoException("Valor de e-mail inválido."))
+                .when(pixKeyValidator).validadorItemLote(requisicoes.get(1));
+        when(pixKeyRepository.contarChavesPorConta(any())).thenReturn(Map.of());
+        when(pixKeyRepository.reservarChaves(anyMap(), anyMap())).thenReturn(Set.of());
+        when(pixKeyRepository.inserirLote(anyList())).thenReturn(Map.of(1,
+                "E11000 duplicate key error collection: pixdb.pix_keys index: " + MongoConfig.INDICE_VALOR_CHAVE));
+
+        List<PixResultadoLoteDto> resultados = pixKeyService.cadastrarLote(requisicoes);
+
+        assertEquals(4, resultados.size());
+        assertEquals(200, resultados.get(0).getStatus());
+        assertNotNull(resultados.get(0).getId());
+        assertEquals(422, resultados.get(1).getStatus());
+        assertEquals("Valor de e-mail inválido.", resultados.get(1).getMensagem());
+        assertEquals(422, resultados.get(2).getStatus());
+        assertEquals("Já existe uma chave cadastrada com esse valor.", resultados.get(2).getMensagem());
+        assertEquals(422, resultados.get(3).getStatus());
+        assertEquals("Já existe uma chave cadastrada com esse valor.", resultados.get(3).getMensagem());
+
+        verify(pixKeyRepository, times(1)).contarChavesPorConta(any());
+        verify(pixKeyRepository, times(1)).reservarChaves(eq(Map.of(new ContaPix("1234", "12345678"), 2)), anyMap());
+        verify(pixKeyRepository, times(1)).inserirLote(argThat(chaves -> chaves.size() == 2));
+        verify(pixKeyRepository, times(1)).liberarChaves(Map.of(new ContaPix("1234", "12345678"), 1));
+        verify(pixKeyRepository, never()).insert(any(PixModelo.class));
+    }
+
+    @Test
+    public void testRegisterPixKeysBatchLegalEntityLimitIsForbidden() {
+        PixRequisicaoDto requestDto = new PixRequisicaoDto();
+        requestDto.setTipoChave(TipoChave.EMAIL);
+        requestDto.setValorChave("vigesima@example.com");
+        requestDto.setTipoConta("corrente");
+        requestDto.setNumeroAgencia("1234");
+        requestDto.setNumeroConta("12345678");
+        requestDto.setNomeCorrentista("João");
+        requestDto.setTipoCorrentista(TipoCorrentista.JURIDICA);
+        when(pixKeyRepository.contarChavesPorConta(any())).thenReturn(Map.of(new ContaPix("1234", "12345678"), 20L));
+        doThrow(new NaoAutorizadoException(CodigoErro.LIMITE_CHAVES_JURIDICA))
+                .when(pixKeyValidator).validadorLimiteChave(TipoCorrentista.JURIDICA, 20L);
+
+        List<PixResultadoLoteDto> resultados = pixKeyService.cadastrarLote(List.of(requestDto));
+
+        assertEquals(HttpStatus.FORBIDDEN.value(), resultados.get(0).getStatus());
+        assertEquals(CodigoErro.LIMITE_CHAVES_JURIDICA, resultados.get(0).getCodigo());
+        verify(pixKeyRepository, never()).inserirLote(anyList());
     }
 
     @Test
@@ -70,15 +228,65 @@ public class PixServiceTest {
         PixModelo existingKey = new PixModelo();
         existingKey.setId(id.toString());
 
-        when(pixKeyRepository.findById(id)).thenReturn(Optional.of(existingKey));
-        when(pixKeyRepository.save(any(PixModelo.class))).thenReturn(existingKey);
+        when(pixKeyRepository.alterar(id, updateRequest)).thenReturn(existingKey);
 
         PixModelo updatedKey = pixKeyService.alterar(id, updateRequest);
 
         assertNotNull(updatedKey);
         assertEquals(id.toString(), updatedKey.getId());
-        verify(pixKeyRepository, times(1)).findById(id);
-        verify(pixKeyRepository, times(1)).save(any(PixModelo.class));
+        verify(pixKeyRepository, never()).findById(any());
+        verify(pixKeyRepository, never()).save(any(PixModelo.class));
+    }
+
+    @Test
+    public void testUpdatePixKeyStaleVersion() {
+        UUID id = UUID.randomUUID();
+        PixAlterarRequisicaoDto updateRequest = new PixAlterarRequisicaoDto();
+        updateRequest.setNumeroAgencia("1234");
+        updateRequest.setNumeroConta("12345678");
+        updateRequest.setVersao(1L);
+
+        PixModelo existingKey = new PixModelo();
+        existingKey.setId(id.toString());
+        existingKey.setNumeroAgencia("1234");
+        existingKey.setNumeroConta("12345678");
+        existingKey.setVersao(2L);
+
+        when(pixKeyRepository.alterar(id, updateRequest)).thenReturn(null);
+        when(pixKeyRepository.findById(id)).thenReturn(Optional.of(existingKey));
+        doThrow(new ConflitoException(CodigoErro.VERSAO_DESATUALIZADA))
+                .when(pixKeyValidator).validadorRequisicaoAlterar(existingKey, updateRequest);
+
+        ConflitoException exception = assertThrows(ConflitoException.class, () -> pixKeyService.alterar(id, updateRequest));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        verify(pixKeyRepository, never()).reservarChaves(any(ContaPix.class), anyInt(), anyInt());
+    }
+
+    @Test
+    public void testUpdatePixKeyMovesAccountCounter() {
+        UUID id = UUID.randomUUID();
+        PixAlterarRequisicaoDto updateRequest = new PixAlterarRequisicaoDto();
+        updateRequest.setNumeroAgencia("4321");
+        updateRequest.setNumeroConta("87654321");
+
+        PixModelo existingKey = new PixModelo();
+        existingKey.setId(id.toString());
+        existingKey.setNumeroAgencia("1234");
+        existingKey.setNumeroConta("12345678");
+        existingKey.setTipoCorrentista(TipoCorrentista.FISICA);
+        existingKey.setVersao(0L);
+
+        when(pixKeyRepository.alterar(id, updateRequest)).thenReturn(null);
+        when(pixKeyRepository.findById(id)).thenReturn(Optional.of(existingKey));
+        when(pixKeyValidator.limiteChaves(TipoCorrentista.FISICA)).thenReturn(PixValidadorStrategy.LIMITE_CHAVES_FISICA);
+        when(pixKeyRepository.reservarChaves(new ContaPix("4321", "87654321"), 1, PixValidadorStrategy.LIMITE_CHAVES_FISICA))
+                .thenReturn(true);
+        when(pixKeyRepository.alterarConta(existingKey, updateRequest)).thenReturn(existingKey);
+
+        assertSame(existingKey, pixKeyService.alterar(id, updateRequest));
+
+        verify(pixKeyRepository).liberarChaves(Map.of(new ContaPix("1234", "12345678"), 1));
     }
 
 //    @Test
@@ -113,59 +321,343 @@ public class PixServiceTest {
 
     @Test
     public void testSearchPixKeysWithNoResults() {
-        UUID id = UUID.randomUUID();
-        TipoChave tipoChave = TipoChave.EMAIL;
-        String numeroAgencia = "1234";
-        String numeroConta = "56789012";
-        String nomeCorrentista = "Carlos";
-        LocalDateTime dataHoraInclusao = LocalDateTime.now().minusDays(1);
-        LocalDateTime dataHoraInativacao = LocalDateTime.now();
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setTipoChave(TipoChave.EMAIL);
+        filtro.setNumeroAgencia("1234");
+        filtro.setNumeroConta("56789012");
+        filtro.setNomeCorrentista("Carlos");
+
+        when(pixKeyRepository.buscarPorFiltros(eq(filtro), isNull(), anyInt())).thenReturn(Collections.emptyList());
+
+        assertThrows(NaoEncontradoException.class, () -> pixKeyService.buscar(filtro, null, null));
+    }
+
+    @Test
+    public void testSearchPixKeysWithoutFilters() {
+        assertThrows(NaoEncontradoException.class, () -> pixKeyService.buscar(new PixFiltroDto(), null, null));
+
+        verify(pixKeyRepository, never()).buscarPorFiltros(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testSearchPixKeysPaginated() {
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setTipoChave(TipoChave.EMAIL);
+
+        List<PixModelo> chaves = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PixModelo chave = new PixModelo();
+            chave.setId(UUID.randomUUID().toString());
+            chave.setDataHoraInclusao(LocalDateTime.now().plusSeconds(i));
+            chaves.add(chave);
+        }
+        when(pixKeyRepository.buscarPorFiltros(eq(filtro), isNull(), eq(3))).thenReturn(chaves);
+
+        ResponseEntity<List<PixModelo>> response = pixKeyService.buscar(filtro, 2, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().size());
+        String proximoCursor = response.getHeaders().getFirst(PixService.CABECALHO_PROXIMO_CURSOR);
+        assertNotNull(proximoCursor);
+
+        CursorPaginacao cursor = CursorPaginacao.decodificar(proximoCursor);
+        assertEquals(chaves.get(1).getId(), cursor.getId());
+        assertEquals(chaves.get(1).getDataHoraInclusao(), cursor.getDataHoraInclusao());
+
+        when(pixKeyRepository.buscarPorFiltros(eq(filtro), any(CursorPaginacao.class), eq(3))).thenReturn(chaves.subList(2, 3));
 
-        when(pixKeyRepository.findByTipoChaveAndNumeroAgenciaAndNumeroContaAndNomeCorrentistaAndDataHoraInclusao(
-                eq(tipoChave), eq(numeroAgencia), eq(numeroConta), eq(nomeCorrentista), eq(dataHoraInclusao)))
-                .thenReturn(Collections.emptyList());
+        response = pixKeyService.buscar(filtro, 2, proximoCursor);
 
-        ResponseEntity<List<PixModelo>> response = pixKeyService.buscar(
-                id, tipoChave, numeroAgencia, numeroConta, nomeCorrentista, dataHoraInclusao, dataHoraInativacao);
+        assertEquals(1, response.getBody().size());
+        assertNull(response.getHeaders().getFirst(PixService.CABECALHO_PROXIMO_CURSOR));
+    }
+
+    @Test
+    public void testSearchPixKeysProjectedFields() {
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setTipoChave(TipoChave.EMAIL);
+        Set<String> campos = Set.of("valorChave", "numeroConta");
 
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertEquals(Collections.emptyList(), response.getBody());
+        List<PixProjecaoDto> chaves = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            PixProjecaoDto chave = new PixProjecaoDto();
+            chave.setId(UUID.randomUUID().toString());
+            chave.setDataHoraInclusao(LocalDateTime.now().plusSeconds(i));
+            chave.setValorChave("chave" + i + "@example.com");
+            chave.setNumeroConta("12345678");
+            chaves.add(chave);
+        }
+        String idUltimaDaPagina = chaves.get(0).getId();
+        when(pixKeyRepository.buscarCamposPorFiltros(eq(filtro), eq(campos), isNull(), eq(2))).thenReturn(chaves);
+
+        ResponseEntity<List<PixProjecaoDto>> response = pixKeyService.buscarCampos(filtro, campos, 1, null);
+
+        assertEquals(1, response.getBody().size());
+        PixProjecaoDto chave = response.getBody().get(0);
+        assertEquals("chave0@example.com", chave.getValorChave());
+        assertNull(chave.getId());
+        assertNull(chave.getDataHoraInclusao());
+        assertEquals(idUltimaDaPagina,
+                CursorPaginacao.decodificar(response.getHeaders().getFirst(PixService.CABECALHO_PROXIMO_CURSOR)).getId());
+        verify(pixKeyValidator).validadorCamposProjecao(campos);
     }
 
     @Test
     public void testSearchPixKeysWithInvalidFilters() {
-        UUID id = UUID.randomUUID();
-        TipoChave tipoChave = TipoChave.EMAIL;
-        String numeroAgencia = "invalid"; // Parâmetro inválido
-        String numeroConta = "56789012";
-        String nomeCorrentista = "Carlos";
-        LocalDateTime dataHoraInclusao = LocalDateTime.now().minusDays(1);
-        LocalDateTime dataHoraInativacao = LocalDateTime.now();
-
-        doThrow(new PixValidadorException("Número da agência inválido"))
-                .when(pixKeyValidator).validadorBuscaFiltros(id, tipoChave, numeroAgencia, numeroConta, nomeCorrentista, dataHoraInclusao, dataHoraInativacao);
-
-        Exception exception = assertThrows(PixValidadorException.class, () -> {
-            pixKeyService.buscar(id, tipoChave, numeroAgencia, numeroConta, nomeCorrentista, dataHoraInclusao, dataHoraInativacao);
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setNumeroAgencia("invalid"); // Parâmetro inválido
+
+        doThrow(new RequisicaoInvalidaException("Número da agência inválido"))
+                .when(pixKeyValidator).validadorBuscaFiltros(filtro);
+
+        Exception exception = assertThrows(RequisicaoInvalidaException.class, () -> {
+            pixKeyService.buscar(filtro, null, null);
         });
 
         assertTrue(exception.getMessage().contains("Número da agência inválido"));
     }
 
+    @Test
+    public void testExportPixKeysAsNdjson() throws Exception {
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setNumeroAgencia("1234");
+
+        PixModelo primeira = new PixModelo();
+        primeira.setId(UUID.randomUUID().toString());
+        PixModelo segunda = new PixModelo();
+        segunda.setId(UUID.randomUUID().toString());
+        when(pixKeyRepository.exportarPorFiltros(filtro)).thenReturn(Stream.of(primeira, segunda));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        pixKeyService.exportar(filtro).writeTo(saida);
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, linhas.length);
+        assertEquals(primeira.getId(), objectMapper.readTree(linhas[0]).get("id").asText());
+        assertEquals(segunda.getId(), objectMapper.readTree(linhas[1]).get("id").asText());
+    }
+
+    @Test
+    public void testExportPixKeysWithoutFilters() {
+        assertThrows(RequisicaoInvalidaException.class, () -> pixKeyService.exportar(new PixFiltroDto()));
+
+        verify(pixKeyRepository, never()).exportarPorFiltros(any());
+    }
+
     @Test
     public void testDeactivatePixKey() {
         UUID id = UUID.randomUUID();
         PixModelo existingKey = new PixModelo();
         existingKey.setId(id.toString());
-        when(pixKeyRepository.findById(id)).thenReturn(Optional.of(existingKey));
-        when(pixKeyRepository.save(any(PixModelo.class))).thenReturn(existingKey);
+        existingKey.setNumeroAgencia("1234");
+        existingKey.setNumeroConta("12345678");
+        when(pixKeyRepository.desativar(eq(id), any(LocalDateTime.class))).thenReturn(existingKey);
 
         ResponseEntity<PixModelo> response = pixKeyService.desativar(id);
+        verify(pixKeyRepository).liberarChaves(Map.of(new ContaPix("1234", "12345678"), 1));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(id.toString(), response.getBody().getId());
         assertTrue(response.getBody().isInativa());
-        verify(pixKeyRepository, times(1)).findById(id);
-        verify(pixKeyRepository, times(1)).save(any(PixModelo.class));
+        assertNotNull(response.getBody().getDataHoraInativacao());
+        verify(pixKeyRepository, never()).findById(any());
+        verify(pixKeyRepository, never()).save(any(PixModelo.class));
+    }
+
+    @Test
+    public void testDeactivatePixKeyNotFound() {
+        UUID id = UUID.randomUUID();
+        when(pixKeyRepository.desativar(eq(id), any(LocalDateTime.class))).thenReturn(null);
+
+        assertThrows(NaoEncontradoException.class, () -> pixKeyService.desativar(id));
+        verify(pixKeyRepository, never()).liberarChaves(any());
+    }
+
+    @Test
+    public void testDeactivatePixKeyAlreadyInactive() {
+        UUID id = UUID.randomUUID();
+        PixModelo inactiveKey = new PixModelo();
+        inactiveKey.setId(id.toString());
+        inactiveKey.setInativa(true);
+        when(pixKeyRepository.desativar(eq(id), any(LocalDateTime.class))).thenReturn(inactiveKey);
+        doThrow(new ValidacaoException(CodigoErro.CHAVE_JA_DESATIVADA)).when(pixKeyValidator).validadorChaveAtiva(inactiveKey);
+
+        assertThrows(ValidacaoException.class, () -> pixKeyService.desativar(id));
+        verify(pixKeyRepository, never()).liberarChaves(any());
+    }
+
+    @Test
+    public void testDeactivatePixKeysByAccount() {
+        PixDesativarLoteDto selecao = new PixDesativarLoteDto();
+        selecao.setNumeroAgencia("1234");
+        selecao.setNumeroConta("12345678");
+        List<PixModelo> chaves = new ArrayList<>();
+        for (String valor : new String[]{"um@example.com", "dois@example.com"}) {
+            PixModelo chave = new PixModelo();
+            chave.setId(UUID.randomUUID().toString());
+            chave.setValorChave(valor);
+            chave.setNumeroAgencia("1234");
+            chave.setNumeroConta("12345678");
+            chaves.add(chave);
+            cacheResolucao.put(valor, chave);
+        }
+
+        ArgumentCaptor<String> lote = ArgumentCaptor.forClass(String.class);
+        when(pixKeyRepository.desativarEmLote(eq(selecao), any(LocalDateTime.class), lote.capture())).thenReturn(2L);
+        when(pixKeyRepository.buscarDesativadas(eq(selecao), anyString())).thenReturn(chaves);
+
+        PixDesativacaoLoteDto resultado = pixKeyService.desativarLote(selecao);
+
+        assertEquals(2, resultado.getDesativadas());
+        assertEquals(List.of(chaves.get(0).getId(), chaves.get(1).getId()), resultado.getIds());
+        assertNull(cacheResolucao.getIfPresent("um@example.com"));
+        assertNull(cacheResolucao.getIfPresent("dois@example.com"));
+        verify(pixKeyValidator).validadorDesativacaoLote(selecao, PixService.LIMITE_LOTE);
+        verify(pixKeyRepository).desativarEmLote(selecao, resultado.getDataHoraInativacao(), lote.getValue());
+        verify(pixKeyRepository).buscarDesativadas(selecao, lote.getValue());
+        verify(pixKeyRepository).encerrarLote(selecao, lote.getValue());
+        verify(pixKeyRepository).liberarChaves(Map.of(new ContaPix("1234", "12345678"), 2));
+        verify(pixKeyRepository, never()).save(any(PixModelo.class));
+    }
+
+    @Test
+    public void testResolvePixKeyUsesCache() {
+        PixModelo chave = new PixModelo();
+        chave.setId(UUID.randomUUID().toString());
+        chave.setValorChave("resolver@example.com");
+        when(pixKeyRepository.findByValorChaveAndInativaFalse("resolver@example.com")).thenReturn(Optional.of(chave));
+
+        PixModelo primeira = pixKeyService.resolver("resolver@example.com");
+        primeira.setNomeCorrentista("Alterado");
+        PixModelo segunda = pixKeyService.resolver("resolver@example.com");
+
+        assertEquals(chave.getId(), segunda.getId());
+        assertNull(segunda.getNomeCorrentista());
+        assertNotSame(primeira, segunda);
+        verify(pixKeyRepository, times(1)).findByValorChaveAndInativaFalse("resolver@example.com");
+    }
+
+    @Test
+    public void testResolvePixKeyDropsValueReadBeforeInvalidation() {
+        UUID id = UUID.randomUUID();
+        PixModelo anterior = new PixModelo();
+        anterior.setId(id.toString());
+        anterior.setValorChave("corrida@example.com");
+        when(pixKeyRepository.desativar(eq(id), any(LocalDateTime.class))).thenReturn(anterior);
+        when(pixKeyRepository.findByValorChaveAndInativaFalse("corrida@example.com")).thenAnswer(invocacao -> {
+            pixKeyService.desativar(id);
+            return Optional.of(anterior);
+        });
+
+        pixKeyService.resolver("corrida@example.com");
+
+        assertNull(cacheResolucao.getIfPresent("corrida@example.com"));
+    }
+
+    @Test
+    public void testResolvePixKeyFromSnapshot() {
+        PixModelo chave = new PixModelo();
+        chave.setValorChave("snapshot@example.com");
+        when(diretorio.buscar("snapshot@example.com")).thenReturn(chave);
+
+        assertSame(chave, pixKeyService.resolver("snapshot@example.com"));
+
+        assertNull(cacheResolucao.getIfPresent("snapshot@example.com"));
+        verify(pixKeyRepository, never()).findByValorChaveAndInativaFalse(any());
+    }
+
+    @Test
+    public void testResolvePixKeyFromLocalReadModel() {
+        PixModelo chave = new PixModelo();
+        chave.setValorChave("local@example.com");
+        PixRepository local = mock(PixRepository.class);
+        when(leituraLocal.atualizado()).thenReturn(local);
+        when(local.findByValorChaveAndInativaFalse("local@example.com")).thenReturn(Optional.of(chave));
+        when(local.findByValorChaveAndInativaFalse("ausente@example.com")).thenReturn(Optional.empty());
+
+        assertSame(chave, pixKeyService.resolver("local@example.com"));
+        assertThrows(NaoEncontradoException.class, () -> pixKeyService.resolver("ausente@example.com"));
+
+        verify(pixKeyRepository, never()).findByValorChaveAndInativaFalse(any());
+        verify(diretorio, never()).buscar(any());
+    }
+
+    @Test
+    public void testSearchPixKeysFromLocalReadModel() {
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setNumeroAgencia("1234");
+        PixModelo chave = new PixModelo();
+        chave.setId(UUID.randomUUID().toString());
+        PixRepository local = mock(PixRepository.class);
+        when(leituraLocal.atualizado()).thenReturn(local);
+        when(local.buscarPorFiltros(eq(filtro), isNull(), anyInt())).thenReturn(List.of(chave));
+
+        assertEquals(List.of(chave), pixKeyService.buscar(filtro, null, null).getBody());
+        verify(pixKeyRepository, never()).buscarPorFiltros(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testSearchArchivedPixKeysSkipsLocalReadModel() {
+        PixFiltroDto filtro = new PixFiltroDto();
+        filtro.setNumeroAgencia("1234");
+        filtro.setArquivadas(true);
+        PixModelo chave = new PixModelo();
+        chave.setId(UUID.randomUUID().toString());
+        when(pixKeyRepository.buscarPorFiltros(eq(filtro), isNull(), anyInt())).thenReturn(List.of(chave));
+
+        assertEquals(List.of(chave), pixKeyService.buscar(filtro, null, null).getBody());
+        verify(leituraLocal, never()).atualizado();
+    }
+
+    @Test
+    public void testResolvePixKeyNotFound() {
+        when(pixKeyRepository.findByValorChaveAndInativaFalse("ausente@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(NaoEncontradoException.class, () -> pixKeyService.resolver("ausente@example.com"));
+        assertNull(cacheResolucao.getIfPresent("ausente@example.com"));
+    }
+
+    @Test
+    public void testRegisterPixKeyRejectsValueKnownToBloomFilter() {
+        PixRequisicaoDto requestDto = new PixRequisicaoDto();
+        requestDto.setTipoChave(TipoChave.EMAIL);
+        requestDto.setValorChave("repetida@example.com");
+        requestDto.setTipoConta("corrente");
+        requestDto.setNumeroAgencia("1234");
+        requestDto.setNumeroConta("12345678");
+        requestDto.setNomeCorrentista("João");
+        requestDto.setTipoCorrentista(TipoCorrentista.FISICA);
+        when(filtroChaves.talvezCadastrada("repetida@example.com")).thenReturn(true);
+        when(pixKeyRepository.existsByValorChave("repetida@example.com")).thenReturn(true);
+
+        assertThrows(ValidacaoException.class, () -> pixKeyService.cadastrar(requestDto));
+
+        verify(pixKeyRepository, never()).reservarChaves(any(), anyInt(), anyInt());
+        verify(pixKeyRepository, never()).insert(any(PixModelo.class));
+    }
+
+    @Test
+    public void testResolvePixKeyIgnoresBloomFilter() {
+        PixModelo chave = new PixModelo();
+        chave.setValorChave("outra-instancia@example.com");
+        when(pixKeyRepository.findByValorChaveAndInativaFalse("outra-instancia@example.com")).thenReturn(Optional.of(chave));
+
+        assertSame(chave, pixKeyService.resolver("outra-instancia@example.com"));
+        verify(filtroChaves, never()).talvezCadastrada(any());
+    }
+
+    @Test
+    public void testDeactivatePixKeyInvalidatesCache() {
+        UUID id = UUID.randomUUID();
+        PixModelo existingKey = new PixModelo();
+        existingKey.setId(id.toString());
+        existingKey.setValorChave("cache@example.com");
+        cacheResolucao.put("cache@example.com", existingKey);
+        when(pixKeyRepository.desativar(eq(id), any(LocalDateTime.class))).thenReturn(existingKey);
+
+        pixKeyService.desativar(id);
+
+        assertNull(cacheResolucao.getIfPresent("cache@example.com"));
+        verify(diretorio).invalidar("cache@example.com");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package com.itau.pix.service;
+
+import com.itau.pix.model.PixModelo;
+import com.itau.pix.model.enums.TipoChave;
+import com.itau.pix.model.enums.TipoCorrentista;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotChavesTest {
+
+    @TempDir
+    Path diretorio;
+
+    private static PixModelo chave(String valorChave) {
+        PixModelo chave = new PixModelo();
+        chave.setId(UUID.randomUUID().toString());
+        chave.setTipoChave(TipoChave.EMAIL);
+        chave.setValorChave(valorChave);
+        chave.setTipoConta("poupança");
+        chave.setNumeroAgencia("1234");
+        chave.setNumeroConta("12345678");
+        chave.setNomeCorrentista("João");
+        chave.setDataHoraInclusao(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        chave.setTipoCorrentista(TipoCorrentista.FISICA);
+        chave.setVersao(3L);
+        return chave;
+    }
+
+    @Test
+    public void testResolvesEveryWrittenKey() throws IOException {
+        List<PixModelo> chaves = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            chaves.add(chave("chave" + i + "@example.com"));
+        }
+
+        SnapshotChaves snapshot = SnapshotChaves.gravar(chaves.stream(), diretorio.resolve("pix_keys.snapshot"));
+
+        assertEquals(10_000, snapshot.getQuantidade());
+        for (PixModelo chave : chaves) {
+            int posicao = snapshot.localizar(chave.getValorChave());
+            assertTrue(posicao >= 0);
+            assertEquals(chave.getId(), snapshot.chave(posicao).getId());
+        }
+        assertEquals(-1, snapshot.localizar("ausente@example.com"));
+    }
+
+    @Test
+    public void testRoundTripsAllFields() throws IOException {
+        PixModelo chave = chave("completa@example.com");
+        Path arquivo = diretorio.resolve("pix_keys.snapshot");
+        SnapshotChaves.gravar(Stream.of(chave), arquivo);
+
+        SnapshotChaves snapshot = SnapshotChaves.abrir(arquivo);
+        PixModelo lida = snapshot.chave(snapshot.localizar("completa@example.com"));
+
+        assertEquals(chave.getId(), lida.getId());
+        assertEquals(TipoChave.EMAIL, lida.getTipoChave());
+        assertEquals("completa@example.com", lida.getValorChave());
+        assertEquals("poupança", lida.getTipoConta());
+        assertEquals("1234", lida.getNumeroAgencia());
+        assertEquals("12345678", lida.getNumeroConta());
+        assertEquals("João", lida.getNomeCorrentista());
+        assertNull(lida.getSobrenomeCorrentista());
+        assertEquals(chave.getDataHoraInclusao(), lida.getDataHoraInclusao());
+        assertEquals(TipoCorrentista.FISICA, lida.getTipoCorrentista());
+        assertEquals(3L, lida.getVersao());
+        assertFalse(lida.isInativa());
+    }
+
+    @Test
+    public void testSkipsKeysOutsideRecordFormat() throws IOException {
+        PixModelo foraDoLatin1 = chave("grego@example.com");
+        foraDoLatin1.setNomeCorrentista("Αλέξανδρος");
+        PixModelo idLivre = chave("id@example.com");
+        idLivre.setId("1234|12345678");
+
+        SnapshotChaves snapshot = SnapshotChaves.gravar(
+                Stream.of(foraDoLatin1, idLivre, chave("valida@example.com")), diretorio.resolve("pix_keys.snapshot"));
+
+        assertEquals(1, snapshot.getQuantidade());
+        assertEquals(2, snapshot.getIgnoradas());
+        assertEquals(-1, snapshot.localizar("grego@example.com"));
+        assertTrue(snapshot.localizar("valida@example.com") >= 0);
+    }
+
+    @Test
+    public void testReplacesPreviousSnapshot() throws IOException {
+        Path arquivo = diretorio.resolve("pix_keys.snapshot");
+        SnapshotChaves anterior = SnapshotChaves.gravar(Stream.of(chave("antiga@example.com")), arquivo);
+
+        SnapshotChaves novo = SnapshotChaves.gravar(Stream.of(chave("nova@example.com")), arquivo);
+
+        assertTrue(anterior.localizar("antiga@example.com") >= 0);
+        assertEquals(-1, novo.localizar("antiga@example.com"));
+        assertTrue(novo.localizar("nova@example.com") >= 0);
+    }
+}
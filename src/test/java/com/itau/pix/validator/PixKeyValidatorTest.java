@@ -1,39 +1,29 @@
 package com.itau.pix.validator;
 
-import com.itau.pix.exception.PixValidadorException;
 import com.itau.pix.massas.GeradorMassas;
 import com.itau.pix.model.PixModelo;
 import com.itau.pix.model.enums.TipoChave;
 import com.itau.pix.model.dto.PixRequisicaoDto;
 import com.itau.pix.model.dto.PixAlterarRequisicaoDto;
-import com.itau.pix.repository.PixRepository;
-import org.junit.jupiter.api.BeforeEach;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
 
 public class PixKeyValidatorTest {
 
-    @Mock
-    private PixRepository repository;
-
-    @InjectMocks
-    private PixValidadorStrategy validator;
-
-    @BeforeEach
-    public void setUp() {
-        MockitoAnnotations.openMocks(this);
-    }
+    private final PixValidadorStrategy validator = new PixValidadorStrategy(
+            new ValidadorPixFactory(List.of(new ValidadorCelular(), new ValidadorEmail(), new ValidadorCPF(),
+                    new ValidadorCNPJ(), new ValidadorChaveAleatoria())),
+            Validation.buildDefaultValidatorFactory().getValidator());
 
     @Test
     public void testValidatePixKeyRequestValid() {
         PixRequisicaoDto requestDto = GeradorMassas.createPixKeyRequestDto();
 
-        when(repository.existsByValorChave(requestDto.getValorChave())).thenReturn(false);
         assertEquals(requestDto.getTipoChave(), TipoChave.EMAIL);
         assertDoesNotThrow(() -> validator.validadorRequisicao(requestDto));
         requestDto.setTipoChave(TipoChave.CPF);
@@ -58,25 +48,12 @@ public class PixKeyValidatorTest {
     public void testValidatePixKeyRequestInvalid() {
         PixRequisicaoDto requestDto = GeradorMassas.createInvalidPixKeyRequestDto();
 
-        Exception exception = assertThrows(PixValidadorException.class, () -> {
+        Exception exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicao(requestDto);
         });
         assertTrue(exception.getMessage().contains("Todos os campos obrigatórios devem ser informados."));
     }
 
-    @Test
-    public void testValidatePixKeyRequestDuplicatedValue() {
-        PixRequisicaoDto requestDto = GeradorMassas.createDuplicatedPixKeyRequestDto();
-
-        when(repository.existsByValorChave(requestDto.getValorChave())).thenReturn(true);
-
-        Exception exception = assertThrows(RuntimeException.class, () -> {
-            validator.validadorRequisicao(requestDto);
-        });
-
-        assertTrue(exception.getMessage().contains("Já existe uma chave cadastrada com esse valor."));
-    }
-
     @Test
     public void testValidatePixKeyUpdateRequestInvalidTipoConta() {
         PixModelo existingKey = new PixModelo();
@@ -93,7 +70,7 @@ public class PixKeyValidatorTest {
         PixAlterarRequisicaoDto requestDto = GeradorMassas.createPixKeyUpdateRequestDto();
         requestDto.setTipoConta("inválido");
 
-        PixValidadorException exception = assertThrows(PixValidadorException.class, () -> {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicaoAlterar(existingKey, requestDto);
         });
         assertTrue(exception.getMessage().contains("Tipo de conta inválido. Deve ser 'corrente' ou 'poupança'."));
@@ -104,42 +81,42 @@ public class PixKeyValidatorTest {
         PixRequisicaoDto requestDto = GeradorMassas.createPixKeyRequestDto();
         requestDto.setTipoChave(TipoChave.ALEATORIA);
         requestDto.setValorChave("445555");
-        PixValidadorException exception = assertThrows(PixValidadorException.class, () -> {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicao(requestDto);
         });
         assertTrue(exception.getMessage().contains("Valor de chave aleatória inválido."));
 
         requestDto.setTipoChave(TipoChave.CELULAR);
         requestDto.setValorChave("+5566391110");
-        exception = assertThrows(PixValidadorException.class, () -> {
+        exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicao(requestDto);
         });
         assertTrue(exception.getMessage().contains("Número de celular inválido. O formato correto é +55DD9XXXXXXXX."));
 //
         requestDto.setTipoChave(TipoChave.CPF);
         requestDto.setValorChave("445555");
-        exception = assertThrows(PixValidadorException.class, () -> {
+        exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicao(requestDto);
         });
         assertTrue(exception.getMessage().contains("Valor de CPF inválido."));
 
         requestDto.setTipoChave(TipoChave.CNPJ);
         requestDto.setValorChave("445555");
-        exception = assertThrows(PixValidadorException.class, () -> {
+        exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicao(requestDto);
         });
         assertTrue(exception.getMessage().contains("Valor de CNPJ inválido."));
 
         requestDto.setTipoChave(TipoChave.CELULAR);
         requestDto.setValorChave("1166391110");
-        exception = assertThrows(PixValidadorException.class, () -> {
+        exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicao(requestDto);
         });
         assertTrue(exception.getMessage().contains("O código do país deve ser +55 para números do Brasil."));
 
         requestDto.setTipoChave(TipoChave.EMAIL);
         requestDto.setValorChave("sadsa.cm");
-        exception = assertThrows(PixValidadorException.class, () -> {
+        exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicao(requestDto);
         });
         assertTrue(exception.getMessage().contains("Valor de e-mail inválido."));
@@ -161,7 +138,7 @@ public class PixKeyValidatorTest {
         PixAlterarRequisicaoDto requestDto = GeradorMassas.createPixKeyUpdateRequestDto();
         requestDto.setId("123");
 
-        PixValidadorException exception = assertThrows(PixValidadorException.class, () -> {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicaoAlterar(existingKey, requestDto);
         });
         assertTrue(exception.getMessage().contains("O ID da chave não pode ser alterado."));
@@ -183,7 +160,7 @@ public class PixKeyValidatorTest {
         PixAlterarRequisicaoDto requestDto = GeradorMassas.createPixKeyUpdateRequestDto();
         requestDto.setNumeroConta("12345678");
 
-        PixValidadorException exception = assertThrows(PixValidadorException.class, () -> {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicaoAlterar(existingKey, requestDto);
         });
         assertTrue(exception.getMessage().contains("Não é permitido alterar uma chave inativa."));
@@ -205,7 +182,7 @@ public class PixKeyValidatorTest {
         PixAlterarRequisicaoDto requestDto = GeradorMassas.createPixKeyUpdateRequestDto();
         requestDto.setNumeroAgencia("123");
 
-        PixValidadorException exception = assertThrows(PixValidadorException.class, () -> {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicaoAlterar(existingKey, requestDto);
         });
 
@@ -228,7 +205,7 @@ public class PixKeyValidatorTest {
         PixAlterarRequisicaoDto requestDto = GeradorMassas.createPixKeyUpdateRequestDto();
         requestDto.setValorChave("123");
 
-        PixValidadorException exception = assertThrows(PixValidadorException.class, () -> {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicaoAlterar(existingKey, requestDto);
         });
 
@@ -251,7 +228,7 @@ public class PixKeyValidatorTest {
         PixAlterarRequisicaoDto requestDto = GeradorMassas.createPixKeyUpdateRequestDto();
         requestDto.setTipoChave(TipoChave.CELULAR);
 
-        PixValidadorException exception = assertThrows(PixValidadorException.class, () -> {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicaoAlterar(existingKey, requestDto);
         });
 
@@ -274,7 +251,7 @@ public class PixKeyValidatorTest {
         PixAlterarRequisicaoDto requestDto = GeradorMassas.createPixKeyUpdateRequestDto();
         requestDto.setNumeroConta("123");
 
-        PixValidadorException exception = assertThrows(PixValidadorException.class, () -> {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicaoAlterar(existingKey, requestDto);
         });
 
@@ -297,10 +274,10 @@ public class PixKeyValidatorTest {
         PixAlterarRequisicaoDto requestDto = GeradorMassas.createPixKeyUpdateRequestDto();
         requestDto.setNomeCorrentista("");
 
-        PixValidadorException exception = assertThrows(PixValidadorException.class, () -> {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicaoAlterar(existingKey, requestDto);
         });
-        assertTrue(exception.getMessage().contains("Nome do correntista inválido. Deve ter no máximo 30 caracteres."));
+        assertTrue(exception.getMessage().contains("Nome do correntista inválido. Não pode ser em branco e deve ter no máximo 30 caracteres."));
     }
 
     @Test
@@ -317,9 +294,9 @@ public class PixKeyValidatorTest {
         existingKey.setInativa(false);
 
         PixAlterarRequisicaoDto requestDto = GeradorMassas.createPixKeyUpdateRequestDto();
-        requestDto.setSobrenomeCorrentista("");
+        requestDto.setSobrenomeCorrentista("S".repeat(46));
 
-        PixValidadorException exception = assertThrows(PixValidadorException.class, () -> {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
             validator.validadorRequisicaoAlterar(existingKey, requestDto);
         });
         assertTrue(exception.getMessage().contains("Sobrenome do correntista inválido. Deve ter no máximo 45 caracteres."));
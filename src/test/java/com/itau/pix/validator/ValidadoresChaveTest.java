@@ -0,0 +1,105 @@
+package com.itau.pix.validator;
+
+import com.itau.pix.exception.ValidacaoException;
+import com.itau.pix.model.dto.PixRequisicaoDto;
+import com.itau.pix.model.enums.TipoChave;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidadoresChaveTest {
+
+    private static PixRequisicaoDto requisicao(String valorChave) {
+        PixRequisicaoDto requestDto = new PixRequisicaoDto();
+        requestDto.setValorChave(valorChave);
+        return requestDto;
+    }
+
+    @Test
+    public void testValidadorCPF() {
+        ValidadorCPF validador = new ValidadorCPF();
+
+        assertDoesNotThrow(() -> validador.validate(requisicao("97670138068")));
+        assertDoesNotThrow(() -> validador.validate(requisicao("52998224725")));
+
+        for (String invalido : new String[]{"97670138069", "11111111111", "9767013806", "976701380680", "976.701.380-68", "9767013806a"}) {
+            ValidacaoException exception = assertThrows(ValidacaoException.class, () -> validador.validate(requisicao(invalido)));
+            assertTrue(exception.getMessage().contains("Valor de CPF inválido."));
+        }
+    }
+
+    @Test
+    public void testValidadorCNPJ() {
+        ValidadorCNPJ validador = new ValidadorCNPJ();
+
+        assertDoesNotThrow(() -> validador.validate(requisicao("45076971000153")));
+        assertDoesNotThrow(() -> validador.validate(requisicao("11222333000181")));
+
+        for (String invalido : new String[]{"45076971000154", "4507697100015", "45.076.971/0001-53", "4507697100015x"}) {
+            ValidacaoException exception = assertThrows(ValidacaoException.class, () -> validador.validate(requisicao(invalido)));
+            assertTrue(exception.getMessage().contains("Valor de CNPJ inválido."));
+        }
+    }
+
+    @Test
+    public void testValidadorCelular() {
+        ValidadorCelular validador = new ValidadorCelular();
+
+        assertDoesNotThrow(() -> validador.validate(requisicao("+5511912345678")));
+
+        ValidacaoException exception = assertThrows(ValidacaoException.class, () -> validador.validate(requisicao("+5411912345678")));
+        assertTrue(exception.getMessage().contains("O código do país deve ser +55 para números do Brasil."));
+
+        for (String invalido : new String[]{"+5511812345678", "+551191234567", "+55119123456789", "+55A1912345678"}) {
+            exception = assertThrows(ValidacaoException.class, () -> validador.validate(requisicao(invalido)));
+            assertTrue(exception.getMessage().contains("Número de celular inválido. O formato correto é +55DD9XXXXXXXX."));
+        }
+    }
+
+    @Test
+    public void testValidadorEmail() {
+        ValidadorEmail validador = new ValidadorEmail();
+
+        for (String valido : new String[]{"test@example.com", "nome.sobrenome+pix@sub-dominio.empresa.com.br", "a_b%c@x.io"}) {
+            assertDoesNotThrow(() -> validador.validate(requisicao(valido)));
+        }
+
+        for (String invalido : new String[]{"sadsa.cm", "@example.com", "test@.com", "test@example.c", "test@example.c0m", "test@@example.com", "te st@example.com"}) {
+            ValidacaoException exception = assertThrows(ValidacaoException.class, () -> validador.validate(requisicao(invalido)));
+            assertTrue(exception.getMessage().contains("Valor de e-mail inválido."));
+        }
+
+        String longo = "a".repeat(71) + "@ex.com";
+        assertThrows(ValidacaoException.class, () -> validador.validate(requisicao(longo)));
+    }
+
+    @Test
+    public void testValidadorChaveAleatoria() {
+        ValidadorChaveAleatoria validador = new ValidadorChaveAleatoria();
+
+        assertDoesNotThrow(() -> validador.validate(requisicao("417122439961664439189826754968636099")));
+        assertDoesNotThrow(() -> validador.validate(requisicao("abcdefABCDEF0123456789abcdefABCDEF01")));
+
+        for (String invalido : new String[]{"445555", "123e4567-e89b-12d3-a456-42661417400", "417122439961664439189826754968636099x"}) {
+            ValidacaoException exception = assertThrows(ValidacaoException.class, () -> validador.validate(requisicao(invalido)));
+            assertTrue(exception.getMessage().contains("Valor de chave aleatória inválido."));
+        }
+    }
+
+    @Test
+    public void testValidadorPixFactoryRegistraTempoPorTipoChave() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ValidadorPixFactory factory = new ValidadorPixFactory(List.of(new ValidadorCPF(), new ValidadorEmail()), registry);
+
+        factory.getStrategy(TipoChave.CPF).validate(requisicao("97670138068"));
+        assertThrows(ValidacaoException.class, () -> factory.getStrategy(TipoChave.CPF).validate(requisicao("11111111111")));
+
+        Timer timer = registry.get(ValidadorPixFactory.METRICA_VALIDADOR).tag("tipoChave", "CPF").timer();
+        assertEquals(2, timer.count());
+        assertEquals(0, registry.get(ValidadorPixFactory.METRICA_VALIDADOR).tag("tipoChave", "EMAIL").timer().count());
+    }
+}